@@ -0,0 +1,155 @@
+import java.util.List;
+
+/**
+ * Represents several daily series lined up on the trading days they have in common. The
+ * alignment is a merge-join that walks every series forward once, so lining up k series of
+ * n days costs O(k * n) instead of a date lookup per series per day. Days that are missing from
+ * any of the series are dropped. An AlignedSeries is never modified after it is constructed.
+ */
+public final class AlignedSeries {
+  private final String[] names;
+  private final int[] epochDays;
+  private final double[][] values;
+
+  private AlignedSeries(String[] names, int[] epochDays, double[][] values) {
+    this.names = names;
+    this.epochDays = epochDays;
+    this.values = values;
+  }
+
+  /**
+   * Lines up the series on the trading days they share between the two days, inclusive.
+   *
+   * @param series   a list of PriceSeries representing the series to line up.
+   * @param startDay an int representing the first day to include as an epoch day.
+   * @param endDay   an int representing the last day to include as an epoch day.
+   * @return an AlignedSeries with one column per series, in the same order as the list.
+   */
+  public static AlignedSeries align(List<PriceSeries> series, int startDay, int endDay) {
+    int k = series.size();
+    if (k == 0) {
+      return new AlignedSeries(new String[0], new int[0], new double[0][0]);
+    }
+    String[] names = new String[k];
+    int[] cursors = new int[k];
+    int shortest = Integer.MAX_VALUE;
+    for (int s = 0; s < k; s++) {
+      PriceSeries current = series.get(s);
+      names[s] = current.getTicker();
+      cursors[s] = Math.max(0, current.indexAtOrBefore(startDay - 1) + 1);
+      shortest = Math.min(shortest, current.size() - cursors[s]);
+    }
+
+    int[] days = new int[Math.max(0, shortest)];
+    double[][] values = new double[k][days.length];
+    int count = 0;
+    while (true) {
+      // the latest day any cursor is on is the first day every series could share
+      int candidate = Integer.MIN_VALUE;
+      for (int s = 0; s < k; s++) {
+        if (cursors[s] >= series.get(s).size()) {
+          return trimmed(names, days, values, count);
+        }
+        candidate = Math.max(candidate, series.get(s).getEpochDay(cursors[s]));
+      }
+      if (candidate > endDay) {
+        return trimmed(names, days, values, count);
+      }
+      boolean shared = true;
+      for (int s = 0; s < k; s++) {
+        PriceSeries current = series.get(s);
+        while (cursors[s] < current.size() && current.getEpochDay(cursors[s]) < candidate) {
+          cursors[s]++;
+        }
+        if (cursors[s] >= current.size() || current.getEpochDay(cursors[s]) != candidate) {
+          shared = false;
+        }
+      }
+      if (shared) {
+        days[count] = candidate;
+        for (int s = 0; s < k; s++) {
+          values[s][count] = series.get(s).getClose(cursors[s]);
+          cursors[s]++;
+        }
+        count++;
+      }
+    }
+  }
+
+  /**
+   * Gets the number of series that were lined up.
+   *
+   * @return an int representing the number of columns.
+   */
+  public int getSeriesCount() {
+    return names.length;
+  }
+
+  /**
+   * Gets the number of trading days every series has in common.
+   *
+   * @return an int representing the number of rows.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Gets the name of the series in the specified column.
+   *
+   * @param series an int representing the column.
+   * @return a String with the ticker or name of the series.
+   */
+  public String getName(int series) {
+    return names[series];
+  }
+
+  /**
+   * Gets the shared trading day at the specified row as an epoch day.
+   *
+   * @param index an int representing the row, 0 being the oldest shared day.
+   * @return an int representing the epoch day.
+   */
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Gets the value of a series on a shared trading day.
+   *
+   * @param series an int representing the column.
+   * @param index  an int representing the row, 0 being the oldest shared day.
+   * @return a double with the value of the series on that day.
+   */
+  public double getValue(int series, int index) {
+    return values[series][index];
+  }
+
+  /**
+   * Computes the simple daily returns of one column, where return i is the change from
+   * shared day i to shared day i + 1.
+   *
+   * @param series an int representing the column.
+   * @return an array of doubles with one fewer entry than the number of shared days.
+   */
+  public double[] returns(int series) {
+    double[] column = values[series];
+    double[] out = new double[Math.max(0, column.length - 1)];
+    for (int i = 0; i < out.length; i++) {
+      out[i] = column[i + 1] / column[i] - 1;
+    }
+    return out;
+  }
+
+  // copies the filled part of the columns
+  private static AlignedSeries trimmed(String[] names, int[] days, double[][] values,
+                                       int count) {
+    int[] outDays = new int[count];
+    System.arraycopy(days, 0, outDays, 0, count);
+    double[][] outValues = new double[values.length][count];
+    for (int s = 0; s < values.length; s++) {
+      System.arraycopy(values[s], 0, outValues[s], 0, count);
+    }
+    return new AlignedSeries(names, outDays, outValues);
+  }
+}
@@ -0,0 +1,152 @@
+import java.time.LocalDate;
+
+/**
+ * Represents the outcome of replaying a strategy over a stock's history: the value of the
+ * account at the close of every trading day, the number of trades and the portfolio left at
+ * the end. The total return, Sharpe ratio and maximum drawdown are worked out from the equity
+ * curve once, when the result is constructed. A BacktestResult is never modified after it is
+ * constructed.
+ */
+public final class BacktestResult {
+  private final String strategy;
+  private final PriceSeries series;
+  private final int offset;
+  private final double[] equity;
+  private final int trades;
+  private final IPortfolio portfolio;
+  private final double sharpe;
+  private final double maxDrawdown;
+
+  /**
+   * Constructs a BacktestResult object.
+   *
+   * @param strategy  a String describing the strategy that was replayed.
+   * @param series    the PriceSeries the strategy was replayed over.
+   * @param offset    an int representing the position in the series of the first traded day.
+   * @param equity    an array of doubles with the account value at each traded day's close.
+   * @param trades    an int representing the number of buys and sells.
+   * @param portfolio the IPortfolio holding the shares left at the end.
+   */
+  public BacktestResult(String strategy, PriceSeries series, int offset, double[] equity,
+                        int trades, IPortfolio portfolio) {
+    if (equity.length == 0) {
+      throw new IllegalArgumentException("The equity curve must have at least one day.");
+    }
+    this.strategy = strategy;
+    this.series = series;
+    this.offset = offset;
+    this.equity = equity;
+    this.trades = trades;
+    this.portfolio = portfolio;
+
+    int count = 0;
+    double mean = 0;
+    double squares = 0;
+    double peak = equity[0];
+    double drawdown = 0;
+    for (int i = 1; i < equity.length; i++) {
+      double r = equity[i] / equity[i - 1] - 1;
+      count++;
+      double delta = r - mean;
+      mean += delta / count;
+      squares += delta * (r - mean);
+      peak = Math.max(peak, equity[i]);
+      drawdown = Math.max(drawdown, 1 - equity[i] / peak);
+    }
+    double deviation = count < 2 ? 0 : Math.sqrt(squares / (count - 1));
+    this.sharpe = deviation == 0 ? 0
+            : mean / deviation * Math.sqrt(RiskMetrics.TRADING_DAYS_PER_YEAR);
+    this.maxDrawdown = drawdown;
+  }
+
+  /**
+   * Gets a description of the strategy that was replayed.
+   *
+   * @return a String describing the strategy.
+   */
+  public String getStrategy() {
+    return strategy;
+  }
+
+  /**
+   * Gets the number of trading days in the equity curve.
+   *
+   * @return an int representing the number of days.
+   */
+  public int size() {
+    return equity.length;
+  }
+
+  /**
+   * Gets the trading day at the specified position of the equity curve.
+   *
+   * @param index an int representing the position in the curve, 0 being the first day.
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate(int index) {
+    return LocalDate.ofEpochDay(series.getEpochDay(offset + index)).toString();
+  }
+
+  /**
+   * Gets the value of the cash and shares at the close of the specified trading day.
+   *
+   * @param index an int representing the position in the curve, 0 being the first day.
+   * @return a double with the value of the account.
+   */
+  public double getEquity(int index) {
+    return equity[index];
+  }
+
+  /**
+   * Gets the number of buys and sells made.
+   *
+   * @return an int representing the number of trades.
+   */
+  public int getTrades() {
+    return trades;
+  }
+
+  /**
+   * Gets the portfolio left at the end of the replay.
+   *
+   * @return an IPortfolio holding the shares still owned on the last day.
+   */
+  public IPortfolio getPortfolio() {
+    return portfolio;
+  }
+
+  /**
+   * Gets the return of the account from the first day to the last.
+   *
+   * @return a double with the return as a fraction, so 0.1 is 10%.
+   */
+  public double getTotalReturn() {
+    return equity[equity.length - 1] / equity[0] - 1;
+  }
+
+  /**
+   * Gets the annualized Sharpe ratio of the daily returns, taking the risk-free rate as zero.
+   *
+   * @return a double with the Sharpe ratio, or 0 if the account value never changed.
+   */
+  public double getSharpeRatio() {
+    return sharpe;
+  }
+
+  /**
+   * Gets the largest fall of the account from a peak to a later low.
+   *
+   * @return a double with the drawdown as a fraction of the peak.
+   */
+  public double getMaxDrawdown() {
+    return maxDrawdown;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s on %s from %s to %s: return %.2f%%, Sharpe %.2f, max drawdown "
+                    + "%.2f%%, %d trades", strategy, series.getTicker(), getDate(0),
+            getDate(equity.length - 1), getTotalReturn() * 100, sharpe, maxDrawdown * 100,
+            trades);
+  }
+}
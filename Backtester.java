@@ -0,0 +1,63 @@
+/**
+ * Replays a Strategy over the cached price history of one stock. Each trading day the strategy
+ * is asked for a signal at the close; a buy puts all the cash into the stock and a sell turns
+ * every share back into cash. Trades are recorded as addStock and removeStock calls on an
+ * in-memory Portfolio, and the value of the cash and shares is written into a preallocated
+ * equity curve, so the only work done on a day without a trade is arithmetic on primitives.
+ */
+public final class Backtester {
+
+  private Backtester() {
+    // static helpers only
+  }
+
+  /**
+   * Replays the strategy over the trading days between the two days, inclusive. The strategy
+   * can use the history before the first day to warm up its indicators.
+   *
+   * @param series   the PriceSeries of the stock to trade.
+   * @param strategy the Strategy deciding when to buy and sell.
+   * @param cash     a double representing the cash available on the first day.
+   * @param startDay an int representing the first day to trade as an epoch day.
+   * @param endDay   an int representing the last day to trade as an epoch day.
+   * @return a BacktestResult with the equity curve, trades and final portfolio.
+   * @throws IllegalArgumentException if the cash is not positive or the stock has no data in
+   *                                  the range.
+   */
+  public static BacktestResult run(PriceSeries series, Strategy strategy, double cash,
+                                   int startDay, int endDay) {
+    if (cash <= 0) {
+      throw new IllegalArgumentException("The starting cash must be positive.");
+    }
+    int from = series.indexAtOrBefore(startDay - 1) + 1;
+    int to = series.indexAtOrBefore(endDay);
+    if (to < from) {
+      throw new IllegalArgumentException("No data found for " + series.getTicker()
+              + " in the date range.");
+    }
+    strategy.prepare(series);
+
+    double[] closes = series.closeColumn();
+    double[] equity = new double[to - from + 1];
+    IPortfolio port = new Portfolio("Backtest of " + strategy.getName());
+    double balance = cash;
+    double shares = 0;
+    int trades = 0;
+    for (int i = from; i <= to; i++) {
+      Signal signal = strategy.signal(i);
+      if (signal == Signal.BUY && shares == 0) {
+        shares = balance / closes[i];
+        balance = 0;
+        port = port.addStock(series.getTicker(), shares, series.getDate(i));
+        trades++;
+      } else if (signal == Signal.SELL && shares > 0) {
+        balance = shares * closes[i];
+        port = port.removeStock(series.getTicker(), shares, -1, true, series.getDate(i));
+        shares = 0;
+        trades++;
+      }
+      equity[i - from] = balance + shares * closes[i];
+    }
+    return new BacktestResult(strategy.getName(), series, from, equity, trades, port);
+  }
+}
@@ -0,0 +1,131 @@
+import java.time.LocalDate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the Backtester, BacktestResult and MovingAverageCrossoverStrategy.
+ */
+public class BacktesterTest {
+  private int start;
+
+  /**
+   * Sets the first day of every test series. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+  }
+
+  // makes a series with one price per day starting on the first day
+  private PriceSeries makeSeries(double... closes) {
+    int[] days = new int[closes.length];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = start + i;
+    }
+    return new PriceSeries("AAPL", days, closes);
+  }
+
+  /**
+   * Tests that the crossover strategy signals a buy when the price closes above its average
+   * after closing below it, and a sell on the way back down.
+   */
+  @Test
+  public void testCrossoverSignals() {
+    Strategy strategy = new MovingAverageCrossoverStrategy(2, 0);
+    strategy.prepare(makeSeries(10, 9, 8, 10, 11, 9, 8));
+    assertEquals(Signal.HOLD, strategy.signal(1));
+    assertEquals(Signal.HOLD, strategy.signal(2));
+    assertEquals(Signal.BUY, strategy.signal(3));
+    assertEquals(Signal.HOLD, strategy.signal(4));
+    assertEquals(Signal.SELL, strategy.signal(5));
+  }
+
+  /**
+   * Tests that a price that only touches its average before moving away is not counted as a
+   * cross, the same as in xDayCrossover.
+   */
+  @Test
+  public void testTouchIsNotCross() {
+    Strategy strategy = new MovingAverageCrossoverStrategy(2, 0);
+    strategy.prepare(makeSeries(10, 10, 10, 12, 12, 12, 10));
+    assertEquals(Signal.HOLD, strategy.signal(3));
+    assertEquals(Signal.HOLD, strategy.signal(6));
+  }
+
+  /**
+   * Tests that a threshold ignores crosses that do not get far enough past the average.
+   */
+  @Test
+  public void testThreshold() {
+    Strategy strategy = new MovingAverageCrossoverStrategy(2, 0.2);
+    strategy.prepare(makeSeries(10, 9, 8, 10, 11, 9, 8));
+    assertEquals(Signal.HOLD, strategy.signal(3));
+  }
+
+  /**
+   * Tests the cash, shares, equity curve and portfolio of a replay worked out by hand, with the
+   * exit recorded on the day of the sale.
+   */
+  @Test
+  public void testReplay() {
+    PriceSeries series = makeSeries(10, 9, 8, 10, 11, 9, 8);
+    BacktestResult result = Backtester.run(series, new MovingAverageCrossoverStrategy(2, 0),
+            1000, start, start + 6);
+    assertEquals(7, result.size());
+    assertEquals(2, result.getTrades());
+    assertEquals(1000.0, result.getEquity(2), 1e-9);
+    assertEquals(1100.0, result.getEquity(4), 1e-9);
+    assertEquals(900.0, result.getEquity(5), 1e-9);
+    assertEquals(900.0, result.getEquity(6), 1e-9);
+    assertEquals(-0.1, result.getTotalReturn(), 1e-9);
+    assertEquals(1 - 900.0 / 1100, result.getMaxDrawdown(), 1e-9);
+    IPortfolio port = result.getPortfolio();
+    assertEquals(0, port.getStockListSize());
+    assertEquals(100.0, port.holdingsOn(result.getDate(4)).getTotalShares("AAPL",
+            result.getDate(4)), 1e-9);
+    PortfolioEvent exit = port.getHistory().get(port.getHistory().size() - 1);
+    assertEquals(PortfolioEvent.Type.REMOVE, exit.getType());
+    assertEquals(result.getDate(5), exit.getDate());
+    assertEquals(LocalDate.ofEpochDay(start + 6).toString(), result.getDate(6));
+  }
+
+  /**
+   * Tests that an open position is left in the portfolio with the date it was bought.
+   */
+  @Test
+  public void testOpenPosition() {
+    PriceSeries series = makeSeries(10, 9, 8, 10, 11);
+    BacktestResult result = Backtester.run(series, new MovingAverageCrossoverStrategy(2, 0),
+            1000, start, start + 4);
+    IPortfolio port = result.getPortfolio();
+    assertEquals(1, port.getStockListSize());
+    assertEquals(100.0, port.getStock(0).getQuantity(), 1e-9);
+    assertEquals(LocalDate.ofEpochDay(start + 3).toString(), port.getStock(0).getDatePurchased());
+    assertTrue(result.getSharpeRatio() > 0);
+  }
+
+  /**
+   * Tests that days before the range only warm up the indicators.
+   */
+  @Test
+  public void testRangeStart() {
+    PriceSeries series = makeSeries(10, 9, 8, 10, 11, 9, 8);
+    BacktestResult result = Backtester.run(series, new MovingAverageCrossoverStrategy(2, 0),
+            1000, start + 4, start + 6);
+    assertEquals(3, result.size());
+    assertEquals(0, result.getTrades());
+  }
+
+  /**
+   * Tests that a range without data is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyRange() {
+    Backtester.run(makeSeries(10, 9), new MovingAverageCrossoverStrategy(2, 0), 1000,
+            start + 10, start + 20);
+  }
+}
@@ -0,0 +1,244 @@
+import java.time.LocalDate;
+
+/**
+ * Compares a portfolio's daily performance with a benchmark such as SPY or QQQ over the same
+ * range. The portfolio's value series and the benchmark's price series are lined up with a
+ * merge-join that walks both forward once, and the comparison is made on the trading days they
+ * share. Portfolio returns leave out the money added on each day, so buying more shares is not
+ * mistaken for outperforming the benchmark. A BenchmarkComparison is never modified after it
+ * is constructed.
+ */
+public final class BenchmarkComparison {
+  private final String portfolio;
+  private final String benchmark;
+  private final int[] epochDays;
+  private final double[] portfolioGrowth;
+  private final double[] benchmarkGrowth;
+  private final int observations;
+  private final double alpha;
+  private final double beta;
+  private final double trackingError;
+
+  private BenchmarkComparison(String portfolio, String benchmark, int[] epochDays,
+                              double[] portfolioGrowth, double[] benchmarkGrowth,
+                              int observations, double alpha, double beta,
+                              double trackingError) {
+    this.portfolio = portfolio;
+    this.benchmark = benchmark;
+    this.epochDays = epochDays;
+    this.portfolioGrowth = portfolioGrowth;
+    this.benchmarkGrowth = benchmarkGrowth;
+    this.observations = observations;
+    this.alpha = alpha;
+    this.beta = beta;
+    this.trackingError = trackingError;
+  }
+
+  /**
+   * Compares the portfolio with the benchmark on the trading days they share.
+   *
+   * @param series    a ValueSeries representing the portfolio's daily values.
+   * @param benchmark a PriceSeries representing the benchmark's closing prices.
+   * @return a BenchmarkComparison of the two series.
+   * @throws IllegalArgumentException if the series share fewer than three days on which the
+   *                                  portfolio holds something.
+   */
+  public static BenchmarkComparison compare(ValueSeries series, PriceSeries benchmark) {
+    int capacity = Math.min(series.size(), benchmark.size());
+    int[] days = new int[capacity];
+    double[] growth = new double[capacity];
+    double[] relativeTo = new double[capacity];
+
+    // running sums for the regression of portfolio returns on benchmark returns
+    int count = 0;
+    double meanP = 0;
+    double meanB = 0;
+    double coMoment = 0;
+    double squaresB = 0;
+    double meanDiff = 0;
+    double squaresDiff = 0;
+
+    int shared = 0;
+    int p = benchmark.indexAtOrBefore(series.size() == 0 ? 0 : series.getEpochDay(0) - 1) + 1;
+    double portfolioIndex = 1;
+    boolean holding = false;
+    int lastBenchmark = -1;
+    for (int i = 0; i < series.size() && p < benchmark.size(); i++) {
+      int day = series.getEpochDay(i);
+      while (p < benchmark.size() && benchmark.getEpochDay(p) < day) {
+        p++;
+      }
+      if (i > 0) {
+        // chains the portfolio's daily returns so gaps in the benchmark are bridged
+        double r = series.returnAt(i);
+        portfolioIndex *= Double.isNaN(r) ? 1 : 1 + r;
+      }
+      if (p >= benchmark.size() || benchmark.getEpochDay(p) != day) {
+        continue;
+      }
+      if (series.getValue(i) <= 0) {
+        // nothing is held, so the comparison starts again once something is bought
+        holding = false;
+        continue;
+      }
+      if (!holding) {
+        shared = 0;
+        count = 0;
+        meanP = 0;
+        meanB = 0;
+        coMoment = 0;
+        squaresB = 0;
+        meanDiff = 0;
+        squaresDiff = 0;
+      } else {
+        double rp = portfolioIndex / growth[shared - 1] - 1;
+        double rb = benchmark.getClose(p) / benchmark.getClose(lastBenchmark) - 1;
+        count++;
+        double deltaP = rp - meanP;
+        double deltaB = rb - meanB;
+        meanP += deltaP / count;
+        meanB += deltaB / count;
+        coMoment += deltaP * (rb - meanB);
+        squaresB += deltaB * (rb - meanB);
+        double diff = rp - rb;
+        double deltaDiff = diff - meanDiff;
+        meanDiff += deltaDiff / count;
+        squaresDiff += deltaDiff * (diff - meanDiff);
+      }
+      days[shared] = day;
+      growth[shared] = portfolioIndex;
+      relativeTo[shared] = benchmark.getClose(p);
+      shared++;
+      holding = true;
+      lastBenchmark = p;
+    }
+    if (count < 2) {
+      throw new IllegalArgumentException("Not enough shared trading days to compare with "
+              + benchmark.getTicker() + ". Please pick a longer date range.");
+    }
+
+    int[] outDays = new int[shared];
+    double[] outPortfolio = new double[shared];
+    double[] outBenchmark = new double[shared];
+    for (int k = 0; k < shared; k++) {
+      outDays[k] = days[k];
+      outPortfolio[k] = growth[k] / growth[0];
+      outBenchmark[k] = relativeTo[k] / relativeTo[0];
+    }
+    double beta = squaresB == 0 ? Double.NaN : coMoment / squaresB;
+    double alpha = (meanP - beta * meanB) * RiskMetrics.TRADING_DAYS_PER_YEAR;
+    double trackingError = Math.sqrt(squaresDiff / (count - 1)
+            * RiskMetrics.TRADING_DAYS_PER_YEAR);
+    return new BenchmarkComparison(series.getName(), benchmark.getTicker(), outDays,
+            outPortfolio, outBenchmark, count, alpha, beta, trackingError);
+  }
+
+  /**
+   * Gets the ticker of the benchmark.
+   *
+   * @return a String with the benchmark's ticker symbol.
+   */
+  public String getBenchmark() {
+    return benchmark;
+  }
+
+  /**
+   * Gets the number of daily returns the statistics were computed from.
+   *
+   * @return an int representing the number of paired returns.
+   */
+  public int getObservations() {
+    return observations;
+  }
+
+  /**
+   * Gets the annualized alpha, the part of the portfolio's return not explained by its
+   * exposure to the benchmark, taking the risk-free rate as zero.
+   *
+   * @return a double with the alpha as a yearly fraction, so 0.02 is 2% a year.
+   */
+  public double getAlpha() {
+    return alpha;
+  }
+
+  /**
+   * Gets the beta, how much the portfolio tends to move for each move of the benchmark.
+   *
+   * @return a double with the beta, or NaN if the benchmark never moved.
+   */
+  public double getBeta() {
+    return beta;
+  }
+
+  /**
+   * Gets the annualized tracking error, the volatility of the difference between the
+   * portfolio's and the benchmark's daily returns.
+   *
+   * @return a double with the tracking error as a fraction.
+   */
+  public double getTrackingError() {
+    return trackingError;
+  }
+
+  /**
+   * Gets the number of days on the relative performance curve.
+   *
+   * @return an int representing the number of shared trading days.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Gets the shared trading day at the specified position of the curve.
+   *
+   * @param index an int representing the position, 0 being the first shared day.
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]).toString();
+  }
+
+  /**
+   * Gets the growth of one dollar invested in the portfolio on the first shared day.
+   *
+   * @param index an int representing the position, 0 being the first shared day.
+   * @return a double with the growth, 1 on the first day.
+   */
+  public double getPortfolioGrowth(int index) {
+    return portfolioGrowth[index];
+  }
+
+  /**
+   * Gets the growth of one dollar invested in the benchmark on the first shared day.
+   *
+   * @param index an int representing the position, 0 being the first shared day.
+   * @return a double with the growth, 1 on the first day.
+   */
+  public double getBenchmarkGrowth(int index) {
+    return benchmarkGrowth[index];
+  }
+
+  /**
+   * Gets the relative performance of the portfolio, its growth divided by the benchmark's.
+   * Values above 1 mean the portfolio is ahead of the benchmark.
+   *
+   * @param index an int representing the position, 0 being the first shared day.
+   * @return a double with the relative performance, 1 on the first day.
+   */
+  public double getRelative(int index) {
+    return portfolioGrowth[index] / benchmarkGrowth[index];
+  }
+
+  @Override
+  public String toString() {
+    int last = epochDays.length - 1;
+    return String.format("%s vs %s from %s to %s:\n", portfolio, benchmark, getDate(0),
+            getDate(last))
+            + String.format("Portfolio: %.2f%% - %s: %.2f%%\n",
+            (portfolioGrowth[last] - 1) * 100, benchmark, (benchmarkGrowth[last] - 1) * 100)
+            + String.format("Alpha (annualized): %.2f%%\n", alpha * 100)
+            + String.format("Beta: %.2f\n", beta)
+            + String.format("Tracking Error (annualized): %.2f%%", trackingError * 100);
+  }
+}
@@ -0,0 +1,110 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Holds all the tests for the BenchmarkComparison.
+ */
+public class BenchmarkComparisonTest {
+  private static final double[] RETURNS = {0.01, -0.02, 0.015, 0.005, -0.01, 0.02};
+
+  private int start;
+  private Map<String, PriceSeries> prices;
+  private PriceSeries spy;
+
+  /**
+   * Sets up a benchmark and a stock that moves exactly twice as much. Called before every test
+   * method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    int[] days = new int[RETURNS.length + 1];
+    double[] benchmark = new double[days.length];
+    double[] doubled = new double[days.length];
+    days[0] = start;
+    benchmark[0] = 100;
+    doubled[0] = 50;
+    for (int i = 1; i < days.length; i++) {
+      days[i] = start + i;
+      benchmark[i] = benchmark[i - 1] * (1 + RETURNS[i - 1]);
+      doubled[i] = doubled[i - 1] * (1 + 2 * RETURNS[i - 1]);
+    }
+    spy = new PriceSeries("SPY", days, benchmark);
+    prices = new HashMap<>();
+    prices.put("SPY", spy);
+    prices.put("LEV", new PriceSeries("LEV", days, doubled));
+  }
+
+  // the date of the trading day at the given position in both series
+  private String day(int offset) {
+    return LocalDate.ofEpochDay(start + offset).toString();
+  }
+
+  /**
+   * Tests that holding the benchmark itself matches it exactly.
+   */
+  @Test
+  public void testHoldingTheBenchmark() {
+    IPortfolio port = new Portfolio("Test").addStock("SPY", 3, day(0));
+    BenchmarkComparison comparison = BenchmarkComparison.compare(
+            ValueSeries.of(port, prices::get, start, start + 10), spy);
+    assertEquals(RETURNS.length, comparison.getObservations());
+    assertEquals(1.0, comparison.getBeta(), 1e-9);
+    assertEquals(0.0, comparison.getAlpha(), 1e-9);
+    assertEquals(0.0, comparison.getTrackingError(), 1e-9);
+    assertEquals(1.0, comparison.getRelative(comparison.size() - 1), 1e-12);
+  }
+
+  /**
+   * Tests that a stock moving twice as much as the benchmark has a beta of two and no alpha,
+   * even when more is bought part way through.
+   */
+  @Test
+  public void testDoubledReturns() {
+    IPortfolio port = new Portfolio("Test").addStock("LEV", 1, day(0))
+            .addStock("LEV", 4, day(3));
+    BenchmarkComparison comparison = BenchmarkComparison.compare(
+            ValueSeries.of(port, prices::get, start, start + 10), spy);
+    assertEquals(2.0, comparison.getBeta(), 1e-9);
+    assertEquals(0.0, comparison.getAlpha(), 1e-9);
+    double growth = 1;
+    for (double r : RETURNS) {
+      growth *= 1 + 2 * r;
+    }
+    assertEquals(growth, comparison.getPortfolioGrowth(comparison.size() - 1), 1e-12);
+  }
+
+  /**
+   * Tests that days missing from the benchmark are bridged by chaining the portfolio's returns.
+   */
+  @Test
+  public void testBenchmarkGap() {
+    int[] days = {start, start + 1, start + 3, start + 4, start + 5, start + 6};
+    double[] closes = new double[days.length];
+    for (int k = 0; k < days.length; k++) {
+      closes[k] = spy.getClose(days[k] - start);
+    }
+    PriceSeries gappy = new PriceSeries("SPY", days, closes);
+    IPortfolio port = new Portfolio("Test").addStock("SPY", 1, day(0));
+    BenchmarkComparison comparison = BenchmarkComparison.compare(
+            ValueSeries.of(port, prices::get, start, start + 10), gappy);
+    assertEquals(5, comparison.getObservations());
+    assertEquals(1.0, comparison.getBeta(), 1e-9);
+    assertEquals(day(3), comparison.getDate(2));
+  }
+
+  /**
+   * Tests that a range with too few shared days is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooShort() {
+    IPortfolio port = new Portfolio("Test").addStock("SPY", 1, day(0));
+    BenchmarkComparison.compare(ValueSeries.of(port, prices::get, start, start + 1), spy);
+  }
+}
@@ -0,0 +1,112 @@
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Computes covariance matrices of daily returns in parallel. The return columns are lined up
+ * on shared trading days and centred once, then the upper triangle of the matrix is cut into
+ * square blocks of tickers that are handed to the common fork/join pool. Each block only
+ * writes its own cells, so the workers never need to coordinate, and the lower triangle is
+ * filled in by symmetry.
+ */
+public final class CovarianceEngine {
+  // tickers per side of a block, small enough that a block's return columns stay in cache
+  private static final int BLOCK = 16;
+
+  private CovarianceEngine() {
+    // static helpers only
+  }
+
+  /**
+   * Computes the covariance matrix of the daily returns of the series over a date range.
+   *
+   * @param series   a list of PriceSeries representing the stocks to compare.
+   * @param startDay an int representing the first day of the range as an epoch day.
+   * @param endDay   an int representing the last day of the range as an epoch day.
+   * @return a CovarianceMatrix with one row and column per series, in the order of the list.
+   * @throws IllegalArgumentException if the series share fewer than three trading days in the
+   *                                  range.
+   */
+  public static CovarianceMatrix compute(List<PriceSeries> series, int startDay, int endDay) {
+    AlignedSeries aligned = AlignedSeries.align(series, startDay, endDay);
+    if (aligned.size() < 3) {
+      throw new IllegalArgumentException("Not enough shared trading days to compare the " +
+              "stocks. Please pick a longer date range.");
+    }
+    int k = aligned.getSeriesCount();
+    String[] tickers = new String[k];
+    double[][] returns = new double[k][];
+    for (int s = 0; s < k; s++) {
+      tickers[s] = aligned.getName(s);
+      returns[s] = aligned.returns(s);
+    }
+    return covariance(tickers, returns);
+  }
+
+  /**
+   * Computes the sample covariance matrix of return columns that are already lined up.
+   *
+   * @param tickers an array of Strings representing the ticker of each column.
+   * @param returns an array of return columns, which must all be the same length.
+   * @return a CovarianceMatrix with one row and column per return column.
+   */
+  public static CovarianceMatrix covariance(String[] tickers, double[][] returns) {
+    int k = returns.length;
+    int n = k == 0 ? 0 : returns[0].length;
+    if (n < 2) {
+      throw new IllegalArgumentException("At least two returns are needed for a covariance.");
+    }
+
+    // centre every column once so each cell is a plain dot product
+    double[][] centred = new double[k][];
+    IntStream.range(0, k).parallel().forEach(s -> {
+      double[] column = returns[s];
+      double mean = RollingStats.mean(column, 0, n);
+      double[] out = new double[n];
+      for (int t = 0; t < n; t++) {
+        out[t] = column[t] - mean;
+      }
+      centred[s] = out;
+    });
+
+    int blocks = (k + BLOCK - 1) / BLOCK;
+    int[] rowBlock = new int[blocks * (blocks + 1) / 2];
+    int[] columnBlock = new int[rowBlock.length];
+    int pair = 0;
+    for (int bi = 0; bi < blocks; bi++) {
+      for (int bj = bi; bj < blocks; bj++) {
+        rowBlock[pair] = bi;
+        columnBlock[pair] = bj;
+        pair++;
+      }
+    }
+
+    double[] matrix = new double[k * k];
+    IntStream.range(0, rowBlock.length).parallel().forEach(p -> {
+      int rowEnd = Math.min(k, (rowBlock[p] + 1) * BLOCK);
+      int columnEnd = Math.min(k, (columnBlock[p] + 1) * BLOCK);
+      for (int i = rowBlock[p] * BLOCK; i < rowEnd; i++) {
+        for (int j = Math.max(i, columnBlock[p] * BLOCK); j < columnEnd; j++) {
+          double value = dot(centred[i], centred[j], n) / (n - 1);
+          matrix[i * k + j] = value;
+          matrix[j * k + i] = value;
+        }
+      }
+    });
+    return new CovarianceMatrix(tickers, matrix, n);
+  }
+
+  // dot product with independent partial sums
+  private static double dot(double[] a, double[] b, int n) {
+    double s0 = 0;
+    double s1 = 0;
+    int t = 0;
+    for (; t + 1 < n; t += 2) {
+      s0 += a[t] * b[t];
+      s1 += a[t + 1] * b[t + 1];
+    }
+    if (t < n) {
+      s0 += a[t] * b[t];
+    }
+    return s0 + s1;
+  }
+}
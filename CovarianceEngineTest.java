@@ -0,0 +1,137 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the CovarianceEngine and the AlignedSeries it builds on.
+ */
+public class CovarianceEngineTest {
+  private int start;
+
+  /**
+   * Sets the first day of every test series. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+  }
+
+  // makes a series with one price per day starting on the first day
+  private PriceSeries makeSeries(String ticker, double... closes) {
+    int[] days = new int[closes.length];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = start + i;
+    }
+    return new PriceSeries(ticker, days, closes);
+  }
+
+  /**
+   * Tests that days missing from one series are dropped from every series.
+   */
+  @Test
+  public void testAlignDropsMissingDays() {
+    PriceSeries full = makeSeries("AAPL", 1, 2, 3, 4, 5);
+    PriceSeries gappy = new PriceSeries("GOOG", new int[]{start, start + 2, start + 4},
+            new double[]{10, 30, 50});
+    List<PriceSeries> series = new ArrayList<>();
+    series.add(full);
+    series.add(gappy);
+    AlignedSeries aligned = AlignedSeries.align(series, start, start + 10);
+    assertEquals(3, aligned.size());
+    assertEquals(start + 2, aligned.getEpochDay(1));
+    assertEquals(3.0, aligned.getValue(0, 1), 0);
+    assertEquals(30.0, aligned.getValue(1, 1), 0);
+  }
+
+  /**
+   * Tests that only days inside the range are lined up.
+   */
+  @Test
+  public void testAlignRange() {
+    List<PriceSeries> series = new ArrayList<>();
+    series.add(makeSeries("AAPL", 1, 2, 3, 4, 5));
+    AlignedSeries aligned = AlignedSeries.align(series, start + 1, start + 3);
+    assertEquals(3, aligned.size());
+    assertEquals(2.0, aligned.getValue(0, 0), 0);
+    assertEquals(4.0, aligned.getValue(0, 2), 0);
+  }
+
+  /**
+   * Tests the correlation of stocks that move together and opposite to each other.
+   */
+  @Test
+  public void testCorrelation() {
+    List<PriceSeries> series = new ArrayList<>();
+    series.add(makeSeries("AAPL", 100, 110, 99, 108.9, 98.01));
+    series.add(makeSeries("GOOG", 50, 55, 49.5, 54.45, 49.005));
+    series.add(makeSeries("AMZN", 100, 90, 99, 89.1, 98.01));
+    CovarianceMatrix matrix = CovarianceEngine.compute(series, start, start + 10);
+    assertEquals(3, matrix.size());
+    assertEquals(4, matrix.getObservations());
+    assertEquals(1.0, matrix.getCorrelation(0, 1), 1e-9);
+    assertEquals(-1.0, matrix.getCorrelation(0, 2), 1e-9);
+    assertEquals(matrix.getCovariance(0, 2), matrix.getCovariance(2, 0), 0);
+    assertEquals(0.01 * 4 / 3, matrix.getCovariance(0, 0), 1e-9);
+  }
+
+  /**
+   * Tests a matrix large enough to be split into several blocks against a direct calculation.
+   */
+  @Test
+  public void testBlocksMatchDirect() {
+    int k = 37;
+    int n = 60;
+    String[] tickers = new String[k];
+    double[][] returns = new double[k][n];
+    for (int s = 0; s < k; s++) {
+      tickers[s] = "T" + s;
+      for (int t = 0; t < n; t++) {
+        returns[s][t] = Math.sin(s * 1.3 + t * 0.7) * 0.01;
+      }
+    }
+    CovarianceMatrix matrix = CovarianceEngine.covariance(tickers, returns);
+    for (int i = 0; i < k; i += 5) {
+      for (int j = 0; j < k; j += 3) {
+        double meanI = 0;
+        double meanJ = 0;
+        for (int t = 0; t < n; t++) {
+          meanI += returns[i][t] / n;
+          meanJ += returns[j][t] / n;
+        }
+        double expected = 0;
+        for (int t = 0; t < n; t++) {
+          expected += (returns[i][t] - meanI) * (returns[j][t] - meanJ) / (n - 1);
+        }
+        assertEquals(expected, matrix.getCovariance(i, j), 1e-12);
+      }
+    }
+  }
+
+  /**
+   * Tests that a stock whose price never moves has no correlation.
+   */
+  @Test
+  public void testFlatStock() {
+    List<PriceSeries> series = new ArrayList<>();
+    series.add(makeSeries("AAPL", 100, 110, 99, 108.9));
+    series.add(makeSeries("CASH", 1, 1, 1, 1));
+    assertTrue(Double.isNaN(CovarianceEngine.compute(series, start, start + 5)
+            .getCorrelation(0, 1)));
+  }
+
+  /**
+   * Tests a range with too few shared trading days.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooFewDays() {
+    List<PriceSeries> series = new ArrayList<>();
+    series.add(makeSeries("AAPL", 100, 110));
+    CovarianceEngine.compute(series, start, start + 5);
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Represents the covariance and correlation of the daily returns of a set of stocks, stored as
+ * a dense k by k matrix in row-major order. Row and column i both belong to the ticker at
+ * position i, which makes the matrix easy to draw as a heatmap with the tickers along both
+ * axes. A CovarianceMatrix is never modified after it is constructed.
+ */
+public final class CovarianceMatrix {
+  private final String[] tickers;
+  private final double[] covariance;
+  private final int observations;
+
+  /**
+   * Constructs a CovarianceMatrix object.
+   *
+   * @param tickers      an array of Strings representing the ticker of each row and column.
+   * @param covariance   an array of doubles with the k * k covariances in row-major order.
+   * @param observations an int representing the number of daily returns used.
+   */
+  public CovarianceMatrix(String[] tickers, double[] covariance, int observations) {
+    if (covariance.length != tickers.length * tickers.length) {
+      throw new IllegalArgumentException("The matrix must be square.");
+    }
+    this.tickers = tickers.clone();
+    this.covariance = covariance;
+    this.observations = observations;
+  }
+
+  /**
+   * Gets the number of stocks in the matrix.
+   *
+   * @return an int representing the number of rows, which is also the number of columns.
+   */
+  public int size() {
+    return tickers.length;
+  }
+
+  /**
+   * Gets the ticker of the specified row and column.
+   *
+   * @param index an int representing the row or column.
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * Gets the number of daily returns the matrix was computed from.
+   *
+   * @return an int representing the number of observations.
+   */
+  public int getObservations() {
+    return observations;
+  }
+
+  /**
+   * Gets the covariance of the daily returns of two stocks.
+   *
+   * @param row    an int representing the first stock.
+   * @param column an int representing the second stock.
+   * @return a double with the sample covariance of the two stocks' returns.
+   */
+  public double getCovariance(int row, int column) {
+    return covariance[row * tickers.length + column];
+  }
+
+  /**
+   * Gets the correlation of the daily returns of two stocks.
+   *
+   * @param row    an int representing the first stock.
+   * @param column an int representing the second stock.
+   * @return a double between -1 and 1, or NaN if either stock's price never moved.
+   */
+  public double getCorrelation(int row, int column) {
+    double denominator = Math.sqrt(getCovariance(row, row) * getCovariance(column, column));
+    if (denominator == 0) {
+      return Double.NaN;
+    }
+    return Math.max(-1, Math.min(1, getCovariance(row, column) / denominator));
+  }
+
+  /**
+   * Gets the correlation of every pair of stocks as a dense matrix.
+   *
+   * @return a k by k array of doubles where entry [i][j] is the correlation of stocks i and j.
+   */
+  public double[][] correlations() {
+    double[][] out = new double[tickers.length][tickers.length];
+    for (int i = 0; i < tickers.length; i++) {
+      for (int j = 0; j < tickers.length; j++) {
+        out[i][j] = getCorrelation(i, j);
+      }
+    }
+    return out;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder(String.format("%8s", ""));
+    for (String ticker : tickers) {
+      output.append(String.format("%8s", ticker));
+    }
+    output.append("\n");
+    for (int i = 0; i < tickers.length; i++) {
+      output.append(String.format("%8s", tickers[i]));
+      for (int j = 0; j < tickers.length; j++) {
+        output.append(String.format("%8.2f", getCorrelation(i, j)));
+      }
+      output.append("\n");
+    }
+    return output.toString();
+  }
+}
@@ -0,0 +1,278 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Holds the value of a portfolio at the close of every calendar day from its first transaction
+ * to a last day, one entry per day, so the value on any day in the range is a single array
+ * read. Each holding is valued at its latest closing price on or before the day, and counts
+ * from the day it was bought until the day it was removed or sold, the same holdings
+ * holdingsOn gives. A holding with no price yet on a day adds nothing to it.
+ *
+ * <p>The values are built once from the portfolio's transactions and cached prices. When the
+ * portfolio changes, apply adds only the value of the new transactions to the days they affect,
+ * and extendTo only values the days past the end of the range. Days after the last close of a
+ * stock held are valued at that close, and reprice values them again once every stock has
+ * newer closes. Values are kept in
+ * micro-dollars, so a patched valuation can differ from one built from scratch by a few
+ * micro-dollars, well under a cent. A DailyValuation is never modified after it is constructed.
+ */
+public final class DailyValuation {
+  private final int firstDay;
+  private final long[] values;
+  // the number of transactions of the portfolio the values include
+  private final int eventCount;
+  // the last day every stock traded had a close for when the values were worked out, so the
+  // days after it may have been valued at an older close
+  private final int closedThrough;
+
+  private DailyValuation(int firstDay, long[] values, int eventCount, int closedThrough) {
+    this.firstDay = firstDay;
+    this.values = values;
+    this.eventCount = eventCount;
+    this.closedThrough = closedThrough;
+  }
+
+  /**
+   * Values a portfolio on every day from its first transaction to the specified day.
+   *
+   * @param port    the portfolio to value.
+   * @param prices  a function giving the price history of a ticker.
+   * @param lastDay an int representing the last day to value as an epoch day.
+   * @return a DailyValuation of the portfolio, with no days if it has no transactions by then.
+   */
+  public static DailyValuation of(IPortfolio port, Function<String, PriceSeries> prices,
+                                  int lastDay) {
+    List<PortfolioEvent> events = port.getHistory();
+    int first = lastDay + 1;
+    for (PortfolioEvent event : events) {
+      first = Math.min(first, epochDay(event));
+    }
+    long[] values = new long[lastDay - first + 1];
+    sweep(events, prices, first, values, 0);
+    return new DailyValuation(first, values, events.size(),
+            closedThrough(events, prices, lastDay));
+  }
+
+  /**
+   * Adds the transactions made on the portfolio since this valuation was built, patching only
+   * the days on and after each one.
+   *
+   * @param port   the portfolio this valuation was built from, with any number of transactions
+   *               made on it since.
+   * @param prices a function giving the price history of a ticker.
+   * @return a DailyValuation of the portfolio as it is now over the same days, or this one if
+   *          nothing has changed.
+   */
+  public DailyValuation apply(IPortfolio port, Function<String, PriceSeries> prices) {
+    List<PortfolioEvent> added = port.getHistory(eventCount);
+    if (added.isEmpty()) {
+      return this;
+    }
+    int first = firstDay;
+    for (PortfolioEvent event : added) {
+      first = Math.min(first, epochDay(event));
+    }
+    // a transaction dated before the first day adds days at the start, which were worth nothing
+    long[] patched = new long[values.length + firstDay - first];
+    System.arraycopy(values, 0, patched, firstDay - first, values.length);
+    int lastDay = first + patched.length - 1;
+    for (PortfolioEvent event : added) {
+      int day = epochDay(event);
+      if (day > lastDay) {
+        continue;
+      }
+      long change = FixedPoint.toMicros(event.getQuantity());
+      if (event.getType() != PortfolioEvent.Type.BUY) {
+        change = -change;
+      }
+      PriceSeries series = prices.apply(event.getTicker());
+      int idx = series.indexAtOrBefore(day);
+      for (int d = day; d <= lastDay; d++) {
+        while (idx + 1 < series.size() && series.getEpochDay(idx + 1) <= d) {
+          idx++;
+        }
+        if (idx >= 0) {
+          patched[d - first] += FixedPoint.value(change, series.getClose(idx));
+        }
+      }
+    }
+    return new DailyValuation(first, patched, eventCount + added.size(),
+            Math.min(closedThrough, closedThrough(port.getHistory(), prices, lastDay)));
+  }
+
+  /**
+   * Values the portfolio on the days after the end of this valuation up to the specified day,
+   * for example once newer prices are available.
+   *
+   * @param port    the portfolio this valuation was built from, with no transactions made on it
+   *                since.
+   * @param prices  a function giving the price history of a ticker.
+   * @param lastDay an int representing the new last day as an epoch day.
+   * @return a DailyValuation covering the days up to the new last day, or this one if it
+   *          already does.
+   */
+  public DailyValuation extendTo(IPortfolio port, Function<String, PriceSeries> prices,
+                                 int lastDay) {
+    if (lastDay <= getLastDay()) {
+      return this;
+    }
+    if (values.length == 0) {
+      return of(port, prices, lastDay);
+    }
+    List<PortfolioEvent> events = port.getHistory();
+    long[] extended = Arrays.copyOf(values, lastDay - firstDay + 1);
+    sweep(events, prices, firstDay, extended, values.length);
+    return new DailyValuation(firstDay, extended, eventCount,
+            Math.min(closedThrough, closedThrough(events, prices, lastDay)));
+  }
+
+  /**
+   * Values again the days after the last close the valuation was worked out with, once every
+   * stock traded has newer closes, for example after the price histories are downloaded again.
+   *
+   * @param port   the portfolio this valuation was built from, with no transactions made on it
+   *               since.
+   * @param prices a function giving the price history of a ticker.
+   * @return a DailyValuation with the days after the old last close valued at the newer
+   *          closes, or this one if no stock traded has a newer close.
+   */
+  public DailyValuation reprice(IPortfolio port, Function<String, PriceSeries> prices) {
+    if (closedThrough >= getLastDay()) {
+      return this;
+    }
+    List<PortfolioEvent> events = port.getHistory();
+    int closed = closedThrough(events, prices, getLastDay());
+    if (closed <= closedThrough) {
+      return this;
+    }
+    int start = Math.max(0, closedThrough + 1 - firstDay);
+    long[] repriced = Arrays.copyOf(values, values.length);
+    Arrays.fill(repriced, start, repriced.length, 0);
+    sweep(events, prices, firstDay, repriced, start);
+    return new DailyValuation(firstDay, repriced, eventCount, closed);
+  }
+
+  /**
+   * Gets the first day of the valuation, the day of the portfolio's earliest transaction.
+   *
+   * @return an int representing the first day as an epoch day.
+   */
+  public int getFirstDay() {
+    return firstDay;
+  }
+
+  /**
+   * Gets the last day of the valuation.
+   *
+   * @return an int representing the last day as an epoch day.
+   */
+  public int getLastDay() {
+    return firstDay + values.length - 1;
+  }
+
+  /**
+   * Gets the value of the portfolio at the close of the specified day.
+   *
+   * @param epochDay an int representing the day as an epoch day.
+   * @return a double with the value of the portfolio, 0 before its first transaction.
+   * @throws IllegalArgumentException if the day is after the last day of the valuation.
+   */
+  public double valueOn(int epochDay) {
+    if (epochDay > getLastDay()) {
+      throw new IllegalArgumentException("The valuation ends on "
+              + LocalDate.ofEpochDay(getLastDay()) + ".");
+    }
+    return epochDay < firstDay ? 0 : FixedPoint.fromMicros(values[epochDay - firstDay]);
+  }
+
+  // values the portfolio on the days from position start of the array to its end, where
+  // position 0 is the day first
+  private static void sweep(List<PortfolioEvent> events, Function<String, PriceSeries> prices,
+                            int first, long[] values, int start) {
+    int startDay = first + start;
+    int lastDay = first + values.length - 1;
+    // the shares of each ticker held at the start, and the changes to them after it
+    Map<String, Integer> columns = new HashMap<>();
+    List<String> tickers = new ArrayList<>();
+    List<long[]> changes = new ArrayList<>();
+    List<Long> held = new ArrayList<>();
+    for (PortfolioEvent event : events) {
+      int day = epochDay(event);
+      if (day > lastDay) {
+        continue;
+      }
+      Integer column = columns.putIfAbsent(event.getTicker(), tickers.size());
+      if (column == null) {
+        column = tickers.size();
+        tickers.add(event.getTicker());
+        changes.add(new long[values.length - start]);
+        held.add(0L);
+      }
+      long change = FixedPoint.toMicros(event.getQuantity());
+      if (event.getType() != PortfolioEvent.Type.BUY) {
+        change = -change;
+      }
+      if (day < startDay) {
+        held.set(column, held.get(column) + change);
+      } else {
+        changes.get(column)[day - startDay] += change;
+      }
+    }
+    for (int column = 0; column < tickers.size(); column++) {
+      PriceSeries series = prices.apply(tickers.get(column));
+      long[] change = changes.get(column);
+      long shares = held.get(column);
+      int idx = series.indexAtOrBefore(startDay);
+      for (int d = startDay; d <= lastDay; d++) {
+        shares += change[d - startDay];
+        while (idx + 1 < series.size() && series.getEpochDay(idx + 1) <= d) {
+          idx++;
+        }
+        if (idx >= 0 && shares != 0) {
+          values[d - first] += FixedPoint.value(shares, series.getClose(idx));
+        }
+      }
+    }
+  }
+
+  // the last day every stock held after its last close has a close for, or the last day itself
+  // if there is no such stock
+  private static int closedThrough(List<PortfolioEvent> events,
+                                   Function<String, PriceSeries> prices, int lastDay) {
+    // the shares of each ticker held on the last day and the day of its latest transaction
+    Map<String, long[]> tickers = new HashMap<>();
+    for (PortfolioEvent event : events) {
+      int day = epochDay(event);
+      if (day <= lastDay) {
+        long[] ticker = tickers.computeIfAbsent(event.getTicker(), t -> new long[2]);
+        long change = FixedPoint.toMicros(event.getQuantity());
+        ticker[0] += event.getType() == PortfolioEvent.Type.BUY ? change : -change;
+        ticker[1] = Math.max(ticker[1], day);
+      }
+    }
+    int closed = lastDay;
+    for (Map.Entry<String, long[]> entry : tickers.entrySet()) {
+      int lastClose = lastClose(prices.apply(entry.getKey()));
+      // a stock sold off before its last close is valued at real closes on every day it is held
+      if (entry.getValue()[0] != 0 || entry.getValue()[1] > lastClose) {
+        closed = Math.min(closed, lastClose);
+      }
+    }
+    return closed;
+  }
+
+  // the day of the last close in the series, or the smallest day if it has none
+  private static int lastClose(PriceSeries series) {
+    return series.size() == 0 ? Integer.MIN_VALUE : series.getEpochDay(series.size() - 1);
+  }
+
+  // the day a transaction takes effect
+  private static int epochDay(PortfolioEvent event) {
+    return (int) LocalDate.parse(event.getDate()).toEpochDay();
+  }
+}
@@ -0,0 +1,129 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the DailyValuation.
+ */
+public class DailyValuationTest {
+  private int start;
+  private Map<String, PriceSeries> prices;
+
+  /**
+   * Sets up a price history for two stocks with a gap in one of them. Called before every test
+   * method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries("AAPL", new int[]{start, start + 1, start + 2, start + 5},
+            new double[]{10, 11, 12, 9}));
+    prices.put("GOOG", new PriceSeries("GOOG", new int[]{start + 1, start + 2, start + 3},
+            new double[]{100, 101, 102}));
+  }
+
+  // the date the given number of days into the price history, gaps included
+  private String day(int offset) {
+    return LocalDate.ofEpochDay(start + offset).toString();
+  }
+
+  // checks that two valuations have the same value on every day of the first
+  private void assertSameValues(DailyValuation expected, DailyValuation actual) {
+    assertEquals(expected.getFirstDay(), actual.getFirstDay());
+    assertEquals(expected.getLastDay(), actual.getLastDay());
+    for (int d = expected.getFirstDay(); d <= expected.getLastDay(); d++) {
+      assertEquals(expected.valueOn(d), actual.valueOn(d), 1e-5);
+    }
+  }
+
+  /**
+   * Tests that each holding is valued from its purchase at the latest price on or before each
+   * day.
+   */
+  @Test
+  public void testValues() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0))
+            .addStock("GOOG", 1, day(2));
+    DailyValuation valuation = DailyValuation.of(port, prices::get, start + 6);
+    assertEquals(start, valuation.getFirstDay());
+    assertEquals(start + 6, valuation.getLastDay());
+    assertEquals(0, valuation.valueOn(start - 1), 0);
+    assertEquals(20, valuation.valueOn(start), 1e-9);
+    assertEquals(22, valuation.valueOn(start + 1), 1e-9);
+    assertEquals(125, valuation.valueOn(start + 2), 1e-9);
+    assertEquals(126, valuation.valueOn(start + 3), 1e-9);
+    assertEquals(126, valuation.valueOn(start + 4), 1e-9);
+    assertEquals(120, valuation.valueOn(start + 6), 1e-9);
+  }
+
+  /**
+   * Tests that patching a valuation with new buys, sales and removals, including one dated
+   * before the first day, gives the same values as building it again.
+   */
+  @Test
+  public void testApplyMatchesRebuild() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(1));
+    DailyValuation valuation = DailyValuation.of(port, prices::get, start + 6);
+    port = port.addStock("GOOG", 3, day(2), 101)
+            .sellStock("GOOG", 1, day(3), 102, LotMethod.FIFO)
+            .removeStock("AAPL", 0.5, 0, false)
+            .addStock("AAPL", 1, day(0));
+    DailyValuation patched = valuation.apply(port, prices::get);
+    assertSameValues(DailyValuation.of(port, prices::get, start + 6), patched);
+    assertEquals(start, patched.getFirstDay());
+    assertTrue(patched.apply(port, prices::get) == patched);
+  }
+
+  /**
+   * Tests that extending a valuation only adds the later days.
+   */
+  @Test
+  public void testExtendTo() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0))
+            .addStock("GOOG", 1, day(4));
+    DailyValuation valuation = DailyValuation.of(port, prices::get, start + 2);
+    DailyValuation extended = valuation.extendTo(port, prices::get, start + 6);
+    assertSameValues(DailyValuation.of(port, prices::get, start + 6), extended);
+    assertTrue(extended.extendTo(port, prices::get, start + 3) == extended);
+  }
+
+  /**
+   * Tests that the days after a stock's last close are valued again once it has newer closes.
+   */
+  @Test
+  public void testReprice() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0))
+            .addStock("GOOG", 1, day(1));
+    DailyValuation valuation = DailyValuation.of(port, prices::get, start + 6);
+    assertEquals(2 * 12 + 102, valuation.valueOn(start + 4), 1e-9);
+    assertTrue(valuation.reprice(port, prices::get) == valuation);
+
+    prices.put("GOOG", new PriceSeries("GOOG",
+            new int[]{start + 1, start + 2, start + 3, start + 4, start + 6},
+            new double[]{100, 101, 102, 110, 120}));
+    prices.put("AAPL", new PriceSeries("AAPL",
+            new int[]{start, start + 1, start + 2, start + 5, start + 6},
+            new double[]{10, 11, 12, 9, 8}));
+    DailyValuation repriced = valuation.reprice(port, prices::get);
+    assertSameValues(DailyValuation.of(port, prices::get, start + 6), repriced);
+    assertEquals(2 * 12 + 110, repriced.valueOn(start + 4), 1e-9);
+    assertEquals(2 * 8 + 120, repriced.valueOn(start + 6), 1e-9);
+    assertTrue(repriced.reprice(port, prices::get) == repriced);
+  }
+
+  /**
+   * Tests that a day past the end of the valuation is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testPastLastDay() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0));
+    DailyValuation.of(port, prices::get, start + 2).valueOn(start + 3);
+  }
+}
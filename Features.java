@@ -53,6 +53,20 @@ public interface Features {
    */
   void addOrSell(String portfolio, String ticker, String quantity, String date);
 
+  /**
+   * Allows the user to add or sell a specified share of stock to a specified portfolio on
+   * a specified date, choosing which purchases a sale uses up first.
+   *
+   * @param portfolio a String representing the portfolio to add or sell the stock to
+   *                  specified by the user.
+   * @param ticker    a String representing the ticker symbol of the stock.
+   * @param quantity  a String representing the quantity of stock. Negative for sell.
+   * @param date      a String representing a formatted date.
+   * @param method    the LotMethod deciding which purchases are sold first.
+   */
+  void addOrSell(String portfolio, String ticker, String quantity, String date,
+                 LotMethod method);
+
   /**
    * Returns the composition of the portfolio. Displays the stock ticker symbol, the quantity of
    * that stock, the date purchased, and the current value of shares.
@@ -0,0 +1,68 @@
+/**
+ * Converts share counts and dollar amounts to and from whole millionths, so they can be kept
+ * and added up as longs. Sums of longs are exact, so they come out the same in any order, and
+ * amounts that differ only by floating-point noise compare as equal. Quantities are rounded to
+ * the nearest micro-share and money to the nearest micro-dollar.
+ */
+public final class FixedPoint {
+  /**
+   * The number of micro-units in one share or one dollar.
+   */
+  public static final long SCALE = 1_000_000L;
+
+  /**
+   * Half a cent in micro-dollars, the smallest trade value worth making.
+   */
+  public static final long HALF_CENT = SCALE / 200;
+
+  // the largest amount whose micro-units fit in a long
+  private static final double LIMIT = Long.MAX_VALUE / (double) SCALE;
+
+  private FixedPoint() {
+  }
+
+  /**
+   * Converts an amount of shares or dollars to micro-units.
+   *
+   * @param amount a double representing the amount.
+   * @return a long with the amount in millionths, rounded to the nearest one.
+   * @throws IllegalArgumentException if the amount is not a number or too large to hold.
+   */
+  public static long toMicros(double amount) {
+    if (Double.isNaN(amount) || Math.abs(amount) >= LIMIT) {
+      throw new IllegalArgumentException("Amount cannot be held as a fixed-point value.");
+    }
+    return Math.round(amount * SCALE);
+  }
+
+  /**
+   * Converts micro-units back to an amount of shares or dollars.
+   *
+   * @param micros a long representing the amount in millionths.
+   * @return a double with the amount.
+   */
+  public static double fromMicros(long micros) {
+    return micros / (double) SCALE;
+  }
+
+  /**
+   * Rounds an amount of micro-dollars to a whole number of cents, halves rounding up.
+   *
+   * @param micros a long representing the amount in micro-dollars.
+   * @return a double with the amount in dollars, rounded to the cent.
+   */
+  public static double roundToCents(long micros) {
+    return Math.floorDiv(micros + HALF_CENT, SCALE / 100) / 100.0;
+  }
+
+  /**
+   * Works out the value of a number of shares at a price.
+   *
+   * @param microShares a long representing the number of shares in millionths.
+   * @param price       a double representing the price per share in dollars.
+   * @return a long with the value in micro-dollars, rounded to the nearest one.
+   */
+  public static long value(long microShares, double price) {
+    return toMicros(fromMicros(microShares) * price);
+  }
+}
@@ -0,0 +1,64 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Holds all the tests for the FixedPoint conversions.
+ */
+public class FixedPointTest {
+
+  /**
+   * Tests converting amounts to micro-units and back.
+   */
+  @Test
+  public void testRoundTrip() {
+    assertEquals(1_500_000, FixedPoint.toMicros(1.5));
+    assertEquals(-3, FixedPoint.toMicros(-0.0000026));
+    assertEquals(0.1, FixedPoint.fromMicros(FixedPoint.toMicros(0.1)), 0);
+    assertEquals(123.456789, FixedPoint.fromMicros(FixedPoint.toMicros(123.4567891)), 0);
+  }
+
+  /**
+   * Tests that values are rounded to the nearest micro-dollar.
+   */
+  @Test
+  public void testValue() {
+    assertEquals(350_250_000, FixedPoint.value(FixedPoint.toMicros(2.5), 140.1));
+    assertEquals(0, FixedPoint.value(0, 1e9));
+  }
+
+  /**
+   * Tests that sums of micro-units do not depend on the order they are added in.
+   */
+  @Test
+  public void testOrderIndependentSum() {
+    double[] amounts = {0.1, 0.2, 0.3, 1e6, -1e6, 0.7};
+    long forward = 0;
+    long backward = 0;
+    for (int i = 0; i < amounts.length; i++) {
+      forward += FixedPoint.toMicros(amounts[i]);
+      backward += FixedPoint.toMicros(amounts[amounts.length - 1 - i]);
+    }
+    assertEquals(forward, backward);
+    assertEquals(1.3, FixedPoint.fromMicros(forward), 0);
+  }
+
+  /**
+   * Tests that an amount too large to hold is rejected.
+   */
+  /**
+   * Tests rounding micro-dollars to the cent, with halves rounding up.
+   */
+  @Test
+  public void testRoundToCents() {
+    assertEquals(1234.57, FixedPoint.roundToCents(1_234_565_000L), 0);
+    assertEquals(1234.56, FixedPoint.roundToCents(1_234_564_999L), 0);
+    assertEquals(0.0, FixedPoint.roundToCents(4_999L), 0);
+    assertEquals(0.01, FixedPoint.roundToCents(5_000L), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooLarge() {
+    FixedPoint.toMicros(1e13);
+  }
+}
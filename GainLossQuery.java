@@ -0,0 +1,96 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Represents one request for the gain or loss of a stock between two dates. Queries are
+ * answered in batches by the model so that each stock's history is only downloaded once,
+ * no matter how many queries ask about it.
+ */
+public final class GainLossQuery {
+  private final String ticker;
+  private final String startDate;
+  private final String endDate;
+
+  /**
+   * Constructs a GainLossQuery object.
+   *
+   * @param ticker    a String representing the ticker symbol of the stock.
+   * @param startDate a String representing the first date in 'YYYY-MM-DD' format.
+   * @param endDate   a String representing the second date in 'YYYY-MM-DD' format.
+   * @throws IllegalArgumentException if either date is not in 'YYYY-MM-DD' format.
+   */
+  public GainLossQuery(String ticker, String startDate, String endDate) {
+    try {
+      LocalDate.parse(startDate);
+      LocalDate.parse(endDate);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Dates must be in YYYY-MM-DD format.");
+    }
+    this.ticker = ticker;
+    this.startDate = startDate;
+    this.endDate = endDate;
+  }
+
+  /**
+   * Reads a query from one line of a query file, formatted: 'TICKER,YYYY-MM-DD,YYYY-MM-DD'.
+   *
+   * @param line a String representing one line of the query file.
+   * @return a GainLossQuery with the ticker and dates on the line.
+   * @throws IllegalArgumentException if the line is not formatted correctly.
+   */
+  public static GainLossQuery parse(String line) {
+    String[] parts = line.split(",");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Invalid query: " + line);
+    }
+    return new GainLossQuery(parts[0].trim(), parts[1].trim(), parts[2].trim());
+  }
+
+  /**
+   * Gets the ticker of the stock.
+   *
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets the first date of the query.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getStartDate() {
+    return startDate;
+  }
+
+  /**
+   * Gets the second date of the query.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getEndDate() {
+    return endDate;
+  }
+
+  /**
+   * Computes the gain or loss of this query from the stock's price history, which is the
+   * closing price on the end date minus the closing price on the start date.
+   *
+   * @param series a PriceSeries representing the closing prices of the queried stock.
+   * @return a double with the gain or loss, or NaN if the stock has no data on either date.
+   */
+  public double answer(PriceSeries series) {
+    int start = series.indexOf((int) LocalDate.parse(startDate).toEpochDay());
+    int end = series.indexOf((int) LocalDate.parse(endDate).toEpochDay());
+    if (start == -1 || end == -1) {
+      return Double.NaN;
+    }
+    return series.getClose(end) - series.getClose(start);
+  }
+
+  @Override
+  public String toString() {
+    return ticker + "," + startDate + "," + endDate;
+  }
+}
@@ -0,0 +1,67 @@
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the GainLossQuery class.
+ */
+public class GainLossQueryTest {
+
+  // three trading days of prices starting on 2024-06-03
+  private PriceSeries makeSeries() {
+    int monday = (int) LocalDate.parse("2024-06-03").toEpochDay();
+    return new PriceSeries("GOOG", new int[]{monday, monday + 1, monday + 2},
+            new double[]{170.0, 172.5, 168.0});
+  }
+
+  /**
+   * Tests reading a query from a line of a query file.
+   */
+  @Test
+  public void testParse() {
+    GainLossQuery query = GainLossQuery.parse("GOOG, 2024-06-03, 2024-06-05");
+    assertEquals("GOOG", query.getTicker());
+    assertEquals("2024-06-03", query.getStartDate());
+    assertEquals("2024-06-05", query.getEndDate());
+  }
+
+  /**
+   * Tests reading a line that is missing a date.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseMissingDate() {
+    GainLossQuery.parse("GOOG,2024-06-03");
+  }
+
+  /**
+   * Tests reading a line with a date in the wrong format.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseInvalidDate() {
+    GainLossQuery.parse("GOOG,2024/06/03,2024-06-05");
+  }
+
+  /**
+   * Tests the gain or loss between two trading days.
+   */
+  @Test
+  public void testAnswer() {
+    PriceSeries series = makeSeries();
+    assertEquals(-2.0, new GainLossQuery("GOOG", "2024-06-03", "2024-06-05").answer(series),
+            0.001);
+    assertEquals(4.5, new GainLossQuery("GOOG", "2024-06-05", "2024-06-04").answer(series),
+            0.001);
+  }
+
+  /**
+   * Tests the gain or loss when one of the dates has no data.
+   */
+  @Test
+  public void testAnswerMissingDate() {
+    assertTrue(Double.isNaN(new GainLossQuery("GOOG", "2024-06-03", "2024-06-08")
+            .answer(makeSeries())));
+  }
+}
@@ -18,6 +18,19 @@ public interface IPortfolio {
    */
   IPortfolio addStock(String ticker, double quantity, String datePurchased);
 
+  /**
+   * Adds a stock and a number of shares of that stock to the portfolio along with the price
+   * paid for each share. If the stock was already bought on the same date, the shares are
+   * added to that purchase.
+   *
+   * @param ticker        a String representing the stock ticker symbol.
+   * @param quantity      a double representing the number of shares of stock to add.
+   * @param datePurchased a String representing the date of purchase as YYYY-MM-DD.
+   * @param costBasis     a double representing the price paid per share, or NaN if unknown.
+   * @return a new Portfolio object with the new stock and quantity added to the portfolio.
+   */
+  IPortfolio addStock(String ticker, double quantity, String datePurchased, double costBasis);
+
   /**
    * Removes the number of shares of a stock from the portfolio. If the stock doesn't exist
    * in the portfolio or the quantity removed is more than the current shares in the portfolio,
@@ -29,6 +42,71 @@ public interface IPortfolio {
    */
   IPortfolio removeStock(String ticker, double quantity, int stockIdx, boolean removeAll);
 
+  /**
+   * Removes the number of shares of a stock from the portfolio as of the specified date. The
+   * shares count as held from their purchase until that date. If the stock doesn't exist in the
+   * portfolio, the quantity removed is more than the current shares or the date is before the
+   * shares were bought, an exception is thrown.
+   *
+   * @param ticker   a String representing the stock ticker.
+   * @param quantity a double representing the number of shares to remove from the portfolio.
+   * @param date     a String representing the date of the removal as YYYY-MM-DD.
+   * @return a new Portfolio object with the stock and quantity removed from the portfolio.
+   */
+  IPortfolio removeStock(String ticker, double quantity, int stockIdx, boolean removeAll,
+                         String date);
+
+  /**
+   * Sells a number of shares of a stock, using up the purchases made on or before the sale
+   * date in the order given by the lot method, and records the gain or loss on each purchase
+   * that was sold from.
+   *
+   * @param ticker    a String representing the stock ticker.
+   * @param quantity  a double representing the number of shares to sell.
+   * @param date      a String representing the date of the sale as YYYY-MM-DD.
+   * @param salePrice a double representing the price received per share.
+   * @param method    the LotMethod deciding which purchases are sold first.
+   * @return a new Portfolio object with the shares removed and the sale recorded.
+   * @throws IllegalArgumentException if the quantity is negative or more shares are sold than
+   *                                  were bought by the sale date.
+   */
+  IPortfolio sellStock(String ticker, double quantity, String date, double salePrice,
+                       LotMethod method);
+
+  /**
+   * Gets every sale recorded by sellStock on or before the specified date.
+   *
+   * @param date a String representing the specified date in 'YYYY-MM-DD' format.
+   * @return a list of RealizedGains, one per purchase sold from, in the order they were sold.
+   */
+  List<RealizedGain> getRealizedGains(String date);
+
+  /**
+   * Rebuilds the portfolio as it stood at the end of the specified date by replaying the
+   * transactions that took effect by then, so shares sold later are still held.
+   *
+   * @param date a String representing the specified date in 'YYYY-MM-DD' format.
+   * @return an IPortfolio with the holdings on the date, or this portfolio if every transaction
+   *         took effect by then.
+   */
+  IPortfolio holdingsOn(String date);
+
+  /**
+   * Gets every transaction made on the portfolio, in the order they were made.
+   *
+   * @return an unmodifiable list of PortfolioEvents.
+   */
+  List<PortfolioEvent> getHistory();
+
+  /**
+   * Gets the transactions made on the portfolio after the first ones, so a caller that has seen
+   * the earlier ones only reads the new ones.
+   *
+   * @param from an int representing the number of transactions to skip.
+   * @return an unmodifiable list of the PortfolioEvents after the first from, in order.
+   */
+  List<PortfolioEvent> getHistory(int from);
+
   /**
    * Gets the stock at a specific index and returns the ticker symbol as a String.
    *
@@ -37,6 +115,14 @@ public interface IPortfolio {
    */
   Stock getStock(int index);
 
+  /**
+   * Gets the lots of the portfolio laid out as parallel primitive arrays, in the same order
+   * as getStock. distributionOfValue adds up the holdings on a date from these columns.
+   *
+   * @return a LotColumns view of the lots.
+   */
+  LotColumns getColumns();
+
   //int getQuantity(int index);
 
   /**
@@ -115,11 +201,12 @@ public interface IPortfolio {
   List<Stock> distributionOfValue(String date);
 
   /**
-   * Sets the date of the last transaction on the portfolio.
+   * Makes a copy of the portfolio with the specified date as the date of its last transaction.
    *
    * @param date a String representing the specified date in 'YYYY-MM-DD' format.
+   * @return a new Portfolio object with the same holdings and the new date.
    */
-  void setDate(String date);
+  IPortfolio withDate(String date);
 
   /**
    * Gets the date of the last transaction in the portfolio.
@@ -13,6 +13,13 @@ public interface IStock {
    */
   String getTicker();
 
+  /**
+   * Gets the id of this stock's ticker in the shared symbol dictionary.
+   *
+   * @return an int representing the ticker's id in Symbols.
+   */
+  int getSymbol();
+
   /**
    * Gets the number of shares of this stock that are in the portfolio.
    *
@@ -20,6 +27,14 @@ public interface IStock {
    */
   double getQuantity();
 
+  /**
+   * Gets the number of shares of this stock in millionths of a share, which can be added up
+   * exactly.
+   *
+   * @return a long with the number of micro-shares.
+   */
+  long getMicroShares();
+
   /**
    * Gets the formatted date of when the stock was purchased in the portfolio.
    *
@@ -27,6 +42,14 @@ public interface IStock {
    */
   String getDatePurchased();
 
+  /**
+   * Gets the price paid for each share of this stock, which was the closing price on the date
+   * of purchase.
+   *
+   * @return a double with the cost per share, or NaN if the cost was not recorded.
+   */
+  double getCostBasis();
+
   /**
    * Remove a specified number of shares from the stock.
    *
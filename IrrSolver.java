@@ -0,0 +1,156 @@
+/**
+ * Solves for the internal rate of return of dated cash flows, the annual rate at which their
+ * net present value is zero. Newton's method is tried first since it usually converges in a
+ * handful of steps from a sensible guess. If it stalls or leaves the valid range, the root is
+ * bracketed and found with Brent's method, which always converges once a sign change is found.
+ */
+public final class IrrSolver {
+  private static final double DAYS_PER_YEAR = 365.0;
+  private static final double TOLERANCE = 1e-10;
+  private static final int MAX_ITERATIONS = 100;
+
+  private IrrSolver() {
+    // static helpers only
+  }
+
+  /**
+   * Computes the annualized internal rate of return of dated cash flows. Money put in is
+   * negative and money taken out, including the final value, is positive.
+   *
+   * @param days    an array of ints representing the epoch day of each cash flow.
+   * @param amounts an array of doubles representing the amount of each cash flow.
+   * @return a double with the annual rate, so 0.1 is 10% a year.
+   * @throws IllegalArgumentException if the arrays differ in length or the flows are not a mix
+   *                                  of money in and money out.
+   */
+  public static double xirr(int[] days, double[] amounts) {
+    if (days.length != amounts.length || days.length < 2) {
+      throw new IllegalArgumentException("At least two dated cash flows are needed.");
+    }
+    boolean in = false;
+    boolean out = false;
+    int first = days[0];
+    double scale = 0;
+    for (int i = 0; i < days.length; i++) {
+      in |= amounts[i] < 0;
+      out |= amounts[i] > 0;
+      first = Math.min(first, days[i]);
+      scale = Math.max(scale, Math.abs(amounts[i]));
+    }
+    if (!in || !out) {
+      throw new IllegalArgumentException("The cash flows must include money in and money "
+              + "out.");
+    }
+    double[] years = new double[days.length];
+    for (int i = 0; i < days.length; i++) {
+      years[i] = (days[i] - first) / DAYS_PER_YEAR;
+    }
+
+    double rate = 0.1;
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      double value = 0;
+      double slope = 0;
+      for (int i = 0; i < years.length; i++) {
+        double discount = Math.pow(1 + rate, -years[i]);
+        value += amounts[i] * discount;
+        slope -= years[i] * amounts[i] * discount / (1 + rate);
+      }
+      if (Math.abs(value) < TOLERANCE * scale) {
+        return rate;
+      }
+      double next = rate - value / slope;
+      if (!Double.isFinite(next) || next <= -1) {
+        break;
+      }
+      if (Math.abs(next - rate) < TOLERANCE) {
+        return next;
+      }
+      rate = next;
+    }
+    return brent(years, amounts, scale);
+  }
+
+  // net present value of the flows at the annual rate
+  private static double npv(double[] years, double[] amounts, double rate) {
+    double value = 0;
+    for (int i = 0; i < years.length; i++) {
+      value += amounts[i] * Math.pow(1 + rate, -years[i]);
+    }
+    return value;
+  }
+
+  // brackets a sign change above -100% and closes in on it with Brent's method
+  private static double brent(double[] years, double[] amounts, double scale) {
+    double a = -0.999999;
+    double b = 1;
+    double fa = npv(years, amounts, a);
+    double fb = npv(years, amounts, b);
+    while (fa * fb > 0 && b < 1e6) {
+      b *= 2;
+      fb = npv(years, amounts, b);
+    }
+    if (fa * fb > 0) {
+      throw new IllegalArgumentException("No rate of return solves the cash flows.");
+    }
+    double c = a;
+    double fc = fa;
+    double d = b - a;
+    double e = d;
+    for (int iteration = 0; iteration < MAX_ITERATIONS * 2; iteration++) {
+      if (fb * fc > 0) {
+        c = a;
+        fc = fa;
+        d = b - a;
+        e = d;
+      }
+      if (Math.abs(fc) < Math.abs(fb)) {
+        a = b;
+        b = c;
+        c = a;
+        fa = fb;
+        fb = fc;
+        fc = fa;
+      }
+      double tolerance = 2 * Math.ulp(b) + TOLERANCE / 2;
+      double middle = (c - b) / 2;
+      if (Math.abs(middle) <= tolerance || Math.abs(fb) < TOLERANCE * scale) {
+        return b;
+      }
+      if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+        // inverse quadratic interpolation, or the secant step when only two points differ
+        double s = fb / fa;
+        double p;
+        double q;
+        if (a == c) {
+          p = 2 * middle * s;
+          q = 1 - s;
+        } else {
+          double r = fb / fc;
+          q = fa / fc;
+          p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+          q = (q - 1) * (r - 1) * (s - 1);
+        }
+        if (p > 0) {
+          q = -q;
+        } else {
+          p = -p;
+        }
+        if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+          e = d;
+          d = p / q;
+        } else {
+          d = middle;
+          e = d;
+        }
+      } else {
+        d = middle;
+        e = d;
+      }
+      a = b;
+      fa = fb;
+      b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+      fb = npv(years, amounts, b);
+    }
+    return b;
+  }
+}
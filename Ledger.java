@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records the events that built a portfolio, in the order they were made, together with a
+ * snapshot of the portfolio every SNAPSHOT_INTERVAL events. The holdings on a past date are
+ * rebuilt from the last snapshot whose events all happened by that date, replaying at most
+ * SNAPSHOT_INTERVAL events after it plus any events entered later with an earlier date. Like
+ * the Portfolio that holds it, a Ledger is never modified, and because portfolios share their
+ * trees a snapshot costs no more than keeping a reference.
+ */
+final class Ledger {
+  // how many events are recorded between snapshots
+  static final int SNAPSHOT_INTERVAL = 32;
+
+  static final Ledger EMPTY = new Ledger(new PersistentTree<>(Comparator.naturalOrder()),
+          new PersistentTree<>(Comparator.naturalOrder()),
+          new PersistentTree<>(Comparator.naturalOrder()));
+
+  // every event by its position in the ledger
+  private final PersistentTree<Integer, Entry> events;
+  // the events dated before an event recorded earlier, by their position in the ledger
+  private final PersistentTree<Integer, PortfolioEvent> backdated;
+  // the portfolio after each multiple of SNAPSHOT_INTERVAL events, by the number of events
+  private final PersistentTree<Integer, IPortfolio> snapshots;
+
+  // an event together with the latest date of any event up to and including it
+  private static final class Entry {
+    private final PortfolioEvent event;
+    private final String latest;
+
+    private Entry(PortfolioEvent event, String latest) {
+      this.event = event;
+      this.latest = latest;
+    }
+  }
+
+  private Ledger(PersistentTree<Integer, Entry> events,
+                 PersistentTree<Integer, PortfolioEvent> backdated,
+                 PersistentTree<Integer, IPortfolio> snapshots) {
+    this.events = events;
+    this.backdated = backdated;
+    this.snapshots = snapshots;
+  }
+
+  // returns a copy with the event added, taking a snapshot of the portfolio before it if due
+  Ledger record(PortfolioEvent event, Supplier<IPortfolio> before) {
+    int count = events.size();
+    String latest = event.getDate();
+    PersistentTree<Integer, PortfolioEvent> tempBackdated = backdated;
+    if (count > 0) {
+      String previous = events.last().latest;
+      if (previous.compareTo(latest) > 0) {
+        latest = previous;
+        tempBackdated = backdated.put(count, event);
+      }
+    }
+    PersistentTree<Integer, IPortfolio> tempSnapshots = snapshots;
+    if (count > 0 && count % SNAPSHOT_INTERVAL == 0) {
+      tempSnapshots = snapshots.put(count, before.get());
+    }
+    return new Ledger(events.put(count, new Entry(event, latest)), tempBackdated, tempSnapshots);
+  }
+
+  int size() {
+    return events.size();
+  }
+
+  // checks whether every event took effect on or before the date
+  boolean allOnOrBefore(String date) {
+    return events.isEmpty() || events.last().latest.compareTo(date) <= 0;
+  }
+
+  // the events after the first from, in the order they were recorded
+  List<PortfolioEvent> events(int from) {
+    List<PortfolioEvent> output = new ArrayList<>(Math.max(events.size() - from, 0));
+    if (from == 0) {
+      for (Entry entry : events) {
+        output.add(entry.event);
+      }
+    } else {
+      for (int i = from; i < events.size(); i++) {
+        output.add(events.select(i).event);
+      }
+    }
+    return output;
+  }
+
+  // rebuilds the portfolio from the events that took effect on or before the date
+  IPortfolio replay(String date, IPortfolio empty) {
+    if (events.isEmpty()) {
+      return empty;
+    }
+    // the latest dates only grow, so the events up to the first one past the date are a prefix
+    int lo = 0;
+    int hi = events.size();
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (events.select(mid).latest.compareTo(date) <= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    // the snapshot after the last event is only taken once another event is recorded
+    int base = Math.min(lo, events.size() - 1);
+    base -= base % SNAPSHOT_INTERVAL;
+    IPortfolio state = base == 0 ? empty : snapshots.get(base);
+    for (int i = base; i < lo; i++) {
+      state = events.select(i).event.applyTo(state);
+    }
+    // every later event is dated after the date unless it was entered out of order
+    for (int i = backdated.rank(lo); i < backdated.size(); i++) {
+      PortfolioEvent event = backdated.select(i);
+      if (event.getDate().compareTo(date) <= 0) {
+        state = event.applyTo(state);
+      }
+    }
+    return state;
+  }
+}
@@ -0,0 +1,144 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the lots of a portfolio as parallel primitive arrays: the ticker of each lot as a small
+ * integer id, its purchase date as an epoch day and its number of shares in millionths. Loops
+ * that value a portfolio read these arrays in order instead of calling getters on a Stock
+ * object per lot and parsing its date, so they touch memory sequentially and allocate nothing.
+ * The lots are in the same order as the portfolio's, so position i here is getStock(i). A
+ * LotColumns object is never modified after it is constructed.
+ */
+public final class LotColumns {
+  private final List<String> tickers;
+  private final int[] tickerIds;
+  private final int[] epochDays;
+  private final long[] quantities;
+
+  private LotColumns(List<String> tickers, int[] tickerIds, int[] epochDays,
+                     long[] quantities) {
+    this.tickers = tickers;
+    this.tickerIds = tickerIds;
+    this.epochDays = epochDays;
+    this.quantities = quantities;
+  }
+
+  /**
+   * Lays out the lots in columns. Ticker ids are given in the order the tickers first appear.
+   *
+   * @param lots  the lots of a portfolio in order.
+   * @param count an int representing the number of lots.
+   * @return a LotColumns holding the lots.
+   */
+  public static LotColumns of(Iterable<Stock> lots, int count) {
+    Map<Integer, Integer> ids = new HashMap<>();
+    List<String> tickers = new ArrayList<>();
+    int[] tickerIds = new int[count];
+    int[] epochDays = new int[count];
+    long[] quantities = new long[count];
+    int i = 0;
+    for (Stock lot : lots) {
+      Integer id = ids.putIfAbsent(lot.getSymbol(), tickers.size());
+      if (id == null) {
+        id = tickers.size();
+        tickers.add(lot.getTicker());
+      }
+      tickerIds[i] = id;
+      epochDays[i] = (int) LocalDate.parse(lot.getDatePurchased()).toEpochDay();
+      quantities[i] = lot.getMicroShares();
+      i++;
+    }
+    return new LotColumns(tickers, tickerIds, epochDays, quantities);
+  }
+
+  /**
+   * Gets the number of lots.
+   *
+   * @return an int representing the number of lots.
+   */
+  public int size() {
+    return quantities.length;
+  }
+
+  /**
+   * Gets the number of different tickers among the lots.
+   *
+   * @return an int representing the number of ticker ids.
+   */
+  public int getTickerCount() {
+    return tickers.size();
+  }
+
+  /**
+   * Gets the ticker with the specified id.
+   *
+   * @param tickerId an int representing the ticker id.
+   * @return a String with the ticker symbol.
+   */
+  public String getTicker(int tickerId) {
+    return tickers.get(tickerId);
+  }
+
+  /**
+   * Gets the ticker id of the lot at the specified position.
+   *
+   * @param index an int representing the position of the lot.
+   * @return an int representing the lot's ticker id.
+   */
+  public int getTickerId(int index) {
+    return tickerIds[index];
+  }
+
+  /**
+   * Gets the purchase date of the lot at the specified position as an epoch day.
+   *
+   * @param index an int representing the position of the lot.
+   * @return an int representing the epoch day the lot was bought.
+   */
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Gets the number of shares in the lot at the specified position.
+   *
+   * @param index an int representing the position of the lot.
+   * @return a double with the number of shares.
+   */
+  public double getQuantity(int index) {
+    return FixedPoint.fromMicros(quantities[index]);
+  }
+
+  /**
+   * Gets the number of shares in the lot at the specified position in millionths.
+   *
+   * @param index an int representing the position of the lot.
+   * @return a long with the number of micro-shares.
+   */
+  public long getMicroShares(int index) {
+    return quantities[index];
+  }
+
+  /**
+   * Adds up the shares of each ticker bought on or before the specified day.
+   *
+   * @param epochDay an int representing the last purchase day to count.
+   * @return an array of shares indexed by ticker id.
+   */
+  public double[] sharesThrough(int epochDay) {
+    long[] micros = new long[tickers.size()];
+    for (int i = 0; i < quantities.length; i++) {
+      if (epochDays[i] <= epochDay) {
+        micros[tickerIds[i]] += quantities[i];
+      }
+    }
+    double[] shares = new double[micros.length];
+    for (int id = 0; id < micros.length; id++) {
+      shares[id] = FixedPoint.fromMicros(micros[id]);
+    }
+    return shares;
+  }
+}
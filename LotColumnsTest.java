@@ -0,0 +1,70 @@
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the LotColumns.
+ */
+public class LotColumnsTest {
+
+  /**
+   * Tests that the columns line up with the portfolio's lots and share ticker ids.
+   */
+  @Test
+  public void testMatchesLots() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 5, "2024-01-02")
+            .addStock("AAPL", 2, "2024-01-01")
+            .addStock("GOOG", 3, "2024-01-05")
+            .removeStock("AAPL", 2, 1, true)
+            .addStock("MSFT", 1.5, "2023-12-31");
+    LotColumns columns = port.getColumns();
+    assertEquals(port.getStockListSize(), columns.size());
+    assertEquals(2, columns.getTickerCount());
+    for (int i = 0; i < columns.size(); i++) {
+      Stock lot = port.getStock(i);
+      assertEquals(lot.getTicker(), columns.getTicker(columns.getTickerId(i)));
+      assertEquals(LocalDate.parse(lot.getDatePurchased()).toEpochDay(), columns.getEpochDay(i));
+      assertEquals(lot.getQuantity(), columns.getQuantity(i), 0);
+    }
+    assertEquals(columns.getTickerId(0), columns.getTickerId(1));
+    assertTrue(columns == port.getColumns());
+  }
+
+  /**
+   * Tests adding up the shares of each ticker bought by a day.
+   */
+  @Test
+  public void testSharesThrough() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 5, "2024-01-02")
+            .addStock("AAPL", 2, "2024-01-01")
+            .addStock("GOOG", 3, "2024-01-05");
+    LotColumns columns = port.getColumns();
+    int day = (int) LocalDate.parse("2024-01-04").toEpochDay();
+    assertArrayEquals(new double[]{5, 2}, columns.sharesThrough(day), 0);
+    assertArrayEquals(new double[]{8, 2}, columns.sharesThrough(day + 1), 0);
+    assertArrayEquals(new double[]{0, 0}, columns.sharesThrough(day - 4), 0);
+  }
+
+  /**
+   * Tests that the holdings on a date are added up from the columns, listing each ticker in
+   * the order its first lot held by then was bought.
+   */
+  @Test
+  public void testDistributionFromColumns() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 5, "2024-01-05")
+            .addStock("AAPL", 2, "2024-01-01")
+            .addStock("GOOG", 3, "2024-01-01");
+    List<Stock> held = port.distributionOfValue("2024-01-02");
+    assertEquals(2, held.size());
+    assertEquals("AAPL", held.get(0).getTicker());
+    assertEquals(2.0, held.get(0).getQuantity(), 0);
+    assertEquals("GOOG", held.get(1).getTicker());
+    assertEquals(3.0, held.get(1).getQuantity(), 0);
+    assertEquals(8.0, port.distributionOfValue("2024-01-05").get(0).getQuantity(), 0);
+  }
+}
@@ -0,0 +1,18 @@
+/**
+ * The order in which the purchase lots of a stock are used up when shares are sold.
+ */
+public enum LotMethod {
+  /**
+   * Sells the shares bought first before any others.
+   */
+  FIFO,
+  /**
+   * Sells the shares bought most recently before any others.
+   */
+  LIFO,
+  /**
+   * Sells the shares that cost the most per share before any others, which keeps the realized
+   * gain as small as possible. Lots with no recorded cost are sold last.
+   */
+  HIGHEST_COST
+}
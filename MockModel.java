@@ -1,7 +1,6 @@
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -13,9 +12,12 @@ import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * A mock version of StockModel which has all the same methods
@@ -23,20 +25,20 @@ import java.util.Scanner;
  */
 public class MockModel implements StocksModel {
   private List<IPortfolio> portfolios;
-
+  // the index of the latest portfolio with each name
+  private final Map<String, Integer> indexes;
 
   /**
    * Constructs a MockModel object.
    */
   public MockModel() {
     this.portfolios = new ArrayList<>();
+    this.indexes = new HashMap<>();
   }
 
   @Override
   public void setDate(int index, String date) {
-    IPortfolio tempPortfolio = this.portfolios.get(index);
-    tempPortfolio.setDate(date);
-    this.portfolios.set(index, tempPortfolio);
+    this.portfolios.set(index, this.portfolios.get(index).withDate(date));
   }
 
   @Override
@@ -52,12 +54,18 @@ public class MockModel implements StocksModel {
 
   @Override
   public void newPortfolio(String portfolioName) {
+    this.indexes.put(portfolioName, this.portfolios.size());
     this.portfolios.add(new Portfolio(portfolioName));
   }
 
   @Override
   public List<IPortfolio> getPortfolios() {
-    return new ArrayList<>(this.portfolios);
+    return Collections.unmodifiableList(this.portfolios);
+  }
+
+  @Override
+  public int indexOf(String portfolioName) {
+    return this.indexes.getOrDefault(portfolioName, -1);
   }
 
   @Override
@@ -72,9 +80,106 @@ public class MockModel implements StocksModel {
             .removeStock(stock, quantity, stockIdx, removeFull));
   }
 
+  @Override
+  public void removeStock(int index, String stock, double quantity, int stockIdx,
+                          boolean removeFull, String date) {
+    this.portfolios.set(index, this.portfolios.get(index)
+            .removeStock(stock, quantity, stockIdx, removeFull, date));
+  }
+
+  @Override
+  public void sellStock(int index, String stock, double quantity, String date,
+                        LotMethod method) {
+    double price = closeAtOrBefore(stock, date);
+    if (Double.isNaN(price)) {
+      throw new IllegalArgumentException("No data found for " + stock + " on the date: " + date);
+    }
+    this.portfolios.set(index, this.portfolios.get(index)
+            .sellStock(stock, quantity, date, price, method));
+  }
+
+  @Override
+  public void applyBatch(int index, List<Trade> trades) {
+    if (trades.isEmpty()) {
+      return;
+    }
+    String last = trades.get(0).getDate();
+    if (!checkTranscationOrder(index, last)) {
+      throw new IllegalArgumentException("Transactions must be done in chronological order.");
+    }
+    // every trade is priced before the portfolio is touched
+    List<PortfolioEvent> events = new ArrayList<>(trades.size());
+    for (Trade trade : trades) {
+      if (trade.getDate().compareTo(last) < 0) {
+        throw new IllegalArgumentException("Transactions must be done in chronological order.");
+      }
+      last = trade.getDate();
+      double price = closeAtOrBefore(trade.getTicker(), trade.getDate());
+      if (!trade.isBuy() && Double.isNaN(price)) {
+        throw new IllegalArgumentException("No data found for " + trade.getTicker()
+                + " on the date: " + trade.getDate());
+      }
+      events.add(trade.toEvent(price));
+    }
+    String date = last;
+    IPortfolio port = this.portfolios.get(index);
+    for (PortfolioEvent event : events) {
+      port = event.applyTo(port);
+    }
+    this.portfolios.set(index, port.withDate(date));
+  }
+
+  @Override
+  public String profitAndLoss(int index, String date) {
+    IPortfolio port = this.portfolios.get(index);
+    IPortfolio held = port.holdingsOn(date);
+    // the realized and unrealized gain of each stock and the shares whose cost is unknown
+    Map<String, double[]> totals = new LinkedHashMap<>();
+    for (int i = 0; i < held.getStockListSize(); i++) {
+      Stock lot = held.getStock(i);
+      double[] row = totals.computeIfAbsent(lot.getTicker(), t -> new double[3]);
+      if (Double.isNaN(lot.getCostBasis())) {
+        row[2] += lot.getQuantity();
+      } else {
+        row[1] += lot.getQuantity() * (closeAtOrBefore(lot.getTicker(), date)
+                - lot.getCostBasis());
+      }
+    }
+    for (RealizedGain gain : port.getRealizedGains(date)) {
+      double[] row = totals.computeIfAbsent(gain.getTicker(), t -> new double[3]);
+      if (Double.isNaN(gain.getGain())) {
+        row[2] += gain.getQuantity();
+      } else {
+        row[0] += gain.getGain();
+      }
+    }
+    String output = "Profit and Loss - Portfolio: " + port.getName() + "\n";
+    double realized = 0;
+    double unrealized = 0;
+    for (Map.Entry<String, double[]> entry : totals.entrySet()) {
+      double[] row = entry.getValue();
+      output += entry.getKey() + ": Realized $" + String.format("%.2f", row[0])
+              + " - Unrealized $" + String.format("%.2f", row[1]);
+      if (row[2] > 0) {
+        output += " - Cost unknown for " + row[2] + " shares";
+      }
+      output += "\n";
+      realized += row[0];
+      unrealized += row[1];
+    }
+    output += "-------------------------\nTotal: Realized $" + String.format("%.2f", realized)
+            + " - Unrealized $" + String.format("%.2f", unrealized) + "\n";
+    return output;
+  }
+
   @Override
   public void deletePortfolio(int index) {
     this.portfolios.remove(index);
+    // the portfolios after the deleted one have all moved down by one
+    this.indexes.clear();
+    for (int i = 0; i < this.portfolios.size(); i++) {
+      this.indexes.put(this.portfolios.get(i).getName(), i);
+    }
   }
 
   @Override
@@ -88,30 +193,23 @@ public class MockModel implements StocksModel {
 
   @Override
   public String portfolioValue(String date, int index) {
-    List<Stock> stocks = this.portfolios.get(index).distributionOfValue(date);
-    double sum = 0;
+    return valueMessage(valuation(index, date).getRoundedTotal());
+  }
 
-    int stockListLength = stocks.size();
-    for (int i = 0; i < stockListLength; i++) {
-      String currentStock = stocks.get(i).getTicker();
-      double currentQuantity = stocks.get(i).getQuantity();
-      String output = this.checkStockPrice(currentStock);
-      sum += this.parseHelper(date, output, currentStock) * currentQuantity;
-    }
-    return "The value of the portfolio is " + String.format("%.2f", sum) + "\n";
+  @Override
+  public Valuation valuation(int index, String date) {
+    return Valuation.of(this.portfolios.get(index), date, this::getPriceSeries);
   }
 
   @Override
   public String distributionOfValue(int index, String date) {
-    double portfolioValue = Double.valueOf(portfolioValue(date, index).substring(30));
-    List<Stock> workList = this.portfolios.get(index).distributionOfValue(date);
-    String output = "Distribution of Value - Portfolio: " + this.portfolios.get(index).getName() +
-            "\n";
-    for (Stock stock : workList) {
-      String csv = checkStockPrice(stock.getTicker());
-      double stockVal = (parseHelper(date, csv, stock.getTicker())) * stock.getQuantity();
+    Valuation valuation = valuation(index, date);
+    double portfolioValue = valuation.getRoundedTotal();
+    String output = "Distribution of Value - Portfolio: " + valuation.getName() + "\n";
+    for (int i = 0; i < valuation.size(); i++) {
+      double stockVal = valuation.getValue(i);
       double percent = (stockVal / portfolioValue) * 100;
-      output += stock.getTicker() + ": $" + String.format("%.2f", stockVal) + " - " +
+      output += valuation.getTicker(i) + ": $" + String.format("%.2f", stockVal) + " - " +
               String.format("%.2f", percent) + "%\n";
     }
     output += "-------------------------\nTotal: $" + portfolioValue + " - 100.00%\n";
@@ -125,35 +223,27 @@ public class MockModel implements StocksModel {
 
   @Override
   public String rebalancePortfolio(List<Integer> weights, int index, String date) {
-    double portfolioValue = Double.valueOf(portfolioValue(date, index).substring(30));
-    List<Stock> workList = this.portfolios.get(index).distributionOfValue(date);
+    Valuation valuation = valuation(index, date);
+    double portfolioValue = valuation.getRoundedTotal();
+    List<Trade> trades = new ArrayList<>();
     for (int i = 0; i < weights.size(); i++) {
-      Stock currStock = workList.get(i);
-      String csv = checkStockPrice(currStock.getTicker());
-      double stockVal = parseHelper(date, csv, currStock.getTicker());
+      String ticker = valuation.getTicker(i);
+      double stockVal = valuation.getPrice(i);
       int currWeight = weights.get(i);
-      double oldQuantity = currStock.getQuantity();
-      double newQuantity = ((currWeight * portfolioValue) / (100 * stockVal));
-
-      if (newQuantity > oldQuantity) {
-        addStock(index, currStock.getTicker(), newQuantity - oldQuantity, date);
-      } else if (oldQuantity > newQuantity) {
-        List<Integer> indexes = this.portfolios.get(index).getIndexes(currStock.getTicker(), date);
-        if (indexes.size() > 1) {
-          for (int j = 0; j < indexes.size(); j++) {
-            double quantityChange = Math.abs(newQuantity - oldQuantity);
-            if (this.portfolios.get(index).getStock(indexes.get(i)).getQuantity()
-                    > quantityChange) {
-              removeStock(index, currStock.getTicker(), quantityChange,
-                      indexes.get(i), false);
-            }
-          }
-        } else {
-          removeStock(index, currStock.getTicker(), oldQuantity - newQuantity,
-                  -1, false);
-        }
+      long newQuantity = FixedPoint.toMicros((currWeight * portfolioValue) / (100 * stockVal));
+      long change = newQuantity - valuation.getMicroShares(i);
+
+      if (Math.abs(FixedPoint.value(change, stockVal)) < FixedPoint.HALF_CENT) {
+        // a trade worth less than half a cent would only churn tiny lots
+        continue;
+      } else if (change > 0) {
+        trades.add(Trade.buy(ticker, FixedPoint.fromMicros(change), date));
+      } else {
+        trades.add(Trade.sell(ticker, FixedPoint.fromMicros(-change), date,
+                LotMethod.FIFO));
       }
     }
+    applyBatch(index, trades);
     return distributionOfValue(index, date);
   }
 
@@ -178,32 +268,24 @@ public class MockModel implements StocksModel {
 
   @Override
   public boolean checkValidStock(String stock) {
-    StringBuilder o = new StringBuilder();
     try {
       Integer.parseInt(stock);
       return false;
     } catch (NumberFormatException e) {
-      try {
-        String currDir = System.getProperty("user.dir");
-        if (currDir.contains("src")) {
-          currDir = currDir.replace("/src", "/res");
-        } else {
-          currDir = currDir + "/res";
-        }
-        File stocks = new File(currDir +
-                "/nasdaq_screener_1717539483453.csv");
-        Scanner sc = new Scanner(stocks);
-        while (sc.hasNext()) {
-          o.append(sc.nextLine());
-        }
-      } catch (FileNotFoundException msg) {
+      String currDir = System.getProperty("user.dir");
+      if (currDir.contains("src")) {
+        currDir = currDir.replace("/src", "/res");
+      } else {
+        currDir = currDir + "/res";
+      }
+      // the screener is read into Symbols once, and each check is then a lookup of its id
+      if (!Symbols.load(new File(currDir + "/nasdaq_screener_1717539483453.csv"))) {
         return false;
       }
     }
-    return o.toString().contains(stock);
+    return Symbols.isListed(stock);
   }
 
-
   @Override
   public String checkStockPrice(String stock) {
     //Key ZHMWP0VBWCYUCZA9
@@ -237,6 +319,41 @@ public class MockModel implements StocksModel {
     return output.toString();
   }
 
+  @Override
+  public PriceSeries getPriceSeries(String stock) {
+    return PriceSeries.fromCsv(stock, checkStockPrice(stock));
+  }
+
+  @Override
+  public RollingExtrema getRollingExtrema(String stock, int window) {
+    return new RollingExtrema(getPriceSeries(stock), window);
+  }
+
+  @Override
+  public List<Double> batchGainOrLoss(List<GainLossQuery> queries) {
+    List<Double> answers = new ArrayList<>();
+    for (GainLossQuery query : queries) {
+      answers.add(query.answer(getPriceSeries(query.getTicker())));
+    }
+    return answers;
+  }
+
+  @Override
+  public List<GainLossQuery> readGainLossQueries(String path) {
+    List<GainLossQuery> queries = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          queries.add(GainLossQuery.parse(line));
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read the file " + path);
+    }
+    return queries;
+  }
+
   @Override
   public ArrayList<String> xDayCrossover(String csv, int day, int month, int year, int x,
                                          double avg) {
@@ -381,14 +498,16 @@ public class MockModel implements StocksModel {
     try (BufferedReader reader = new BufferedReader(new FileReader(currDir))) {
       String line;
       newPortfolio(name);
-      int index = this.getPortfolios().size();
+      int index = this.portfolios.size();
       while ((line = reader.readLine()) != null) {
         String[] s = line.split(",");
         String ticker = s[0];
         double quantity = Double.parseDouble(s[1]);
         String date = s[2];
-        this.portfolios.set(index - 1, this.getPortfolios().get(index - 1)
-                .addStock(ticker, quantity, date));
+        // files saved before costs were recorded only have three columns
+        double costBasis = s.length > 3 ? Double.parseDouble(s[3]) : Double.NaN;
+        this.portfolios.set(index - 1, this.portfolios.get(index - 1)
+                .addStock(ticker, quantity, date, costBasis));
       }
     } catch (IOException e) {
       throw new RuntimeException();
@@ -412,6 +531,102 @@ public class MockModel implements StocksModel {
     return ans;
   }
 
+  @Override
+  public CovarianceMatrix correlationMatrix(IPortfolio port, String startDate, String endDate) {
+    List<PriceSeries> series = new ArrayList<>();
+    for (Stock stock : port.distributionOfValue(endDate)) {
+      series.add(getPriceSeries(stock.getTicker()));
+    }
+    return CovarianceEngine.compute(series, (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public ValueSeries portfolioValueSeries(IPortfolio port, String startDate, String endDate) {
+    return ValueSeries.of(port, this::getPriceSeries,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public DailyValuation dailyValuation(int index, String lastDate) {
+    return DailyValuation.of(this.portfolios.get(index), this::getPriceSeries,
+            (int) LocalDate.parse(lastDate).toEpochDay());
+  }
+
+  @Override
+  public RiskMetrics riskMetrics(IPortfolio port, String startDate, String endDate) {
+    return RiskMetrics.of(portfolioValueSeries(port, startDate, endDate));
+  }
+
+  @Override
+  public ReturnReport portfolioReturns(IPortfolio port, String startDate, String endDate) {
+    return new ReturnReport(portfolioValueSeries(port, startDate, endDate));
+  }
+
+  @Override
+  public BenchmarkComparison compareToBenchmark(IPortfolio port, String benchmark,
+                                                String startDate, String endDate) {
+    return BenchmarkComparison.compare(portfolioValueSeries(port, startDate, endDate),
+            getPriceSeries(benchmark));
+  }
+
+  @Override
+  public ValueProjection projectValue(IPortfolio port, String date, int days, int paths,
+                                      MonteCarloEngine.Method method) {
+    List<Stock> held = port.distributionOfValue(date);
+    if (held.isEmpty()) {
+      throw new IllegalArgumentException("The portfolio holds no stocks on " + date + ".");
+    }
+    List<PriceSeries> series = new ArrayList<>();
+    for (Stock stock : held) {
+      series.add(getPriceSeries(stock.getTicker()));
+    }
+    AlignedSeries aligned = AlignedSeries.align(series,
+            (int) LocalDate.parse(date).minusYears(1).toEpochDay(),
+            (int) LocalDate.parse(date).toEpochDay());
+    if (aligned.size() == 0) {
+      throw new IllegalArgumentException("No data found for the portfolio before " + date + ".");
+    }
+    double[] holdings = new double[held.size()];
+    double[][] returns = new double[held.size()][];
+    for (int i = 0; i < held.size(); i++) {
+      holdings[i] = held.get(i).getQuantity() * aligned.getValue(i, aligned.size() - 1);
+      returns[i] = aligned.returns(i);
+    }
+    return MonteCarloEngine.simulate(holdings, returns, days, paths, method,
+            new SplittableRandom());
+  }
+
+  @Override
+  public BacktestResult backtest(String ticker, Strategy strategy, double cash,
+                                 String startDate, String endDate) {
+    return Backtester.run(getPriceSeries(ticker), strategy, cash,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public List<SweepResult> optimizeCrossover(String ticker, ParameterSweep sweep, int[] windows,
+                                             double[] thresholds, double cash,
+                                             String startDate, String endDate) {
+    return sweep.run(getPriceSeries(ticker), windows, thresholds, cash,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  // the message giving the value of a portfolio
+  private static String valueMessage(double roundedTotal) {
+    return "The value of the portfolio is " + String.format("%.2f", roundedTotal) + "\n";
+  }
+
+  // the closing price of the stock on the last trading day on or before the date, or NaN
+  private double closeAtOrBefore(String ticker, String date) {
+    PriceSeries series = getPriceSeries(ticker);
+    int idx = series.indexAtOrBefore((int) LocalDate.parse(date).toEpochDay());
+    return idx == -1 ? Double.NaN : series.getClose(idx);
+  }
+
   // draws the graph
   private HashMap<String, Double> yearGraph(IPortfolio port, String date, int option, int repeat) {
     HashMap<String, Double> ans = new HashMap<>();
@@ -66,12 +66,19 @@ public class MockStocksGUIController implements StocksController, Features {
 
   @Override
   public void choosePortfolio(String port) {
-    List<IPortfolio> s = model.getPortfolios();
-    for (int i = 0; i < s.size(); i++) {
-      if (s.get(i).getName().equals(port)) {
-        this.model.saveFile(s.get(i));
-      }
+    int index = this.model.indexOf(port);
+    if (index != -1) {
+      this.model.saveFile(this.model.getPortfolios().get(index));
+    }
+  }
+
+  // the index of the portfolio with the name
+  private int portfolioIndex(String name) {
+    int index = this.model.indexOf(name);
+    if (index == -1) {
+      throw new IllegalArgumentException("Invalid Portfolio.");
     }
+    return index;
   }
 
   @Override
@@ -109,12 +116,7 @@ public class MockStocksGUIController implements StocksController, Features {
     }
 
     // gets index of portfolio
-    int index = 0;
-    for (int i = 0; i < model.getPortfolios().size(); i++) {
-      if (model.getPortfolios().get(i).getName().equals(portfolio)) {
-        index = i;
-      }
-    }
+    int index = portfolioIndex(portfolio);
 
     // checks if add stocks or remove
     if (t > 0) {
@@ -124,6 +126,26 @@ public class MockStocksGUIController implements StocksController, Features {
     }
   }
 
+  @Override
+  public void addOrSell(String portfolio, String ticker, String quantity, String date,
+                        LotMethod method) {
+    int t = Integer.parseInt(quantity);
+    if (!this.validDateInput(date)) {
+      throw new IllegalArgumentException("Invalid Date.");
+    }
+    if (!this.model.checkValidStock(ticker)) {
+      throw new IllegalArgumentException("Invalid Ticker.");
+    }
+    int index = portfolioIndex(portfolio);
+    if (t > 0) {
+      this.model.addStock(index, ticker, t, date);
+    } else if (model.getPortfolios().get(index).getTotalShares(ticker, date) < Math.abs(t)) {
+      throw new IllegalArgumentException("Invalid Purchase.");
+    } else {
+      this.model.sellStock(index, ticker, Math.abs(t), date, method);
+    }
+  }
+
   // removes the specified number of shares from the specified stock in the portfolio
   private void removeStockHelper(int index, String ticker, int removeQuantity, String date) {
     // gets total shares of stock in portfolio
@@ -143,10 +165,10 @@ public class MockStocksGUIController implements StocksController, Features {
       int stockIdx = removeIdx.get(0);
       double stockQuantity = model.getPortfolios().get(index).getStock(stockIdx).getQuantity();
       if (stockQuantity > removeQuantity) {
-        model.removeStock(index, ticker, removeQuantity, stockIdx, false);
+        model.removeStock(index, ticker, removeQuantity, stockIdx, false, date);
         removeQuantity = 0;
       } else {
-        model.removeStock(index, ticker, stockQuantity, stockIdx, true);
+        model.removeStock(index, ticker, stockQuantity, stockIdx, true, date);
         removeQuantity -= stockQuantity;
       }
     }
@@ -154,12 +176,7 @@ public class MockStocksGUIController implements StocksController, Features {
 
   @Override
   public void getPortfolioOverview(String selectedItem, String date) {
-    int index = 0;
-    for (int i = 0; i < this.model.getPortfolios().size(); i++) {
-      if (this.model.getPortfolios().get(i).getName().equals(selectedItem)) {
-        index = i;
-      }
-    }
+    int index = portfolioIndex(selectedItem);
 
     if (!this.validDateInput(date)) {
       throw new IllegalArgumentException("Invalid Date.");
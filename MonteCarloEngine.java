@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Projects the value of a portfolio a number of trading days ahead by simulating many possible
+ * paths from the historical daily returns of its holdings. The paths are cut into a fixed
+ * number of chunks that run on every core through the common fork/join pool, and each chunk
+ * draws from its own SplittableRandom split from the caller's generator before any work starts,
+ * so a seeded run gives the same projection on any machine and however the chunks are
+ * scheduled.
+ *
+ * <p>The holdings are combined at their current weights into one daily portfolio return before
+ * simulating, which treats the portfolio as if it were rebalanced back to those weights every
+ * day. This keeps the work per path down to one multiply per simulated day regardless of how
+ * many stocks are held.
+ */
+public final class MonteCarloEngine {
+  /**
+   * The ways a simulated path can be drawn from the historical returns.
+   */
+  public enum Method {
+    /**
+     * Each simulated day repeats a randomly chosen historical day, so the holdings move
+     * together the way they did on that day.
+     */
+    BOOTSTRAP,
+    /**
+     * The value follows geometric Brownian motion with the drift and volatility of the
+     * historical daily log returns.
+     */
+    GBM
+  }
+
+  // the number of chunks the paths are cut into, fixed rather than taken from the number of
+  // cores so the random streams are the same everywhere, and enough that a slow chunk does not
+  // leave the other cores idle
+  private static final int CHUNKS = 64;
+
+  private MonteCarloEngine() {
+    // static helpers only
+  }
+
+  /**
+   * Simulates the value of a portfolio the specified number of trading days ahead.
+   *
+   * @param holdings an array of doubles representing the current value held in each stock.
+   * @param returns  the historical daily returns of each stock, lined up on the same days.
+   * @param days     an int representing how many trading days ahead to project.
+   * @param paths    an int representing how many paths to simulate.
+   * @param method   the Method used to draw each path.
+   * @param random   a SplittableRandom that every chunk of paths is split from.
+   * @return a ValueProjection with the simulated values at the end of the horizon.
+   * @throws IllegalArgumentException if the horizon or number of paths is not positive, the
+   *                                  portfolio is worth nothing, or there are fewer than two
+   *                                  historical returns.
+   */
+  public static ValueProjection simulate(double[] holdings, double[][] returns, int days,
+                                         int paths, Method method, SplittableRandom random) {
+    if (days < 1 || paths < 1) {
+      throw new IllegalArgumentException("The horizon and number of paths must be positive.");
+    }
+    if (holdings.length == 0 || holdings.length != returns.length) {
+      throw new IllegalArgumentException("Every holding needs a return history.");
+    }
+    double start = 0;
+    for (double value : holdings) {
+      start += value;
+    }
+    if (start <= 0) {
+      throw new IllegalArgumentException("The portfolio has no value to project.");
+    }
+    int n = returns[0].length;
+    if (n < 2) {
+      throw new IllegalArgumentException("Not enough price history to project the portfolio.");
+    }
+
+    // one growth factor per historical day at the current weights
+    double[] growth = new double[n];
+    for (int s = 0; s < holdings.length; s++) {
+      double weight = holdings[s] / start;
+      for (int t = 0; t < n; t++) {
+        growth[t] += weight * returns[s][t];
+      }
+    }
+    for (int t = 0; t < n; t++) {
+      growth[t] += 1;
+    }
+
+    int chunks = Math.min(paths, CHUNKS);
+    SplittableRandom[] streams = new SplittableRandom[chunks];
+    for (int c = 0; c < chunks; c++) {
+      streams[c] = random.split();
+    }
+    double[] terminal = new double[paths];
+    double base = start;
+    if (method == Method.GBM) {
+      double[] logs = new double[n];
+      for (int t = 0; t < n; t++) {
+        logs[t] = Math.log(growth[t]);
+      }
+      double drift = RollingStats.mean(logs, 0, n) * days;
+      double squares = 0;
+      for (int t = 0; t < n; t++) {
+        squares += (logs[t] - drift / days) * (logs[t] - drift / days);
+      }
+      double spread = Math.sqrt(squares / (n - 1) * days);
+      IntStream.range(0, chunks).parallel().forEach(c -> {
+        SplittableRandom stream = streams[c];
+        for (int p = bound(paths, chunks, c); p < bound(paths, chunks, c + 1); p++) {
+          terminal[p] = base * Math.exp(drift + spread * stream.nextGaussian());
+        }
+      });
+    } else {
+      IntStream.range(0, chunks).parallel().forEach(c -> {
+        SplittableRandom stream = streams[c];
+        for (int p = bound(paths, chunks, c); p < bound(paths, chunks, c + 1); p++) {
+          double value = base;
+          for (int d = 0; d < days; d++) {
+            value *= growth[stream.nextInt(n)];
+          }
+          terminal[p] = value;
+        }
+      });
+    }
+    Arrays.parallelSort(terminal);
+    return new ValueProjection(start, days, terminal);
+  }
+
+  // the first path of a chunk
+  private static int bound(int paths, int chunks, int chunk) {
+    return (int) ((long) paths * chunk / chunks);
+  }
+}
@@ -0,0 +1,91 @@
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the MonteCarloEngine and the ValueProjection it produces.
+ */
+public class MonteCarloEngineTest {
+
+  /**
+   * Tests that bootstrapping a single repeated return compounds it exactly on every path.
+   */
+  @Test
+  public void testBootstrapConstantReturn() {
+    double[][] returns = {{0.1, 0.1, 0.1}};
+    ValueProjection projection = MonteCarloEngine.simulate(new double[]{100}, returns, 2, 50,
+            MonteCarloEngine.Method.BOOTSTRAP, new SplittableRandom(1));
+    assertEquals(50, projection.getPaths());
+    assertEquals(121.0, projection.percentile(0), 1e-9);
+    assertEquals(121.0, projection.percentile(100), 1e-9);
+    assertEquals(0.0, projection.probabilityOfLoss(), 0);
+  }
+
+  /**
+   * Tests that the holdings are combined at their current weights.
+   */
+  @Test
+  public void testWeights() {
+    double[][] returns = {{0.2, 0.2}, {-0.1, -0.1}};
+    ValueProjection projection = MonteCarloEngine.simulate(new double[]{25, 75}, returns, 1,
+            10, MonteCarloEngine.Method.BOOTSTRAP, new SplittableRandom(1));
+    assertEquals(100.0, projection.getStartValue(), 0);
+    assertEquals(100 * (1 + 0.25 * 0.2 - 0.75 * 0.1), projection.percentile(50), 1e-9);
+    assertEquals(1.0, projection.probabilityOfLoss(), 0);
+  }
+
+  /**
+   * Tests that geometric Brownian motion with no volatility grows at the historical rate.
+   */
+  @Test
+  public void testGbmWithoutVolatility() {
+    double[][] returns = {{0.01, 0.01, 0.01, 0.01}};
+    ValueProjection projection = MonteCarloEngine.simulate(new double[]{100}, returns, 10,
+            100, MonteCarloEngine.Method.GBM, new SplittableRandom(3));
+    assertEquals(100 * Math.pow(1.01, 10), projection.percentile(5), 1e-6);
+    assertEquals(100 * Math.pow(1.01, 10), projection.percentile(95), 1e-6);
+  }
+
+  /**
+   * Tests that the same seed gives the same projection even though the paths run in parallel.
+   */
+  @Test
+  public void testSeededRunsRepeat() {
+    double[][] returns = {{0.02, -0.01, 0.005, -0.03, 0.015}, {0.01, 0.0, -0.02, 0.01, 0.0}};
+    for (MonteCarloEngine.Method method : MonteCarloEngine.Method.values()) {
+      ValueProjection first = MonteCarloEngine.simulate(new double[]{60, 40}, returns, 20,
+              20000, method, new SplittableRandom(42));
+      ValueProjection second = MonteCarloEngine.simulate(new double[]{60, 40}, returns, 20,
+              20000, method, new SplittableRandom(42));
+      assertArrayEquals(first.bands(), second.bands(), 0);
+      double[] bands = first.bands();
+      for (int i = 1; i < bands.length; i++) {
+        assertTrue(bands[i - 1] <= bands[i]);
+      }
+    }
+  }
+
+  /**
+   * Tests that percentiles interpolate between neighbouring paths.
+   */
+  @Test
+  public void testPercentile() {
+    ValueProjection projection = new ValueProjection(2, 1, new double[]{1, 2, 3, 4, 5});
+    assertEquals(3.0, projection.percentile(50), 0);
+    assertEquals(1.4, projection.percentile(10), 1e-12);
+    assertEquals(0.2, projection.probabilityOfLoss(), 0);
+  }
+
+  /**
+   * Tests that a portfolio without value cannot be projected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoValue() {
+    MonteCarloEngine.simulate(new double[]{0}, new double[][]{{0.1, 0.2}}, 5, 10,
+            MonteCarloEngine.Method.GBM, new SplittableRandom(1));
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Buys when the closing price crosses above its x-day moving average and sells when it crosses
+ * back below, which is the crossover the model reports in xDayCrossover. A threshold can be set
+ * so a cross only counts once the price is that fraction beyond the average, which filters out
+ * days where the price wobbles around the average. As in xDayCrossover, the price must close
+ * strictly below the line the day before a buy and strictly above it the day before a sale, so
+ * a close that only touches the line does not start a cross.
+ */
+public class MovingAverageCrossoverStrategy implements Strategy {
+  private final int window;
+  private final double threshold;
+  private final double[] shared;
+  private double[] closes;
+  private double[] average;
+
+  /**
+   * Constructs a MovingAverageCrossoverStrategy object.
+   *
+   * @param window    an int representing the number of days in the moving average.
+   * @param threshold a double representing how far past the average, as a fraction of it, the
+   *                  price must close for a cross to count. 0 counts every cross.
+   * @throws IllegalArgumentException if the window is less than one day or the threshold is
+   *                                  negative.
+   */
+  public MovingAverageCrossoverStrategy(int window, double threshold) {
+    this(window, threshold, null);
+  }
+
+  // uses a moving average that was already computed over the series, so strategies with the
+  // same window can share one read-only column
+  MovingAverageCrossoverStrategy(int window, double threshold, double[] shared) {
+    if (window < 1) {
+      throw new IllegalArgumentException("The window must be at least one day.");
+    }
+    if (threshold < 0) {
+      throw new IllegalArgumentException("The threshold cannot be negative.");
+    }
+    this.window = window;
+    this.threshold = threshold;
+    this.shared = shared;
+  }
+
+  @Override
+  public void prepare(PriceSeries series) {
+    this.closes = series.closeColumn();
+    this.average = shared != null ? shared : RollingStats.rollingMean(closes, window);
+  }
+
+  @Override
+  public Signal signal(int index) {
+    if (index == 0 || Double.isNaN(average[index - 1])) {
+      return Signal.HOLD;
+    }
+    double upper = 1 + threshold;
+    double lower = 1 - threshold;
+    if (closes[index] > average[index] * upper
+            && closes[index - 1] < average[index - 1] * upper) {
+      return Signal.BUY;
+    }
+    if (closes[index] < average[index] * lower
+            && closes[index - 1] > average[index - 1] * lower) {
+      return Signal.SELL;
+    }
+    return Signal.HOLD;
+  }
+
+  @Override
+  public String getName() {
+    return window + "-day crossover (threshold " + threshold + ")";
+  }
+
+  /**
+   * Gets the number of days in the moving average.
+   *
+   * @return an int representing the window.
+   */
+  public int getWindow() {
+    return window;
+  }
+
+  /**
+   * Gets how far past the average the price must close for a cross to count.
+   *
+   * @return a double representing the threshold as a fraction of the average.
+   */
+  public double getThreshold() {
+    return threshold;
+  }
+}
@@ -0,0 +1,185 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Backtests every combination of moving average window and crossover threshold over one stock
+ * in parallel. Each distinct window's moving average is computed once and shared read-only by
+ * every threshold tested with it, and the combinations are split recursively across a
+ * work-stealing ForkJoinPool so cheap and expensive combinations even out between workers.
+ * A sweep can be cancelled from another thread, in which case the combinations already
+ * finished are returned. Cancelling only stops one sweep, so the object can be run again.
+ */
+public final class ParameterSweep {
+  // combinations a task evaluates itself instead of splitting further
+  private static final int LEAF = 8;
+
+  private final ForkJoinPool pool;
+  private final AtomicBoolean cancelled;
+
+  /**
+   * Constructs a ParameterSweep that runs on the common fork/join pool.
+   */
+  public ParameterSweep() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a ParameterSweep that runs on the specified pool.
+   *
+   * @param pool the ForkJoinPool to spread the backtests over.
+   */
+  public ParameterSweep(ForkJoinPool pool) {
+    this.pool = pool;
+    this.cancelled = new AtomicBoolean(false);
+  }
+
+  /**
+   * Backtests the moving average crossover strategy for every pair of window and threshold.
+   *
+   * @param series     the PriceSeries of the stock to trade.
+   * @param windows    an array of ints representing the moving average windows to test.
+   * @param thresholds an array of doubles representing the crossover thresholds to test.
+   * @param cash       a double representing the cash available on the first day.
+   * @param startDay   an int representing the first day to trade as an epoch day.
+   * @param endDay     an int representing the last day to trade as an epoch day.
+   * @return a list of SweepResults for the combinations that finished, in window-major order.
+   * @throws IllegalArgumentException if the stock has no data in the range.
+   */
+  public List<SweepResult> run(PriceSeries series, int[] windows, double[] thresholds,
+                               double cash, int startDay, int endDay) {
+    double[][] averages = new double[windows.length][];
+    SweepResult[] results = new SweepResult[windows.length * thresholds.length];
+    try {
+      pool.invoke(new Averages(series.closeColumn(), windows, averages, 0, windows.length));
+      pool.invoke(new Evaluate(series, windows, thresholds, averages, cash, startDay, endDay,
+              results, 0, results.length));
+    } finally {
+      // the cancel has been used up, so the next sweep runs in full
+      cancelled.set(false);
+    }
+    List<SweepResult> finished = new ArrayList<>();
+    for (SweepResult result : results) {
+      if (result != null) {
+        finished.add(result);
+      }
+    }
+    return finished;
+  }
+
+  /**
+   * Stops the sweep that is running as soon as each worker finishes the combination it is on.
+   * If no sweep is running, the next one to start stops straight away. Sweeps after that run
+   * in full.
+   */
+  public void cancel() {
+    cancelled.set(true);
+  }
+
+  /**
+   * Checks whether the sweep has been cancelled.
+   *
+   * @return true if cancel has been called since the last sweep finished, false otherwise.
+   */
+  public boolean isCancelled() {
+    return cancelled.get();
+  }
+
+  /**
+   * Sorts sweep results into a new list without changing the original.
+   *
+   * @param results the list of SweepResults to rank.
+   * @param order   a Comparator such as SweepResult.BY_SHARPE.
+   * @return a new list with the best result first.
+   */
+  public static List<SweepResult> rank(List<SweepResult> results,
+                                       Comparator<SweepResult> order) {
+    List<SweepResult> ranked = new ArrayList<>(results);
+    ranked.sort(order);
+    return ranked;
+  }
+
+  // computes the moving average of each window in a range of the windows array
+  private final class Averages extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final double[] closes;
+    private final int[] windows;
+    private final double[][] averages;
+    private final int from;
+    private final int to;
+
+    Averages(double[] closes, int[] windows, double[][] averages, int from, int to) {
+      this.closes = closes;
+      this.windows = windows;
+      this.averages = averages;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        for (int w = from; w < to && !cancelled.get(); w++) {
+          averages[w] = RollingStats.rollingMean(closes, windows[w]);
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new Averages(closes, windows, averages, from, mid),
+              new Averages(closes, windows, averages, mid, to));
+    }
+  }
+
+  // backtests a range of the combinations, where combination c is window c / thresholds and
+  // threshold c % thresholds
+  private final class Evaluate extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final PriceSeries series;
+    private final int[] windows;
+    private final double[] thresholds;
+    private final double[][] averages;
+    private final double cash;
+    private final int startDay;
+    private final int endDay;
+    private final SweepResult[] results;
+    private final int from;
+    private final int to;
+
+    Evaluate(PriceSeries series, int[] windows, double[] thresholds, double[][] averages,
+             double cash, int startDay, int endDay, SweepResult[] results, int from, int to) {
+      this.series = series;
+      this.windows = windows;
+      this.thresholds = thresholds;
+      this.averages = averages;
+      this.cash = cash;
+      this.startDay = startDay;
+      this.endDay = endDay;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= LEAF) {
+        for (int c = from; c < to && !cancelled.get(); c++) {
+          int w = c / thresholds.length;
+          double threshold = thresholds[c % thresholds.length];
+          Strategy strategy = new MovingAverageCrossoverStrategy(windows[w], threshold,
+                  averages[w]);
+          results[c] = new SweepResult(windows[w], threshold,
+                  Backtester.run(series, strategy, cash, startDay, endDay));
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new Evaluate(series, windows, thresholds, averages, cash, startDay, endDay,
+                      results, from, mid),
+              new Evaluate(series, windows, thresholds, averages, cash, startDay, endDay,
+                      results, mid, to));
+    }
+  }
+}
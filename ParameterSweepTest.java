@@ -0,0 +1,86 @@
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the ParameterSweep and SweepResult.
+ */
+public class ParameterSweepTest {
+  private PriceSeries series;
+
+  /**
+   * Sets up a random walk of prices to sweep over. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    SplittableRandom random = new SplittableRandom(11);
+    int[] days = new int[500];
+    double[] closes = new double[500];
+    double price = 100;
+    for (int i = 0; i < days.length; i++) {
+      days[i] = i;
+      price *= 1 + random.nextGaussian() * 0.02;
+      closes[i] = price;
+    }
+    series = new PriceSeries("AAPL", days, closes);
+  }
+
+  /**
+   * Tests that every combination is scored the same as backtesting it on its own.
+   */
+  @Test
+  public void testMatchesSingleBacktests() {
+    int[] windows = {5, 10, 20, 50};
+    double[] thresholds = {0, 0.01, 0.02};
+    List<SweepResult> results = new ParameterSweep().run(series, windows, thresholds, 1000,
+            0, 499);
+    assertEquals(12, results.size());
+    for (SweepResult result : results) {
+      BacktestResult alone = Backtester.run(series, new MovingAverageCrossoverStrategy(
+              result.getWindow(), result.getThreshold()), 1000, 0, 499);
+      assertEquals(alone.getTotalReturn(), result.getTotalReturn(), 1e-12);
+      assertEquals(alone.getSharpeRatio(), result.getSharpeRatio(), 1e-12);
+      assertEquals(alone.getTrades(), result.getTrades());
+    }
+    assertEquals(5, results.get(0).getWindow());
+    assertEquals(0.01, results.get(1).getThreshold(), 0);
+  }
+
+  /**
+   * Tests that ranking orders by the chosen measure without changing the original list.
+   */
+  @Test
+  public void testRank() {
+    List<SweepResult> results = new ParameterSweep().run(series, new int[]{3, 7, 15, 30},
+            new double[]{0, 0.005}, 1000, 0, 499);
+    List<SweepResult> bySharpe = ParameterSweep.rank(results, SweepResult.BY_SHARPE);
+    List<SweepResult> byDrawdown = ParameterSweep.rank(results, SweepResult.BY_DRAWDOWN);
+    List<SweepResult> byReturn = ParameterSweep.rank(results, SweepResult.BY_RETURN);
+    for (int i = 1; i < results.size(); i++) {
+      assertTrue(bySharpe.get(i - 1).getSharpeRatio() >= bySharpe.get(i).getSharpeRatio());
+      assertTrue(byDrawdown.get(i - 1).getMaxDrawdown() <= byDrawdown.get(i).getMaxDrawdown());
+      assertTrue(byReturn.get(i - 1).getTotalReturn() >= byReturn.get(i).getTotalReturn());
+    }
+    assertEquals(3, results.get(0).getWindow());
+  }
+
+  /**
+   * Tests that a cancelled sweep stops without scoring any more combinations and that the
+   * next sweep runs in full.
+   */
+  @Test
+  public void testCancel() {
+    ParameterSweep sweep = new ParameterSweep();
+    sweep.cancel();
+    assertTrue(sweep.isCancelled());
+    assertEquals(0, sweep.run(series, new int[]{5, 10}, new double[]{0}, 1000, 0, 499).size());
+    assertFalse(sweep.isCancelled());
+    assertEquals(2, sweep.run(series, new int[]{5, 10}, new double[]{0}, 1000, 0, 499).size());
+  }
+}
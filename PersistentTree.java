@@ -0,0 +1,449 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An immutable sorted map backed by an AVL tree in which every update copies only the path
+ * from the root to the changed node. The old and new versions share every other node, so an
+ * update costs O(log n) time and memory while every earlier version stays valid. Each node
+ * also counts the entries below it, so the entry at a position and the position of a key can
+ * be found in O(log n) as well. A tree can also be given a weight for its values, such as the
+ * number of shares in a lot, and then sums the weights below each node so the total weight of
+ * every key up to a given key is found in O(log n).
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public final class PersistentTree<K, V> implements Iterable<V> {
+  private final Comparator<? super K> order;
+  private final ToDoubleFunction<? super V> weigher;
+  private final Node<K, V> root;
+
+  /**
+   * Constructs an empty PersistentTree ordered by the specified comparator.
+   *
+   * @param order the Comparator that sorts the keys.
+   */
+  public PersistentTree(Comparator<? super K> order) {
+    this(order, value -> 0, null);
+  }
+
+  /**
+   * Constructs an empty PersistentTree ordered by the specified comparator that sums the
+   * weights of its values.
+   *
+   * @param order   the Comparator that sorts the keys.
+   * @param weigher the function giving the weight of a value.
+   */
+  public PersistentTree(Comparator<? super K> order, ToDoubleFunction<? super V> weigher) {
+    this(order, weigher, null);
+  }
+
+  private PersistentTree(Comparator<? super K> order, ToDoubleFunction<? super V> weigher,
+                         Node<K, V> root) {
+    this.order = order;
+    this.weigher = weigher;
+    this.root = root;
+  }
+
+  /**
+   * Gets the number of entries in the tree.
+   *
+   * @return an int representing the number of entries.
+   */
+  public int size() {
+    return size(root);
+  }
+
+  /**
+   * Checks whether the tree has no entries.
+   *
+   * @return true if the tree is empty, false otherwise.
+   */
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Gets the value stored under the key.
+   *
+   * @param key the key to look up.
+   * @return the value of the key, or null if the key is not in the tree.
+   */
+  public V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int c = order.compare(key, node.key);
+      if (c == 0) {
+        return node.value;
+      }
+      node = c < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a tree with the key mapped to the value, replacing any value it had.
+   *
+   * @param key   the key to store.
+   * @param value the value to store under the key.
+   * @return a new PersistentTree with the entry added; this tree is unchanged.
+   */
+  public PersistentTree<K, V> put(K key, V value) {
+    return new PersistentTree<>(order, weigher, put(root, key, value));
+  }
+
+  /**
+   * Returns a tree without the key.
+   *
+   * @param key the key to remove.
+   * @return a new PersistentTree without the key, or this tree if the key is not in it.
+   */
+  public PersistentTree<K, V> remove(K key) {
+    if (get(key) == null) {
+      return this;
+    }
+    return new PersistentTree<>(order, weigher, remove(root, key));
+  }
+
+  /**
+   * Gets the value at the specified position in key order.
+   *
+   * @param index an int representing the position, 0 being the smallest key.
+   * @return the value at the position.
+   * @throws IndexOutOfBoundsException if the index is negative or not less than the size.
+   */
+  public V select(int index) {
+    return selectNode(index).value;
+  }
+
+  /**
+   * Gets the key at the specified position in key order.
+   *
+   * @param index an int representing the position, 0 being the smallest key.
+   * @return the key at the position.
+   * @throws IndexOutOfBoundsException if the index is negative or not less than the size.
+   */
+  public K keyAt(int index) {
+    return selectNode(index).key;
+  }
+
+  /**
+   * Counts the keys in the tree that are smaller than the specified key, which is the
+   * position of the key if it is in the tree.
+   *
+   * @param key the key to look up.
+   * @return an int representing the number of smaller keys.
+   */
+  public int rank(K key) {
+    int rank = 0;
+    Node<K, V> node = root;
+    while (node != null) {
+      int c = order.compare(key, node.key);
+      if (c <= 0) {
+        node = node.left;
+      } else {
+        rank += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Gets the value of the largest key that is smaller than or equal to the specified key.
+   *
+   * @param key the key to look up.
+   * @return the value of the closest key at or below the key, or null if there is none.
+   */
+  public V floor(K key) {
+    V found = null;
+    Node<K, V> node = root;
+    while (node != null) {
+      int c = order.compare(key, node.key);
+      if (c == 0) {
+        return node.value;
+      } else if (c < 0) {
+        node = node.left;
+      } else {
+        found = node.value;
+        node = node.right;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Gets the value of the smallest key.
+   *
+   * @return the first value in key order, or null if the tree is empty.
+   */
+  public V first() {
+    Node<K, V> node = root;
+    if (node == null) {
+      return null;
+    }
+    while (node.left != null) {
+      node = node.left;
+    }
+    return node.value;
+  }
+
+  /**
+   * Gets the value of the largest key.
+   *
+   * @return the last value in key order, or null if the tree is empty.
+   */
+  public V last() {
+    Node<K, V> node = root;
+    if (node == null) {
+      return null;
+    }
+    while (node.right != null) {
+      node = node.right;
+    }
+    return node.value;
+  }
+
+  /**
+   * Sums the weights of the values whose keys are smaller than or equal to the specified key.
+   *
+   * @param key the last key to include.
+   * @return a double with the total weight up to and including the key.
+   */
+  public double weightThrough(K key) {
+    double total = 0;
+    Node<K, V> node = root;
+    while (node != null) {
+      int c = order.compare(key, node.key);
+      if (c < 0) {
+        node = node.left;
+      } else {
+        total += weight(node.left) + weigher.applyAsDouble(node.value);
+        if (c == 0) {
+          return total;
+        }
+        node = node.right;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Sums the weights of every value in the tree.
+   *
+   * @return a double with the total weight.
+   */
+  public double totalWeight() {
+    return weight(root);
+  }
+
+  /**
+   * Copies the values whose keys are smaller than or equal to the specified key into a list in
+   * key order. Only the part of the tree up to the key is visited.
+   *
+   * @param key the last key to include.
+   * @return a new List with the values up to and including the key.
+   */
+  public List<V> headValues(K key) {
+    List<V> out = new ArrayList<>();
+    headValues(root, key, out);
+    return out;
+  }
+
+  /**
+   * Iterates over the values in key order. The iterator walks this version of the tree, so
+   * later updates never affect it.
+   *
+   * @return an Iterator over the values.
+   */
+  @Override
+  public Iterator<V> iterator() {
+    return new Iterator<V>() {
+      private final Deque<Node<K, V>> path = new ArrayDeque<>();
+      private Node<K, V> next = root;
+
+      @Override
+      public boolean hasNext() {
+        return next != null || !path.isEmpty();
+      }
+
+      @Override
+      public V next() {
+        while (next != null) {
+          path.push(next);
+          next = next.left;
+        }
+        if (path.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<K, V> node = path.pop();
+        next = node.right;
+        return node.value;
+      }
+    };
+  }
+
+  /**
+   * Copies the values into a list in key order.
+   *
+   * @return a new List with every value.
+   */
+  public List<V> values() {
+    List<V> out = new ArrayList<>(size());
+    for (V value : this) {
+      out.add(value);
+    }
+    return out;
+  }
+
+  // ---------------------------------- tree operations ------------------------------------------
+
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    private final Node<K, V> left;
+    private final Node<K, V> right;
+    private final int height;
+    private final int size;
+    private final double weight;
+
+    private Node(K key, V value, Node<K, V> left, Node<K, V> right, double weight) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+      this.weight = weight(left) + weight(right) + weight;
+    }
+  }
+
+  // builds a node whose totals include the weight of its value
+  private Node<K, V> newNode(K key, V value, Node<K, V> left, Node<K, V> right) {
+    return new Node<>(key, value, left, right, weigher.applyAsDouble(value));
+  }
+
+  private static int height(Node<?, ?> node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node<?, ?> node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static double weight(Node<?, ?> node) {
+    return node == null ? 0 : node.weight;
+  }
+
+  private Node<K, V> selectNode(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    Node<K, V> node = root;
+    while (true) {
+      int leftSize = size(node.left);
+      if (index < leftSize) {
+        node = node.left;
+      } else if (index == leftSize) {
+        return node;
+      } else {
+        index -= leftSize + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  private Node<K, V> put(Node<K, V> node, K key, V value) {
+    if (node == null) {
+      return newNode(key, value, null, null);
+    }
+    int c = order.compare(key, node.key);
+    if (c == 0) {
+      return newNode(key, value, node.left, node.right);
+    } else if (c < 0) {
+      return balance(node.key, node.value, put(node.left, key, value), node.right);
+    } else {
+      return balance(node.key, node.value, node.left, put(node.right, key, value));
+    }
+  }
+
+  private Node<K, V> remove(Node<K, V> node, K key) {
+    int c = order.compare(key, node.key);
+    if (c < 0) {
+      return balance(node.key, node.value, remove(node.left, key), node.right);
+    } else if (c > 0) {
+      return balance(node.key, node.value, node.left, remove(node.right, key));
+    } else if (node.left == null) {
+      return node.right;
+    } else if (node.right == null) {
+      return node.left;
+    }
+    // replaces the node with the smallest entry of its right subtree
+    Node<K, V> next = node.right;
+    while (next.left != null) {
+      next = next.left;
+    }
+    return balance(next.key, next.value, node.left, removeFirst(node.right));
+  }
+
+  private Node<K, V> removeFirst(Node<K, V> node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    return balance(node.key, node.value, removeFirst(node.left), node.right);
+  }
+
+  // builds a node, rotating once or twice if one side is two levels taller
+  private Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+    if (height(left) > height(right) + 1) {
+      if (height(left.left) < height(left.right)) {
+        left = rotateLeft(left.left, left.right, left.key, left.value);
+      }
+      return newNode(left.key, left.value, left.left,
+              newNode(key, value, left.right, right));
+    }
+    if (height(right) > height(left) + 1) {
+      if (height(right.right) < height(right.left)) {
+        right = rotateRight(right.left, right.right, right.key, right.value);
+      }
+      return newNode(right.key, right.value, newNode(key, value, left, right.left),
+              right.right);
+    }
+    return newNode(key, value, left, right);
+  }
+
+  private Node<K, V> rotateLeft(Node<K, V> left, Node<K, V> right, K key, V value) {
+    return newNode(right.key, right.value, newNode(key, value, left, right.left),
+            right.right);
+  }
+
+  private Node<K, V> rotateRight(Node<K, V> left, Node<K, V> right, K key, V value) {
+    return newNode(left.key, left.value, left.left, newNode(key, value, left.right, right));
+  }
+
+  private void headValues(Node<K, V> node, K key, List<V> out) {
+    while (node != null) {
+      if (order.compare(key, node.key) < 0) {
+        node = node.left;
+      } else {
+        addAll(node.left, out);
+        out.add(node.value);
+        node = node.right;
+      }
+    }
+  }
+
+  private static <K, V> void addAll(Node<K, V> node, List<V> out) {
+    while (node != null) {
+      addAll(node.left, out);
+      out.add(node.value);
+      node = node.right;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the PersistentTree.
+ */
+public class PersistentTreeTest {
+
+  /**
+   * Tests random puts and removes against a TreeMap, checking every lookup after each update.
+   */
+  @Test
+  public void testMatchesTreeMap() {
+    Random random = new Random(7);
+    TreeMap<Integer, Integer> expected = new TreeMap<>();
+    PersistentTree<Integer, Integer> tree = new PersistentTree<>(Comparator.naturalOrder());
+    for (int step = 0; step < 2000; step++) {
+      int key = random.nextInt(300);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        tree = tree.remove(key);
+      } else {
+        expected.put(key, step);
+        tree = tree.put(key, step);
+      }
+      assertEquals(expected.size(), tree.size());
+      assertEquals(expected.get(key), tree.get(key));
+      assertEquals(expected.headMap(key).size(), tree.rank(key));
+      Integer floor = expected.floorKey(key + 1);
+      assertEquals(floor == null ? null : expected.get(floor), tree.floor(key + 1));
+    }
+    assertEquals(new ArrayList<>(expected.values()), tree.values());
+    int index = 0;
+    for (Integer key : expected.keySet()) {
+      assertEquals(key, tree.keyAt(index));
+      assertEquals(expected.get(key), tree.select(index));
+      index++;
+    }
+    assertEquals(expected.firstEntry().getValue(), tree.first());
+    assertEquals(expected.lastEntry().getValue(), tree.last());
+  }
+
+  /**
+   * Tests that updating a tree leaves the earlier version as it was.
+   */
+  @Test
+  public void testEarlierVersionsUnchanged() {
+    PersistentTree<Integer, String> before = new PersistentTree<>(Comparator.naturalOrder());
+    for (int i = 0; i < 100; i++) {
+      before = before.put(i, "v" + i);
+    }
+    PersistentTree<Integer, String> after = before.put(5, "changed").remove(50).put(200, "new");
+    assertEquals(100, before.size());
+    assertEquals("v5", before.get(5));
+    assertEquals("v50", before.get(50));
+    assertNull(before.get(200));
+    assertEquals(100, after.size());
+    assertEquals("changed", after.get(5));
+    assertNull(after.get(50));
+  }
+
+  /**
+   * Tests that removing a missing key returns the same tree.
+   */
+  @Test
+  public void testRemoveMissing() {
+    PersistentTree<Integer, String> tree = new PersistentTree<Integer, String>(
+            Comparator.naturalOrder()).put(1, "a");
+    assertTrue(tree == tree.remove(2));
+    assertTrue(new PersistentTree<Integer, String>(Comparator.naturalOrder()).isEmpty());
+  }
+
+  /**
+   * Tests that appending many keys in order keeps the tree balanced enough to iterate.
+   */
+  @Test
+  public void testAppendInOrder() {
+    PersistentTree<Long, Long> tree = new PersistentTree<>(Comparator.naturalOrder());
+    for (long i = 0; i < 100000; i++) {
+      tree = tree.put(i, i * 2);
+    }
+    List<Long> values = tree.values();
+    assertEquals(100000, values.size());
+    assertEquals(Long.valueOf(2 * 99999), values.get(99999));
+    assertEquals(Long.valueOf(2 * 54321), tree.select(54321));
+  }
+
+  /**
+   * Tests that selecting past the end is rejected.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSelectOutOfRange() {
+    new PersistentTree<Integer, Integer>(Comparator.naturalOrder()).put(1, 1).select(1);
+  }
+
+  /**
+   * Tests that the weights up to a key and the values up to a key match a running total.
+   */
+  @Test
+  public void testWeightsAndHeadValues() {
+    PersistentTree<Integer, Double> tree = new PersistentTree<>(Comparator.naturalOrder(),
+            Double::doubleValue);
+    for (int key = 20; key > 0; key -= 2) {
+      tree = tree.put(key, key / 2.0);
+    }
+    tree = tree.remove(10).put(12, 100.0);
+    double running = 0;
+    List<Double> head = new ArrayList<>();
+    for (int key = 0; key <= 21; key++) {
+      Double value = tree.get(key);
+      if (value != null) {
+        running += value;
+        head.add(value);
+      }
+      assertEquals(running, tree.weightThrough(key), 1e-9);
+      assertEquals(head, tree.headValues(key));
+    }
+    assertEquals(running, tree.totalWeight(), 1e-9);
+  }
+}
@@ -1,6 +1,11 @@
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a portfolio of stocks with various operations to manage and retrieve stock
@@ -8,12 +13,40 @@ import java.util.List;
  * Implements the IPortfolio interface, allowing for adding and removing stocks,
  * retrieving stock details,
  * and managing the portfolio's overall composition and transactions.
+ * The lots are kept in persistent trees, so each new Portfolio returned by an add or a remove
+ * shares all but O(log n) of its nodes with the one it came from. The lots of each ticker are
+ * also indexed by date, so looking up a ticker's lots and shares never scans the whole list,
+ * and every lot is indexed by date so the lots held on a date are a head of that index.
  */
 public class Portfolio implements IPortfolio {
-  private final List<Stock> stocks;
+  // the largest id dateKey can hold, which sorts after every lot bought on the same day
+  private static final long LAST_ID = 0xFFFFFFFFL;
+
+  // how many dates each portfolio remembers its holdings for, enough for a year of daily values
+  private static final int CACHED_DATES = 400;
+
+  // lots by the order they were bought in, so a lot's position is its index
+  private final PersistentTree<Long, Stock> stocks;
+  private final long nextId;
   private final String name;
-  private final List<String> purchaseDates;
-  private String date;
+  // the lots of each ticker by its id in Symbols
+  private final PersistentTree<Integer, TaxLots> lots;
+  // the ids of every lot by purchase day, see dateKey
+  private final PersistentTree<Long, Long> byDate;
+  private final PersistentTree<Integer, RealizedGain> realized;
+  private final Ledger ledger;
+  // the date of the last transaction, carried into every later version
+  private final String date;
+  // the lots laid out in primitive columns, built the first time they are needed
+  private volatile LotColumns columns;
+  // holdings already worked out for this version of the portfolio, by date
+  private final Map<String, List<Stock>> distributions = new LinkedHashMap<String,
+          List<Stock>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, List<Stock>> eldest) {
+      return size() > CACHED_DATES;
+    }
+  };
 
   /**
    * Constructs a SimplePortfolio object.
@@ -21,53 +54,74 @@ public class Portfolio implements IPortfolio {
    * @param name a String representing the name given to the portfolio by the user.
    */
   public Portfolio(String name) {
-    this.stocks = new ArrayList<>();
+    this.stocks = new PersistentTree<>(Comparator.naturalOrder());
+    this.nextId = 0;
     this.name = name;
-    this.purchaseDates = new ArrayList<>();
+    this.lots = new PersistentTree<>(Comparator.naturalOrder());
+    this.byDate = new PersistentTree<>(Comparator.naturalOrder());
+    this.realized = new PersistentTree<>(Comparator.naturalOrder());
+    this.ledger = Ledger.EMPTY;
     this.date = "";
   }
 
   // used in add and remove to return a new Portfolio object to avoid mutation
-  private Portfolio(List<Stock> stocks, String name, List<String> purchaseDates) {
+  private Portfolio(PersistentTree<Long, Stock> stocks, long nextId, String name,
+                    PersistentTree<Integer, TaxLots> lots, PersistentTree<Long, Long> byDate,
+                    PersistentTree<Integer, RealizedGain> realized, Ledger ledger,
+                    String date) {
     this.stocks = stocks;
+    this.nextId = nextId;
     this.name = name;
-    this.purchaseDates = purchaseDates;
-    this.date = "";
+    this.lots = lots;
+    this.byDate = byDate;
+    this.realized = realized;
+    this.ledger = ledger;
+    this.date = date;
   }
 
   @Override
   public IPortfolio addStock(String ticker, double quantity, String datePurchased) {
-    List<Stock> tempStocks = new ArrayList<>(this.stocks);
-    List<String> tempPurchaseDate = new ArrayList<>(this.purchaseDates);
-    boolean alreadyExists = false;
-    int stockIdx = 0;
-
-    for (int i = 0; i < tempStocks.size(); i++) {
-      if (tempStocks.get(i).getTicker().equalsIgnoreCase(ticker) &&
-              tempStocks.get(i).getDatePurchased().equalsIgnoreCase(datePurchased)) {
-        alreadyExists = true;
-        stockIdx = i;
-        break;
-      }
-    }
+    return addStock(ticker, quantity, datePurchased, Double.NaN);
+  }
 
+  @Override
+  public IPortfolio addStock(String ticker, double quantity, String datePurchased,
+                             double costBasis) {
     if (quantity < 0) {
       throw new IllegalArgumentException("Quantity cannot be negative");
-    } else if (alreadyExists) {
-      tempStocks.set(stockIdx, tempStocks.get(stockIdx).addShares(quantity));
+    }
+    Long id = findLot(ticker, datePurchased);
+    Ledger recorded = record(new PortfolioEvent(PortfolioEvent.Type.BUY, ticker, quantity,
+            datePurchased, costBasis, null));
+    if (id != null) {
+      Stock old = stocks.get(id);
+      Stock updated = new Stock(old.getTicker(),
+              FixedPoint.fromMicros(old.getMicroShares() + FixedPoint.toMicros(quantity)),
+              old.getDatePurchased(), Double.isNaN(old.getCostBasis()) ? costBasis
+              : old.getCostBasis());
+      return new Portfolio(stocks.put(id, updated), nextId, this.name,
+              lots.put(old.getSymbol(), lots.get(old.getSymbol()).replace(old, id, updated)),
+              this.byDate, this.realized, recorded, this.date);
     } else {
-      Stock newStock = new Stock(ticker, quantity, datePurchased);
-      tempStocks.add(newStock);
-      tempPurchaseDate.add(datePurchased);
+      Stock newStock = new Stock(ticker, quantity, datePurchased, costBasis);
+      TaxLots tickerLots = lots.get(newStock.getSymbol());
+      tickerLots = tickerLots == null ? TaxLots.EMPTY : tickerLots;
+      return new Portfolio(stocks.put(nextId, newStock), nextId + 1, this.name,
+              lots.put(newStock.getSymbol(), tickerLots.with(nextId, newStock)),
+              byDate.put(dateKey(datePurchased, nextId), nextId), this.realized, recorded,
+              this.date);
     }
-    return new Portfolio(tempStocks, this.name, tempPurchaseDate);
   }
 
   @Override
   public IPortfolio removeStock(String ticker, double quantity, int stockIdx,
                                 boolean removeAll) {
-    List<Stock> tempStocks = new ArrayList<>(stocks);
-    List<String> tempPurchaseDate = new ArrayList<>(purchaseDates);
+    return removeStock(ticker, quantity, stockIdx, removeAll, null);
+  }
+
+  @Override
+  public IPortfolio removeStock(String ticker, double quantity, int stockIdx, boolean removeAll,
+                                String date) {
     int nonPartialStockIdx = 0;
 
     if (stockIdx == -1) {
@@ -78,17 +132,97 @@ public class Portfolio implements IPortfolio {
 
     if (quantity < 0) {
       throw new IllegalArgumentException("Quantity cannot be negative.");
-    } else if (tempStocks.get(nonPartialStockIdx).getQuantity() < quantity) {
+    }
+    Stock old = stocks.select(nonPartialStockIdx);
+    long id = stocks.keyAt(nonPartialStockIdx);
+    // without a date the shares are taken out as if they were never bought
+    String removedOn = date == null ? old.getDatePurchased() : date;
+    if (removedOn.compareTo(old.getDatePurchased()) < 0) {
+      throw new IllegalArgumentException("Shares cannot be removed before they were bought.");
+    }
+    long removed = FixedPoint.toMicros(quantity);
+    if (old.getMicroShares() < removed) {
       throw new IllegalArgumentException("Not enough shares to remove.");
-    } else if (nonPartialStockIdx == -1) {
-      throw new IllegalArgumentException("Stock is not in the portfolio.");
-    } else if (tempStocks.get(nonPartialStockIdx).getQuantity() > quantity) {
-      tempStocks.set(nonPartialStockIdx, tempStocks.get(nonPartialStockIdx).sellShares(quantity));
+    }
+    TaxLots tickerLots = lots.get(old.getSymbol());
+    Ledger recorded = record(new PortfolioEvent(PortfolioEvent.Type.REMOVE, old.getTicker(),
+            quantity, removedOn, Double.NaN, null, old.getDatePurchased()));
+    if (old.getMicroShares() > removed) {
+      Stock updated = old.sellShares(quantity);
+      return new Portfolio(stocks.put(id, updated), nextId, this.name,
+              lots.put(old.getSymbol(), tickerLots.replace(old, id, updated)), this.byDate,
+              this.realized, recorded, this.date);
     } else {
-      tempStocks.remove(nonPartialStockIdx);
-      tempPurchaseDate.remove(nonPartialStockIdx);
+      return new Portfolio(stocks.remove(id), nextId, this.name,
+              putLots(lots, old.getSymbol(), tickerLots.without(old)),
+              byDate.remove(dateKey(old.getDatePurchased(), id)), this.realized, recorded,
+              this.date);
+    }
+  }
+
+  @Override
+  public IPortfolio sellStock(String ticker, double quantity, String date, double salePrice,
+                              LotMethod method) {
+    if (quantity < 0) {
+      throw new IllegalArgumentException("Quantity cannot be negative.");
+    }
+    PersistentTree<Long, Stock> tempStocks = stocks;
+    PersistentTree<Long, Long> tempByDate = byDate;
+    PersistentTree<Integer, RealizedGain> tempRealized = realized;
+    int symbol = Symbols.find(ticker);
+    TaxLots tickerLots = lots.get(symbol);
+    tickerLots = tickerLots == null ? TaxLots.EMPTY : tickerLots;
+    long remaining = FixedPoint.toMicros(quantity);
+    while (remaining > 0) {
+      Long id = tickerLots.select(method, date);
+      if (id == null) {
+        throw new IllegalArgumentException("Not enough shares to remove.");
+      }
+      Stock lot = tempStocks.get(id);
+      long sold = Math.min(remaining, lot.getMicroShares());
+      tempRealized = tempRealized.put(tempRealized.size(), new RealizedGain(ticker,
+              FixedPoint.fromMicros(sold), lot.getDatePurchased(), date, lot.getCostBasis(),
+              salePrice));
+      if (sold < lot.getMicroShares()) {
+        Stock updated = lot.sellShares(FixedPoint.fromMicros(sold));
+        tempStocks = tempStocks.put(id, updated);
+        tickerLots = tickerLots.replace(lot, id, updated);
+      } else {
+        tempStocks = tempStocks.remove(id);
+        tempByDate = tempByDate.remove(dateKey(lot.getDatePurchased(), id));
+        tickerLots = tickerLots.without(lot);
+      }
+      remaining -= sold;
+    }
+    return new Portfolio(tempStocks, nextId, this.name, putLots(lots, symbol, tickerLots),
+            tempByDate, tempRealized, record(new PortfolioEvent(PortfolioEvent.Type.SELL, ticker,
+            quantity, date, salePrice, method)), this.date);
+  }
+
+  @Override
+  public List<RealizedGain> getRealizedGains(String date) {
+    List<RealizedGain> output = new ArrayList<>();
+    for (RealizedGain gain : realized) {
+      if (gain.getDateSold().compareTo(date) <= 0) {
+        output.add(gain);
+      }
     }
-    return new Portfolio(tempStocks, this.name, tempPurchaseDate);
+    return Collections.unmodifiableList(output);
+  }
+
+  @Override
+  public IPortfolio holdingsOn(String date) {
+    return ledger.allOnOrBefore(date) ? this : ledger.replay(date, new Portfolio(name));
+  }
+
+  @Override
+  public List<PortfolioEvent> getHistory() {
+    return Collections.unmodifiableList(ledger.events(0));
+  }
+
+  @Override
+  public List<PortfolioEvent> getHistory(int from) {
+    return Collections.unmodifiableList(ledger.events(from));
   }
 
   @Override
@@ -96,7 +230,17 @@ public class Portfolio implements IPortfolio {
     if (this.stocks.isEmpty() || this.stocks.size() < index || index < 0) {
       throw new IllegalArgumentException("Index is not valid");
     }
-    return this.stocks.get(index);
+    return this.stocks.select(index);
+  }
+
+  @Override
+  public LotColumns getColumns() {
+    LotColumns result = columns;
+    if (result == null) {
+      result = LotColumns.of(stocks, stocks.size());
+      columns = result;
+    }
+    return result;
   }
 
   @Override
@@ -119,9 +263,9 @@ public class Portfolio implements IPortfolio {
       output += "There are no stocks in the portfolio for the date inputted. Please try again.\n";
     } else {
       for (int i = 0; i < indexes.size(); i++) {
-        output += stocks.get(indexes.get(i)).getTicker() + ": " +
-                stocks.get(indexes.get(i)).getQuantity() + "" +
-                " shares purchased " + stocks.get(indexes.get(i)).getDatePurchased() + "\n";
+        Stock stock = stocks.select(indexes.get(i));
+        output += stock.getTicker() + ": " + stock.getQuantity() + "" +
+                " shares purchased " + stock.getDatePurchased() + "\n";
       }
     }
     return output;
@@ -129,25 +273,19 @@ public class Portfolio implements IPortfolio {
 
   @Override
   public boolean containsTicker(String ticker) {
-    for (Stock stock : stocks) {
-      if (stock.getTicker().equals(ticker)) {
-        return true;
-      }
-    }
-    return false;
+    return lots.get(Symbols.find(ticker)) != null;
   }
 
   @Override
   public List<Integer> getIndexes(String ticker, String date) {
-    LocalDate sellDate = LocalDate.parse(date);
+    LocalDate.parse(date);
     List<Integer> indexes = new ArrayList<>();
-    for (int i = 0; i < stocks.size(); i++) {
-      Stock currStock = stocks.get(i);
-      LocalDate purchaseDate = LocalDate.parse(stocks.get(i).getDatePurchased());
-      if ((currStock.getTicker().equals(ticker)) &&
-              (purchaseDate.isBefore(sellDate) || currStock.getDatePurchased().equals(date))) {
-        indexes.add(i);
+    TaxLots tickerLots = lots.get(Symbols.find(ticker));
+    if (tickerLots != null) {
+      for (long id : tickerLots.idsThrough(date)) {
+        indexes.add(stocks.rank(id));
       }
+      Collections.sort(indexes);
     }
     return indexes;
   }
@@ -157,8 +295,9 @@ public class Portfolio implements IPortfolio {
     String output = "";
     int choiceNum = 1;
     for (int index : getIndexes(ticker, date)) {
-      output += choiceNum + ") " + ticker + ": " + stocks.get(index).getQuantity() + " shares" +
-              " purchased on " + stocks.get(index).getDatePurchased() + "\n";
+      Stock stock = stocks.select(index);
+      output += choiceNum + ") " + ticker + ": " + stock.getQuantity() + " shares" +
+              " purchased on " + stock.getDatePurchased() + "\n";
       choiceNum++;
     }
     return output;
@@ -166,40 +305,30 @@ public class Portfolio implements IPortfolio {
 
   @Override
   public double getTotalShares(String ticker, String date) {
-    double totalShares = 0;
-    for (int index : getIndexes(ticker, date)) {
-      totalShares += stocks.get(index).getQuantity();
-    }
-    return totalShares;
+    TaxLots tickerLots = lots.get(Symbols.find(ticker));
+    return tickerLots == null ? 0 : tickerLots.sharesThrough(date);
   }
 
   @Override
   public List<Stock> distributionOfValue(String date) {
-    List<Integer> indexes = new ArrayList<>(getStocksDateConstraint(date));
-    List<String> tempStocks = new ArrayList<>();
-    List<Double> tempQuantities = new ArrayList<>();
-    List<Stock> stocksInPortfolio = new ArrayList<>();
-    for (int i = 0; i < indexes.size(); i++) {
-      String currStock = stocks.get(indexes.get(i)).getTicker();
-      double currQuantity = stocks.get(indexes.get(i)).getQuantity();
-      if (tempStocks.contains(currStock)) {
-        int stockIdx = tempStocks.indexOf(currStock);
-        tempQuantities.set(stockIdx, tempQuantities.get(stockIdx) + currQuantity);
-      } else {
-        tempStocks.add(currStock);
-        tempQuantities.add(currQuantity);
-      }
+    List<Stock> cached;
+    synchronized (distributions) {
+      cached = distributions.get(date);
     }
-
-    for (int j = 0; j < tempStocks.size(); j++) {
-      stocksInPortfolio.add(new Stock(tempStocks.get(j), tempQuantities.get(j), ""));
+    if (cached == null) {
+      // shares sold after the date were still held on it
+      IPortfolio state = holdingsOn(date);
+      cached = state == this ? aggregateHoldings(date) : state.distributionOfValue(date);
+      synchronized (distributions) {
+        distributions.put(date, cached);
+      }
     }
-    return stocksInPortfolio;
+    return new ArrayList<>(cached);
   }
 
   @Override
-  public void setDate(String date) {
-    this.date = date;
+  public IPortfolio withDate(String date) {
+    return new Portfolio(stocks, nextId, name, lots, byDate, realized, ledger, date);
   }
 
   @Override
@@ -211,25 +340,77 @@ public class Portfolio implements IPortfolio {
 
   // puts all the stocks that are before or on the specified date in a list
   private List<Integer> getStocksDateConstraint(String date) {
-    LocalDate requestedDate = LocalDate.parse(date);
     List<Integer> indexes = new ArrayList<>();
-    for (int i = 0; i < purchaseDates.size(); i++) {
-      String stockDate = stocks.get(i).getDatePurchased();
-      LocalDate stockPurchaseDate = LocalDate.parse(stockDate);
-      if (stockPurchaseDate.isBefore(requestedDate) || stockDate.equalsIgnoreCase(date)) {
-        indexes.add(i);
-      }
+    for (long id : byDate.headValues(dateKey(date, LAST_ID))) {
+      indexes.add(stocks.rank(id));
     }
+    Collections.sort(indexes);
     return indexes;
   }
 
+  // adds up the shares of each ticker held on the date in one pass over the lot columns,
+  // listing the tickers in the order they were first added
+  private List<Stock> aggregateHoldings(String date) {
+    LotColumns lotColumns = getColumns();
+    int day = (int) LocalDate.parse(date).toEpochDay();
+    // the position of each ticker id in the result, or -1 before its first lot by the day
+    int[] slots = new int[lotColumns.getTickerCount()];
+    Arrays.fill(slots, -1);
+    int[] tickerIds = new int[slots.length];
+    long[] quantities = new long[slots.length];
+    int count = 0;
+    for (int i = 0; i < lotColumns.size(); i++) {
+      if (lotColumns.getEpochDay(i) > day) {
+        continue;
+      }
+      int tickerId = lotColumns.getTickerId(i);
+      if (slots[tickerId] == -1) {
+        slots[tickerId] = count;
+        tickerIds[count++] = tickerId;
+      }
+      quantities[slots[tickerId]] += lotColumns.getMicroShares(i);
+    }
+
+    List<Stock> stocksInPortfolio = new ArrayList<>(count);
+    for (int j = 0; j < count; j++) {
+      stocksInPortfolio.add(new Stock(lotColumns.getTicker(tickerIds[j]),
+              FixedPoint.fromMicros(quantities[j]), ""));
+    }
+    return stocksInPortfolio;
+  }
+
+  // sorts lots by purchase day and then by id, which fits in the low 32 bits
+  private static long dateKey(String date, long id) {
+    return LocalDate.parse(date).toEpochDay() << 32 | id;
+  }
+
+  // adds the event to the ledger, which may keep this portfolio as a snapshot
+  private Ledger record(PortfolioEvent event) {
+    return ledger.record(event, () -> new Portfolio(stocks, nextId, name, lots, byDate, realized,
+            ledger, date));
+  }
+
+  // stores a stock's lots, dropping the stock once it has none left
+  private static PersistentTree<Integer, TaxLots> putLots(PersistentTree<Integer, TaxLots> lots,
+                                                          int symbol, TaxLots tickerLots) {
+    return tickerLots.isEmpty() ? lots.remove(symbol) : lots.put(symbol, tickerLots);
+  }
+
   // gets the index of the stock in the portfolio's list of stocks using the ticker symbol
   private int getIndex(String ticker) {
-    for (int i = 0; i < stocks.size(); i++) {
-      if (stocks.get(i).getTicker().equals(ticker)) {
-        return i;
+    TaxLots tickerLots = lots.get(Symbols.find(ticker));
+    return tickerLots == null ? -1 : stocks.rank(tickerLots.firstId());
+  }
+
+  // finds the id of the lot bought on the date under any capitalization of the ticker, or null
+  private Long findLot(String ticker, String date) {
+    for (int symbol : Symbols.spellings(ticker)) {
+      TaxLots tickerLots = lots.get(symbol);
+      Long id = tickerLots == null ? null : tickerLots.find(date);
+      if (id != null) {
+        return id;
       }
     }
-    return -1;
+    return null;
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
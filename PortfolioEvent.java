@@ -0,0 +1,169 @@
+/**
+ * Represents one transaction on a portfolio: shares bought, shares removed from a purchase, or
+ * shares sold. Every Portfolio keeps the events that built it, so its holdings on any past date
+ * can be rebuilt by applying them again. A PortfolioEvent is never modified after it is
+ * constructed.
+ */
+public final class PortfolioEvent {
+
+  /**
+   * The kinds of transaction a portfolio records.
+   */
+  public enum Type {
+    /** Shares bought on the event's date. */
+    BUY,
+    /**
+     * Shares taken out of one purchase on the event's date. When that is the purchase date the
+     * shares count as never bought; otherwise they were held until the event's date.
+     */
+    REMOVE,
+    /** Shares sold on the event's date. */
+    SELL
+  }
+
+  private final Type type;
+  private final String ticker;
+  private final double quantity;
+  private final String date;
+  private final double price;
+  private final LotMethod method;
+  private final String lotDate;
+
+  /**
+   * Constructs a PortfolioEvent object.
+   *
+   * @param type     the Type of transaction.
+   * @param ticker   a String representing the ticker symbol of the stock.
+   * @param quantity a double representing the number of shares.
+   * @param date     a String representing the date the event takes effect as YYYY-MM-DD: the
+   *                 purchase date for BUY and REMOVE and the sale date for SELL.
+   * @param price    a double representing the price per share paid for BUY or received for
+   *                 SELL, or NaN if unknown.
+   * @param method   the LotMethod used by a SELL, or null for the other types.
+   */
+  public PortfolioEvent(Type type, String ticker, double quantity, String date, double price,
+                        LotMethod method) {
+    this(type, ticker, quantity, date, price, method, type == Type.REMOVE ? date : null);
+  }
+
+  /**
+   * Constructs a PortfolioEvent object for shares removed from a purchase after it was made.
+   *
+   * @param type     the Type of transaction.
+   * @param ticker   a String representing the ticker symbol of the stock.
+   * @param quantity a double representing the number of shares.
+   * @param date     a String representing the date the event takes effect as YYYY-MM-DD.
+   * @param price    a double representing the price per share, or NaN if unknown.
+   * @param method   the LotMethod used by a SELL, or null for the other types.
+   * @param lotDate  a String representing the purchase date of the shares a REMOVE takes, or
+   *                 null for the other types.
+   */
+  public PortfolioEvent(Type type, String ticker, double quantity, String date, double price,
+                        LotMethod method, String lotDate) {
+    this.type = type;
+    this.ticker = ticker;
+    this.quantity = quantity;
+    this.date = date;
+    this.price = price;
+    this.method = method;
+    this.lotDate = lotDate;
+  }
+
+  /**
+   * Applies the transaction to a portfolio.
+   *
+   * @param portfolio the IPortfolio to apply the event to.
+   * @return a new IPortfolio with the transaction made.
+   * @throws IllegalArgumentException if the portfolio does not hold the shares to remove or sell.
+   */
+  public IPortfolio applyTo(IPortfolio portfolio) {
+    switch (type) {
+      case BUY:
+        return portfolio.addStock(ticker, quantity, date, price);
+      case SELL:
+        return portfolio.sellStock(ticker, quantity, date, price, method);
+      default:
+        for (int index : portfolio.getIndexes(ticker, lotDate)) {
+          if (portfolio.getStock(index).getDatePurchased().equals(lotDate)) {
+            return portfolio.removeStock(ticker, quantity, index, false, date);
+          }
+        }
+        throw new IllegalArgumentException("Stock is not in the portfolio.");
+    }
+  }
+
+  /**
+   * Gets the kind of transaction.
+   *
+   * @return the Type of the event.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the ticker of the stock traded.
+   *
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets the number of shares traded.
+   *
+   * @return a double with the number of shares.
+   */
+  public double getQuantity() {
+    return quantity;
+  }
+
+  /**
+   * Gets the date the event takes effect.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate() {
+    return date;
+  }
+
+  /**
+   * Gets the price per share of the trade.
+   *
+   * @return a double with the price, or NaN if unknown.
+   */
+  public double getPrice() {
+    return price;
+  }
+
+  /**
+   * Gets the purchase date of the shares a REMOVE took.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD', or null for the other types.
+   */
+  public String getLotDate() {
+    return lotDate;
+  }
+
+  /**
+   * Gets the lot method a sale used.
+   *
+   * @return the LotMethod of a SELL, or null for the other types.
+   */
+  public LotMethod getMethod() {
+    return method;
+  }
+
+  @Override
+  public String toString() {
+    String output = date + " " + type + " " + quantity + " " + ticker;
+    if (!Double.isNaN(price)) {
+      output += " at " + String.format("%.2f", price);
+    }
+    if (lotDate != null && !lotDate.equals(date)) {
+      output += " bought " + lotDate;
+    }
+    return method == null ? output : output + " (" + method + ")";
+  }
+}
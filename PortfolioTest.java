@@ -1,7 +1,9 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -599,17 +601,260 @@ public class PortfolioTest {
   }
 
   /**
-   * Tests setting a date.
+   * Tests setting a date, which later versions of the portfolio keep.
    */
   @Test
-  public void testSetDate() {
+  public void testWithDate() {
     String actual1 = p1.getDate();
     assertEquals("", actual1);
 
-    p1.setDate("Test");
-    String actual2 = p1.getDate();
-    assertEquals("Test", actual2);
+    IPortfolio dated = p1.withDate("Test");
+    assertEquals("", p1.getDate());
+    assertEquals("Test", dated.getDate());
+    assertEquals("Test", dated.addStock("GOOG", 1, "2024-01-01").getDate());
   }
-}
 
+  // a portfolio with three purchases of GOOG at different costs
+  private IPortfolio threeLots() {
+    return p1.addStock("GOOG", 10, "2024-01-02", 100)
+            .addStock("GOOG", 10, "2024-02-01", 150)
+            .addStock("AAPL", 5, "2024-02-15", 180)
+            .addStock("GOOG", 10, "2024-03-01", 120);
+  }
 
+  /**
+   * Tests that FIFO sells the oldest purchase first and records the gain on each purchase.
+   */
+  @Test
+  public void testSellFifo() {
+    IPortfolio p = threeLots().sellStock("GOOG", 15, "2024-04-01", 200, LotMethod.FIFO);
+    assertEquals(3, p.getStockListSize());
+    assertEquals("2024-02-01", p.getStock(0).getDatePurchased());
+    assertEquals(5.0, p.getStock(0).getQuantity(), 0.01);
+    List<RealizedGain> gains = p.getRealizedGains("2024-04-01");
+    assertEquals(2, gains.size());
+    assertEquals(1000.0, gains.get(0).getGain(), 0.01);
+    assertEquals(250.0, gains.get(1).getGain(), 0.01);
+    assertEquals(0, p.getRealizedGains("2024-03-31").size());
+  }
+
+  /**
+   * Tests that LIFO only sells from purchases made on or before the sale date.
+   */
+  @Test
+  public void testSellLifo() {
+    IPortfolio p = threeLots().sellStock("GOOG", 5, "2024-02-20", 200, LotMethod.LIFO);
+    assertEquals(5.0, p.getStock(1).getQuantity(), 0.01);
+    assertEquals("2024-02-01", p.getStock(1).getDatePurchased());
+    assertEquals(10.0, p.getStock(3).getQuantity(), 0.01);
+  }
+
+  /**
+   * Tests that the most expensive purchase is sold first.
+   */
+  @Test
+  public void testSellHighestCost() {
+    IPortfolio p = threeLots().sellStock("GOOG", 12, "2024-04-01", 200,
+            LotMethod.HIGHEST_COST);
+    assertEquals(3, p.getStockListSize());
+    assertEquals(10.0, p.getStock(0).getQuantity(), 0.01);
+    assertEquals(8.0, p.getStock(2).getQuantity(), 0.01);
+    assertEquals(120.0, p.getStock(2).getCostBasis(), 0.01);
+    assertEquals(500.0 + 160.0, p.getRealizedGains("2024-04-01").get(0).getGain()
+            + p.getRealizedGains("2024-04-01").get(1).getGain(), 0.01);
+  }
+
+  /**
+   * Tests that selling more shares than were bought by the sale date is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSellTooMany() {
+    threeLots().sellStock("GOOG", 25, "2024-02-20", 200, LotMethod.FIFO);
+  }
+
+  /**
+   * Tests that lots removed by index are no longer offered for sale.
+   */
+  @Test
+  public void testSellAfterRemove() {
+    IPortfolio p = threeLots().removeStock("GOOG", 10, 0, true)
+            .sellStock("GOOG", 10, "2024-04-01", 200, LotMethod.FIFO);
+    assertEquals(2, p.getStockListSize());
+    assertEquals("AAPL", p.getStock(0).getTicker());
+    assertEquals(50.0 * 10, p.getRealizedGains("2024-04-01").get(0).getGain(), 0.01);
+  }
+
+  /**
+   * Tests importing a long history, one lot per day, and selling it back down.
+   */
+  @Test
+  public void testLargeImport() {
+    IPortfolio p = p1;
+    LocalDate day = LocalDate.parse("1990-01-01");
+    for (int i = 0; i < 50000; i++) {
+      p = p.addStock(i % 2 == 0 ? "GOOG" : "AAPL", 1, day.plusDays(i / 2).toString(), 100);
+    }
+    assertEquals(50000, p.getStockListSize());
+    IPortfolio sold = p.sellStock("GOOG", 20000, "2100-01-01", 150, LotMethod.FIFO);
+    assertEquals(30000, sold.getStockListSize());
+    assertEquals("AAPL", sold.getStock(0).getTicker());
+    assertEquals("GOOG", sold.getStock(20000).getTicker());
+    assertEquals(50000, p.getStockListSize());
+  }
+
+  /**
+   * Tests that lots bought out of date order are still listed in the order they were added,
+   * and that the shares held are counted up to the date.
+   */
+  @Test
+  public void testTickerIndexOutOfDateOrder() {
+    IPortfolio p = p1.addStock("GOOG", 5, "2024-03-01")
+            .addStock("AAPL", 1, "2024-01-01")
+            .addStock("GOOG", 7, "2024-01-15")
+            .addStock("GOOG", 11, "2024-02-01");
+    assertEquals(Arrays.asList(2, 3), p.getIndexes("GOOG", "2024-02-01"));
+    assertEquals(Arrays.asList(0, 2, 3), p.getIndexes("GOOG", "2024-03-01"));
+    assertEquals(18.0, p.getTotalShares("GOOG", "2024-02-29"), 0.01);
+    assertEquals(0.0, p.getTotalShares("GOOG", "2024-01-14"), 0.01);
+    assertEquals(0.0, p.getTotalShares("MSFT", "2024-03-01"), 0.01);
+    IPortfolio removed = p.removeStock("GOOG", 5, -1, true);
+    assertEquals(3, removed.getStockListSize());
+    assertEquals("AAPL", removed.getStock(0).getTicker());
+  }
+
+  /**
+   * Tests that tickers are matched exactly, while a purchase on the same day under another
+   * capitalization is still merged into the existing lot.
+   */
+  @Test
+  public void testTickerIndexCase() {
+    IPortfolio p = p1.addStock("GOOG", 5, "2024-03-01").addStock("goog", 2, "2024-03-01")
+            .addStock("goog", 4, "2024-04-01");
+    assertEquals(2, p.getStockListSize());
+    assertEquals(7.0, p.getStock(0).getQuantity(), 0.01);
+    assertTrue(p.containsTicker("GOOG"));
+    assertTrue(p.containsTicker("goog"));
+    assertFalse(p.containsTicker("Goog"));
+    assertEquals(7.0, p.getTotalShares("GOOG", "2024-05-01"), 0.01);
+    assertEquals(Arrays.asList(1), p.getIndexes("goog", "2024-05-01"));
+  }
+
+  /**
+   * Tests that the lots held on a date are found through the date index, in the order they
+   * were added, and that sold lots drop out of it.
+   */
+  @Test
+  public void testDateIndex() {
+    IPortfolio p = p1.addStock("GOOG", 5, "2024-03-01")
+            .addStock("AAPL", 1, "1969-12-31")
+            .addStock("MSFT", 7, "2024-01-15")
+            .addStock("GOOG", 11, "2024-01-15");
+    assertEquals("Portfolio Name: Portfolio 1\n"
+            + "AAPL: 1.0 shares purchased 1969-12-31\n"
+            + "MSFT: 7.0 shares purchased 2024-01-15\n"
+            + "GOOG: 11.0 shares purchased 2024-01-15\n", p.getOrganizedPortfolio("2024-02-01"));
+    IPortfolio sold = p.sellStock("GOOG", 11, "2024-02-01", 100, LotMethod.FIFO);
+    List<Stock> held = sold.distributionOfValue("2024-03-01");
+    assertEquals(3, held.size());
+    assertEquals("GOOG", held.get(0).getTicker());
+    assertEquals(5.0, held.get(0).getQuantity(), 0.01);
+    assertEquals(2, sold.distributionOfValue("2024-02-01").size());
+  }
+
+  /**
+   * Tests that holdings worked out for a date are reused without the caller being able to
+   * change them, and that a new version of the portfolio works them out again.
+   */
+  @Test
+  public void testDistributionCached() {
+    IPortfolio p = p1.addStock("GOOG", 5, "2024-01-01").addStock("AAPL", 2, "2024-01-02")
+            .addStock("GOOG", 3, "2024-01-03");
+    List<Stock> first = p.distributionOfValue("2024-02-01");
+    first.clear();
+    List<Stock> again = p.distributionOfValue("2024-02-01");
+    assertEquals(2, again.size());
+    assertEquals("GOOG", again.get(0).getTicker());
+    assertEquals(8.0, again.get(0).getQuantity(), 0.01);
+    IPortfolio more = p.addStock("AAPL", 4, "2024-01-05");
+    assertEquals(6.0, more.distributionOfValue("2024-02-01").get(1).getQuantity(), 0.01);
+    assertEquals(2.0, p.distributionOfValue("2024-02-01").get(1).getQuantity(), 0.01);
+  }
+
+  /**
+   * Tests that the holdings on past dates still count shares sold later, across many snapshots,
+   * and that a purchase entered out of date order is counted from its own date.
+   */
+  @Test
+  public void testHoldingsOnPastDates() {
+    LocalDate start = LocalDate.parse("2024-01-01");
+    IPortfolio p = p1;
+    double[] expected = new double[200];
+    double held = 0;
+    for (int day = 0; day < 200; day++) {
+      p = p.addStock("GOOG", 3, start.plusDays(day).toString(), 100);
+      held += 3;
+      if (day % 7 == 6) {
+        p = p.sellStock("GOOG", 10, start.plusDays(day).toString(), 120, LotMethod.FIFO);
+        held -= 10;
+      }
+      expected[day] = held;
+    }
+    p = p.addStock("AAPL", 5, start.plusDays(50).toString());
+    assertEquals(200 + 200 / 7 + 1, p.getHistory().size());
+    for (int day = 0; day < 200; day++) {
+      String date = start.plusDays(day).toString();
+      assertEquals(expected[day], p.holdingsOn(date).getTotalShares("GOOG", date), 1e-9);
+      assertEquals(day < 50 ? 1 : 2, p.distributionOfValue(date).size());
+      assertEquals(expected[day], p.distributionOfValue(date).get(0).getQuantity(), 1e-9);
+    }
+    String last = start.plusDays(199).toString();
+    assertTrue(p == p.holdingsOn(last));
+    assertEquals(expected[199], p.getTotalShares("GOOG", last), 1e-9);
+  }
+
+  /**
+   * Tests that every transaction is recorded in order, with removals dated at the purchase.
+   */
+  @Test
+  public void testHistory() {
+    IPortfolio p = p1.addStock("GOOG", 5, "2024-01-01", 100)
+            .removeStock("GOOG", 2, 0, false)
+            .sellStock("GOOG", 1, "2024-02-01", 110, LotMethod.LIFO);
+    List<PortfolioEvent> history = p.getHistory();
+    assertEquals(3, history.size());
+    assertEquals("2024-01-01 BUY 5.0 GOOG at 100.00", history.get(0).toString());
+    assertEquals("2024-01-01 REMOVE 2.0 GOOG", history.get(1).toString());
+    assertEquals("2024-02-01 SELL 1.0 GOOG at 110.00 (LIFO)", history.get(2).toString());
+    assertEquals(3.0, p.holdingsOn("2024-01-31").getTotalShares("GOOG", "2024-01-31"), 1e-9);
+    assertEquals(0, p1.getHistory().size());
+  }
+
+  /**
+   * Tests that shares removed on a later date still count as held before it.
+   */
+  @Test
+  public void testDatedRemove() {
+    IPortfolio p = p1.addStock("AAPL", 10, "2024-01-01", 100)
+            .removeStock("AAPL", 10, -1, false, "2024-01-05");
+    assertEquals(0, p.getStockListSize());
+    assertEquals(1, p.distributionOfValue("2024-01-02").size());
+    assertEquals(10, p.distributionOfValue("2024-01-02").get(0).getQuantity(), 1e-9);
+    assertEquals(0, p.distributionOfValue("2024-01-05").size());
+    assertEquals("2024-01-05 REMOVE 10.0 AAPL bought 2024-01-01",
+            p.getHistory().get(1).toString());
+
+    p = p1.addStock("AAPL", 10, "2024-01-01", 100)
+            .removeStock("AAPL", 4, -1, false, "2024-01-05");
+    assertEquals(6, p.getTotalShares("AAPL", "2024-01-05"), 1e-9);
+    assertEquals(10, p.holdingsOn("2024-01-04").getTotalShares("AAPL", "2024-01-04"), 1e-9);
+  }
+
+  /**
+   * Tests that shares cannot be removed before the date they were bought.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveBeforePurchase() {
+    p1.addStock("AAPL", 10, "2024-01-05", 100)
+            .removeStock("AAPL", 4, -1, false, "2024-01-01");
+  }
+}
@@ -0,0 +1,205 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Represents the daily closing price history of a single stock held in primitive columns.
+ * The AlphaVantage CSV is parsed once into an array of epoch days and an array of closing
+ * prices, both sorted from the oldest trading day to the newest, so that lookups by date are
+ * a binary search and the statistics kernels can run straight over the price column.
+ * A PriceSeries is never modified after it is constructed.
+ */
+public final class PriceSeries {
+  private final String ticker;
+  private final int[] epochDays;
+  private final double[] closes;
+
+  /**
+   * Constructs a PriceSeries from columns that are already sorted from oldest to newest.
+   *
+   * @param ticker    a String representing the ticker symbol of the stock.
+   * @param epochDays an array of ints representing the trading days as epoch days.
+   * @param closes    an array of doubles representing the closing price on each trading day.
+   */
+  public PriceSeries(String ticker, int[] epochDays, double[] closes) {
+    if (epochDays.length != closes.length) {
+      throw new IllegalArgumentException("Dates and prices must be the same length.");
+    }
+    this.ticker = ticker;
+    this.epochDays = epochDays;
+    this.closes = closes;
+  }
+
+  /**
+   * Parses the CSV returned by the AlphaVantage API into a PriceSeries. Lines that are not
+   * price rows, like the header or an API error message, are skipped.
+   *
+   * @param ticker a String representing the ticker symbol of the stock.
+   * @param csv    a String containing all the data of the stock from the API.
+   * @return a PriceSeries with the closing prices sorted from oldest to newest.
+   */
+  public static PriceSeries fromCsv(String ticker, String csv) {
+    String[] lines = csv.split("\n");
+    int[] days = new int[lines.length];
+    double[] prices = new double[lines.length];
+    int count = 0;
+    for (String line : lines) {
+      String[] info = line.split(",");
+      if (info.length < 5 || info[0].length() != 10 || !Character.isDigit(info[0].charAt(0))) {
+        continue;
+      }
+      try {
+        days[count] = (int) LocalDate.parse(info[0]).toEpochDay();
+        prices[count] = Double.parseDouble(info[4]);
+        count++;
+      } catch (RuntimeException e) {
+        // not a price row
+      }
+    }
+
+    // the API lists the newest day first, the columns are kept oldest first
+    int[] sortedDays = new int[count];
+    double[] sortedPrices = new double[count];
+    boolean newestFirst = count > 1 && days[0] > days[count - 1];
+    for (int i = 0; i < count; i++) {
+      int from = newestFirst ? count - 1 - i : i;
+      sortedDays[i] = days[from];
+      sortedPrices[i] = prices[from];
+    }
+    return new PriceSeries(ticker, sortedDays, sortedPrices);
+  }
+
+  /**
+   * Gets the ticker of the stock this series belongs to.
+   *
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets the number of trading days in the series.
+   *
+   * @return an int representing the number of closing prices in the series.
+   */
+  public int size() {
+    return closes.length;
+  }
+
+  /**
+   * Gets the trading day at the specified position as an epoch day.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return an int representing the epoch day of the trading day.
+   */
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Gets the trading day at the specified position as a formatted date.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]).toString();
+  }
+
+  /**
+   * Gets the closing price at the specified position.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a double representing the closing price on that trading day.
+   */
+  public double getClose(int index) {
+    return closes[index];
+  }
+
+  /**
+   * Returns the closing price column. The array is shared with the series so that the
+   * statistics kernels can read it without copying and must not be modified.
+   *
+   * @return an array of doubles with the closing prices from oldest to newest.
+   */
+  double[] closeColumn() {
+    return closes;
+  }
+
+  /**
+   * Returns the trading day column. The array is shared with the series and must not be
+   * modified.
+   *
+   * @return an array of ints with the epoch days from oldest to newest.
+   */
+  int[] dayColumn() {
+    return epochDays;
+  }
+
+  /**
+   * Finds the position of the specified trading day using a binary search.
+   *
+   * @param epochDay an int representing the day to look for as an epoch day.
+   * @return the position of the day in the series, or -1 if there is no data on that day.
+   */
+  public int indexOf(int epochDay) {
+    int idx = indexAtOrBefore(epochDay);
+    if (idx >= 0 && epochDays[idx] == epochDay) {
+      return idx;
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the position of the last trading day on or before the specified day.
+   *
+   * @param epochDay an int representing the day to look for as an epoch day.
+   * @return the position of the last trading day on or before the day, or -1 if the day is
+   *          before the start of the series.
+   */
+  public int indexAtOrBefore(int epochDay) {
+    int low = 0;
+    int high = epochDays.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (epochDays[mid] <= epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Checks whether the market has closed since the last trading day in the series, meaning
+   * the last day is older than the latest weekday before the specified day.
+   *
+   * @param today an int representing the current day as an epoch day.
+   * @return true if a newer closing price may be available, false otherwise.
+   */
+  public boolean isBehind(int today) {
+    LocalDate lastClose = LocalDate.ofEpochDay(today).minusDays(1);
+    while (lastClose.getDayOfWeek() == DayOfWeek.SATURDAY
+            || lastClose.getDayOfWeek() == DayOfWeek.SUNDAY) {
+      lastClose = lastClose.minusDays(1);
+    }
+    return epochDays.length == 0 || epochDays[epochDays.length - 1] < lastClose.toEpochDay();
+  }
+
+  /**
+   * Gets the closing price of the stock at a specified date.
+   *
+   * @param formattedDate a String representing the specified date in YYYY-MM-DD format.
+   * @return a double representing the closing price of the stock at the specified date.
+   * @throws IllegalArgumentException if the stock has no data on the date.
+   */
+  public double closeOn(String formattedDate) {
+    int idx = indexOf((int) LocalDate.parse(formattedDate).toEpochDay());
+    if (idx == -1) {
+      throw new IllegalArgumentException("No data found for " + ticker + " on the date: " +
+              formattedDate);
+    }
+    return closes[idx];
+  }
+}
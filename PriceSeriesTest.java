@@ -0,0 +1,91 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the PriceSeries class.
+ */
+public class PriceSeriesTest {
+  private PriceSeries series;
+
+  /**
+   * Parses a small CSV in the same newest-first layout the API returns. Called before every
+   * test method.
+   */
+  @Before
+  public void setUp() {
+    String csv = "timestamp,open,high,low,close,volume\r\n"
+            + "2024-06-07,1,1,1,175.50,100\r\n"
+            + "2024-06-06,1,1,1,176.25,100\r\n"
+            + "2024-06-05,1,1,1,177.00,100\r\n"
+            + "2024-06-03,1,1,1,174.00,100\r\n";
+    series = PriceSeries.fromCsv("GOOG", csv);
+  }
+
+  /**
+   * Tests that the rows are parsed and sorted from oldest to newest.
+   */
+  @Test
+  public void testParseOrder() {
+    assertEquals(4, series.size());
+    assertEquals("GOOG", series.getTicker());
+    assertEquals("2024-06-03", series.getDate(0));
+    assertEquals("2024-06-07", series.getDate(3));
+    assertEquals(174.00, series.getClose(0), 0.001);
+    assertEquals(175.50, series.getClose(3), 0.001);
+  }
+
+  /**
+   * Tests getting the closing price on a date.
+   */
+  @Test
+  public void testCloseOn() {
+    assertEquals(177.00, series.closeOn("2024-06-05"), 0.001);
+  }
+
+  /**
+   * Tests getting the closing price on a date the market was closed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCloseOnMissingDate() {
+    series.closeOn("2024-06-04");
+  }
+
+  /**
+   * Tests finding the last trading day on or before a date.
+   */
+  @Test
+  public void testIndexAtOrBefore() {
+    int june4 = (int) java.time.LocalDate.parse("2024-06-04").toEpochDay();
+    assertEquals(0, series.indexAtOrBefore(june4));
+    assertEquals(-1, series.indexOf(june4));
+    assertEquals(-1, series.indexAtOrBefore(june4 - 30));
+    assertEquals(3, series.indexAtOrBefore(june4 + 30));
+  }
+
+  /**
+   * Tests that an API error message produces an empty series.
+   */
+  @Test
+  public void testParseErrorMessage() {
+    PriceSeries empty = PriceSeries.fromCsv("GOOG", "{\n \"Information\": \"limit\"\n}");
+    assertEquals(0, empty.size());
+  }
+
+  /**
+   * Tests that a series is only behind once a weekday has closed after its last day.
+   */
+  @Test
+  public void testIsBehind() {
+    // the last day of the series is Friday 2024-06-07
+    int friday = series.getEpochDay(series.size() - 1);
+    assertFalse(series.isBehind(friday));
+    assertFalse(series.isBehind(friday + 1));
+    assertFalse(series.isBehind(friday + 3));
+    assertTrue(series.isBehind(friday + 4));
+    assertTrue(new PriceSeries("GOOG", new int[0], new double[0]).isBehind(friday));
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Represents the shares of one purchase lot that were sold, along with what they cost and what
+ * they sold for. A RealizedGain is never modified after it is constructed.
+ */
+public final class RealizedGain {
+  private final String ticker;
+  private final double quantity;
+  private final String datePurchased;
+  private final String dateSold;
+  private final double costBasis;
+  private final double salePrice;
+
+  /**
+   * Constructs a RealizedGain object.
+   *
+   * @param ticker        a String representing the ticker symbol of the stock.
+   * @param quantity      a double representing the number of shares sold from the lot.
+   * @param datePurchased a String representing the date the lot was bought as YYYY-MM-DD.
+   * @param dateSold      a String representing the date the shares were sold as YYYY-MM-DD.
+   * @param costBasis     a double representing the price paid per share, or NaN if unknown.
+   * @param salePrice     a double representing the price received per share.
+   */
+  public RealizedGain(String ticker, double quantity, String datePurchased, String dateSold,
+                      double costBasis, double salePrice) {
+    this.ticker = ticker;
+    this.quantity = quantity;
+    this.datePurchased = datePurchased;
+    this.dateSold = dateSold;
+    this.costBasis = costBasis;
+    this.salePrice = salePrice;
+  }
+
+  /**
+   * Gets the ticker of the stock that was sold.
+   *
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets the number of shares sold from the lot.
+   *
+   * @return a double with the number of shares.
+   */
+  public double getQuantity() {
+    return quantity;
+  }
+
+  /**
+   * Gets the date the lot was bought.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDatePurchased() {
+    return datePurchased;
+  }
+
+  /**
+   * Gets the date the shares were sold.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDateSold() {
+    return dateSold;
+  }
+
+  /**
+   * Gets the price paid for each share sold.
+   *
+   * @return a double with the cost per share, or NaN if the cost was not recorded.
+   */
+  public double getCostBasis() {
+    return costBasis;
+  }
+
+  /**
+   * Gets the price received for each share sold.
+   *
+   * @return a double with the sale price per share.
+   */
+  public double getSalePrice() {
+    return salePrice;
+  }
+
+  /**
+   * Gets the profit or loss made on the sale.
+   *
+   * @return a double with the sale proceeds minus the cost, or NaN if the cost is unknown.
+   */
+  public double getGain() {
+    return quantity * (salePrice - costBasis);
+  }
+
+  @Override
+  public String toString() {
+    return ticker + ": " + quantity + " shares purchased " + datePurchased + " sold "
+            + dateSold + " for a gain of " + String.format("%.2f", getGain());
+  }
+}
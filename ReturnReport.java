@@ -0,0 +1,144 @@
+/**
+ * Reports the time-weighted and money-weighted returns of a portfolio over any part of a date
+ * range. The portfolio is valued once per trading day when the ValueSeries is built, and the
+ * daily returns are chained into a growth index when the report is constructed, so the
+ * time-weighted return of any sub-period is a single division and the money-weighted return
+ * only has to solve for the rate of the flows inside the sub-period.
+ *
+ * <p>The time-weighted return measures how the holdings performed regardless of when money was
+ * added. The money-weighted return is the internal rate of return of the money added, which
+ * also rewards buying before good days.
+ */
+public final class ReturnReport {
+  private final ValueSeries series;
+  private final double[] growth;
+
+  /**
+   * Constructs a ReturnReport object.
+   *
+   * @param series a ValueSeries representing the portfolio's daily values and contributions.
+   * @throws IllegalArgumentException if the series has no trading days.
+   */
+  public ReturnReport(ValueSeries series) {
+    if (series.size() == 0) {
+      throw new IllegalArgumentException("No data found for the portfolio in the date range.");
+    }
+    this.series = series;
+    this.growth = new double[series.size()];
+    growth[0] = 1;
+    for (int i = 1; i < growth.length; i++) {
+      double r = series.returnAt(i);
+      growth[i] = Double.isNaN(r) ? growth[i - 1] : growth[i - 1] * (1 + r);
+    }
+  }
+
+  /**
+   * Gets the daily value series the report was built from.
+   *
+   * @return the ValueSeries of the portfolio.
+   */
+  public ValueSeries getSeries() {
+    return series;
+  }
+
+  /**
+   * Computes the time-weighted return between two days of the range, chaining the daily
+   * returns so that money added along the way does not count as a gain.
+   *
+   * @param startDay an int representing the first day as an epoch day.
+   * @param endDay   an int representing the last day as an epoch day.
+   * @return a double with the return as a fraction, so 0.1 is 10%.
+   * @throws IllegalArgumentException if the days are not in order or the range has no data.
+   */
+  public double timeWeightedReturn(int startDay, int endDay) {
+    int[] bounds = bounds(startDay, endDay);
+    return growth[bounds[1]] / growth[bounds[0]] - 1;
+  }
+
+  /**
+   * Computes the time-weighted return between two days of the range as a yearly rate.
+   *
+   * @param startDay an int representing the first day as an epoch day.
+   * @param endDay   an int representing the last day as an epoch day.
+   * @return a double with the annual rate, so 0.1 is 10% a year.
+   * @throws IllegalArgumentException if the days are not in order or the range has no data.
+   */
+  public double annualizedTimeWeightedReturn(int startDay, int endDay) {
+    int[] bounds = bounds(startDay, endDay);
+    int days = series.getEpochDay(bounds[1]) - series.getEpochDay(bounds[0]);
+    if (days == 0) {
+      return 0;
+    }
+    double total = growth[bounds[1]] / growth[bounds[0]];
+    return Math.pow(total, 365.0 / days) - 1;
+  }
+
+  /**
+   * Computes the money-weighted return between two days of the range, which is the yearly
+   * rate that the value at the start and the money added along the way would have had to
+   * earn to end at the final value.
+   *
+   * @param startDay an int representing the first day as an epoch day.
+   * @param endDay   an int representing the last day as an epoch day.
+   * @return a double with the annual rate, so 0.1 is 10% a year.
+   * @throws IllegalArgumentException if the days are not in order, the range has no data or
+   *                                  nothing was invested in the range.
+   */
+  public double moneyWeightedReturn(int startDay, int endDay) {
+    int[] bounds = bounds(startDay, endDay);
+    int from = bounds[0];
+    int to = bounds[1];
+    int count = 2;
+    for (int i = from + 1; i <= to; i++) {
+      if (series.getFlow(i) != 0) {
+        count++;
+      }
+    }
+    int[] days = new int[count];
+    double[] amounts = new double[count];
+    days[0] = series.getEpochDay(from);
+    amounts[0] = -series.getValue(from);
+    int next = 1;
+    for (int i = from + 1; i <= to; i++) {
+      if (series.getFlow(i) != 0) {
+        days[next] = series.getEpochDay(i);
+        amounts[next] = -series.getFlow(i);
+        next++;
+      }
+    }
+    days[next] = series.getEpochDay(to);
+    amounts[next] = series.getValue(to);
+    return IrrSolver.xirr(days, amounts);
+  }
+
+  // finds the first and last trading days of the series inside the range
+  private int[] bounds(int startDay, int endDay) {
+    if (endDay < startDay) {
+      throw new IllegalArgumentException("The start date must be before the end date.");
+    }
+    int from = series.indexAtOrBefore(startDay - 1) + 1;
+    int to = series.indexAtOrBefore(endDay);
+    if (to < from) {
+      throw new IllegalArgumentException("No data found for the portfolio in the date range.");
+    }
+    return new int[]{from, to};
+  }
+
+  @Override
+  public String toString() {
+    int first = series.getEpochDay(0);
+    int last = series.getEpochDay(series.size() - 1);
+    StringBuilder output = new StringBuilder("Returns of " + series.getName() + " from "
+            + series.getDate(0) + " to " + series.getDate(series.size() - 1) + ":\n");
+    output.append(String.format("Time-Weighted Return: %.2f%% (%.2f%% a year)\n",
+            timeWeightedReturn(first, last) * 100,
+            annualizedTimeWeightedReturn(first, last) * 100));
+    try {
+      output.append(String.format("Money-Weighted Return: %.2f%% a year",
+              moneyWeightedReturn(first, last) * 100));
+    } catch (IllegalArgumentException e) {
+      output.append("Money-Weighted Return: unavailable");
+    }
+    return output.toString();
+  }
+}
@@ -0,0 +1,123 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Holds all the tests for the ReturnReport and the IrrSolver it uses.
+ */
+public class ReturnReportTest {
+  private int start;
+  private Map<String, PriceSeries> prices;
+
+  /**
+   * Sets up a price history that doubles and then halves. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    int[] days = new int[3];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = start + 365 * i;
+    }
+    prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries("AAPL", days, new double[]{10, 20, 10}));
+  }
+
+  // the date the given number of days after the first close, which is a year before the next
+  private String day(int offset) {
+    return LocalDate.ofEpochDay(start + offset).toString();
+  }
+
+  /**
+   * Tests that a single investment has the same time-weighted and money-weighted return.
+   */
+  @Test
+  public void testSingleInvestment() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 1, day(0));
+    ReturnReport report = new ReturnReport(ValueSeries.of(port, prices::get, start,
+            start + 365));
+    assertEquals(1.0, report.timeWeightedReturn(start, start + 365), 1e-12);
+    assertEquals(1.0, report.annualizedTimeWeightedReturn(start, start + 365), 1e-12);
+    assertEquals(1.0, report.moneyWeightedReturn(start, start + 365), 1e-8);
+  }
+
+  /**
+   * Tests that money added before a fall lowers the money-weighted return but not the
+   * time-weighted return, which is back where it started.
+   */
+  @Test
+  public void testContributionTiming() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 1, day(0))
+            .addStock("AAPL", 1, day(365));
+    ReturnReport report = new ReturnReport(ValueSeries.of(port, prices::get, start,
+            start + 730));
+    assertEquals(0.0, report.timeWeightedReturn(start, start + 730), 1e-12);
+    assertEquals(-0.5, report.timeWeightedReturn(start + 365, start + 730), 1e-12);
+
+    // -10 now, -20 in a year, +20 in two years: 10(1+r)^2 + 20(1+r) = 20
+    double rate = report.moneyWeightedReturn(start, start + 730);
+    assertEquals(20.0, 10 * (1 + rate) * (1 + rate) + 20 * (1 + rate), 1e-6);
+    assertEquals(Math.sqrt(3) - 2, rate, 1e-8);
+  }
+
+  /**
+   * Tests that sold shares still count before the sale and that the sale is money taken out
+   * rather than a loss.
+   */
+  @Test
+  public void testSale() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 10, day(0))
+            .sellStock("AAPL", 6, day(365), 20, LotMethod.FIFO);
+    ValueSeries series = ValueSeries.of(port, prices::get, start, start + 730);
+    assertEquals(3, series.size());
+    assertEquals(100.0, series.getValue(0), 1e-9);
+    assertEquals(80.0, series.getValue(1), 1e-9);
+    assertEquals(-120.0, series.getFlow(1), 1e-9);
+    assertEquals(40.0, series.getValue(2), 1e-9);
+    ReturnReport report = new ReturnReport(series);
+    assertEquals(1.0, report.timeWeightedReturn(start, start + 365), 1e-12);
+    assertEquals(0.0, report.timeWeightedReturn(start, start + 730), 1e-12);
+
+    // -100 now, +120 in a year, +40 in two years: 100(1+r)^2 = 120(1+r) + 40
+    double rate = report.moneyWeightedReturn(start, start + 730);
+    assertEquals(120 * (1 + rate) + 40, 100 * (1 + rate) * (1 + rate), 1e-6);
+
+    port = port.sellStock("AAPL", 4, day(730), 10, LotMethod.FIFO);
+    series = ValueSeries.of(port, prices::get, start, start + 730);
+    assertEquals(3, series.size());
+    assertEquals(0.0, series.getValue(2), 1e-9);
+    assertEquals(-40.0, series.getFlow(2), 1e-9);
+  }
+
+  /**
+   * Tests that the solver finds rates far from its first guess.
+   */
+  @Test
+  public void testXirrLargeRates() {
+    assertEquals(9.0, IrrSolver.xirr(new int[]{0, 365}, new double[]{-1, 10}), 1e-8);
+    assertEquals(-0.99, IrrSolver.xirr(new int[]{0, 365}, new double[]{-100, 1}), 1e-8);
+  }
+
+  /**
+   * Tests that flows that are all money in are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testXirrNoSignChange() {
+    IrrSolver.xirr(new int[]{0, 365}, new double[]{-1, -1});
+  }
+
+  /**
+   * Tests that a sub-period outside the data is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptySubPeriod() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 1, day(0));
+    new ReturnReport(ValueSeries.of(port, prices::get, start, start + 730))
+            .timeWeightedReturn(start + 1, start + 2);
+  }
+}
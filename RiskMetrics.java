@@ -0,0 +1,201 @@
+import java.time.LocalDate;
+
+/**
+ * Represents the risk of a portfolio over a date range: the annualized volatility of its daily
+ * returns, its largest fall from a peak, and its historical value at risk. Every figure is
+ * computed in a single pass over the portfolio's daily value series, with running moments for
+ * the volatility, a running peak for the drawdown and streaming quantile estimators for the
+ * value at risk, so nothing proportional to the length of the range is kept in memory.
+ * Returns exclude the shares bought on each day, so adding to a position is not counted as a
+ * gain. A RiskMetrics object is never modified after it is constructed.
+ */
+public final class RiskMetrics {
+  /**
+   * The number of trading days in a year, used to annualize the daily volatility.
+   */
+  public static final int TRADING_DAYS_PER_YEAR = 252;
+
+  private final String name;
+  private final int observations;
+  private final double volatility;
+  private final double maxDrawdown;
+  private final int peakDay;
+  private final int troughDay;
+  private final double valueAtRisk95;
+  private final double valueAtRisk99;
+  private final double latestValue;
+
+  private RiskMetrics(String name, int observations, double volatility, double maxDrawdown,
+                      int peakDay, int troughDay, double valueAtRisk95, double valueAtRisk99,
+                      double latestValue) {
+    this.name = name;
+    this.observations = observations;
+    this.volatility = volatility;
+    this.maxDrawdown = maxDrawdown;
+    this.peakDay = peakDay;
+    this.troughDay = troughDay;
+    this.valueAtRisk95 = valueAtRisk95;
+    this.valueAtRisk99 = valueAtRisk99;
+    this.latestValue = latestValue;
+  }
+
+  /**
+   * Computes the risk metrics of a portfolio's daily value series.
+   *
+   * @param series a ValueSeries representing the portfolio's daily values.
+   * @return a RiskMetrics object describing the series.
+   * @throws IllegalArgumentException if the series has fewer than two daily returns.
+   */
+  public static RiskMetrics of(ValueSeries series) {
+    StreamingQuantile tail95 = new StreamingQuantile(0.05);
+    StreamingQuantile tail99 = new StreamingQuantile(0.01);
+    int count = 0;
+    double mean = 0;
+    double squares = 0;
+
+    // the drawdown is tracked on the growth of one dollar so contributions do not hide losses
+    double wealth = 1;
+    double peak = 1;
+    int peakIndex = -1;
+    int runningPeakIndex = -1;
+    int troughIndex = -1;
+    double maxDrawdown = 0;
+
+    for (int i = 1; i < series.size(); i++) {
+      double r = series.returnAt(i);
+      if (Double.isNaN(r)) {
+        continue;
+      }
+      if (runningPeakIndex == -1) {
+        runningPeakIndex = i - 1;
+      }
+      count++;
+      double delta = r - mean;
+      mean += delta / count;
+      squares += delta * (r - mean);
+      tail95.add(r);
+      tail99.add(r);
+
+      wealth *= 1 + r;
+      if (wealth > peak) {
+        peak = wealth;
+        runningPeakIndex = i;
+      } else if (1 - wealth / peak > maxDrawdown) {
+        maxDrawdown = 1 - wealth / peak;
+        peakIndex = runningPeakIndex;
+        troughIndex = i;
+      }
+    }
+    if (count < 2) {
+      throw new IllegalArgumentException("Not enough trading days to measure risk. Please "
+              + "pick a longer date range.");
+    }
+
+    double volatility = Math.sqrt(squares / (count - 1) * TRADING_DAYS_PER_YEAR);
+    return new RiskMetrics(series.getName(), count, volatility, maxDrawdown,
+            peakIndex == -1 ? -1 : series.getEpochDay(peakIndex),
+            troughIndex == -1 ? -1 : series.getEpochDay(troughIndex),
+            Math.max(0, -tail95.getQuantile()), Math.max(0, -tail99.getQuantile()),
+            series.getValue(series.size() - 1));
+  }
+
+  /**
+   * Gets the name of the portfolio the metrics describe.
+   *
+   * @return a String with the name of the portfolio.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of daily returns the metrics were computed from.
+   *
+   * @return an int representing the number of returns.
+   */
+  public int getObservations() {
+    return observations;
+  }
+
+  /**
+   * Gets the annualized volatility of the daily returns.
+   *
+   * @return a double with the volatility as a fraction, so 0.2 is 20%.
+   */
+  public double getVolatility() {
+    return volatility;
+  }
+
+  /**
+   * Gets the largest fall of the portfolio from a peak to a later low.
+   *
+   * @return a double with the drawdown as a fraction of the peak, or 0 if it never fell.
+   */
+  public double getMaxDrawdown() {
+    return maxDrawdown;
+  }
+
+  /**
+   * Gets the date of the peak before the largest drawdown.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD', or null if it never fell.
+   */
+  public String getPeakDate() {
+    return peakDay == -1 ? null : LocalDate.ofEpochDay(peakDay).toString();
+  }
+
+  /**
+   * Gets the date of the low of the largest drawdown.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD', or null if it never fell.
+   */
+  public String getTroughDate() {
+    return troughDay == -1 ? null : LocalDate.ofEpochDay(troughDay).toString();
+  }
+
+  /**
+   * Gets the one-day historical value at risk at 95% confidence, which is the daily loss that
+   * was exceeded on only 5% of the days.
+   *
+   * @return a double with the loss as a fraction of the portfolio's value.
+   */
+  public double getValueAtRisk95() {
+    return valueAtRisk95;
+  }
+
+  /**
+   * Gets the one-day historical value at risk at 99% confidence, which is the daily loss that
+   * was exceeded on only 1% of the days.
+   *
+   * @return a double with the loss as a fraction of the portfolio's value.
+   */
+  public double getValueAtRisk99() {
+    return valueAtRisk99;
+  }
+
+  /**
+   * Gets the value of the portfolio on the last day of the range.
+   *
+   * @return a double with the value of the portfolio.
+   */
+  public double getLatestValue() {
+    return latestValue;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder();
+    output.append(String.format("Volatility (annualized): %.2f%%\n", volatility * 100));
+    if (peakDay == -1) {
+      output.append("Max Drawdown: 0.00%\n");
+    } else {
+      output.append(String.format("Max Drawdown: %.2f%% (%s to %s)\n", maxDrawdown * 100,
+              getPeakDate(), getTroughDate()));
+    }
+    output.append(String.format("1-Day VaR (95%%): %.2f%% ($%.2f)\n", valueAtRisk95 * 100,
+            valueAtRisk95 * latestValue));
+    output.append(String.format("1-Day VaR (99%%): %.2f%% ($%.2f)", valueAtRisk99 * 100,
+            valueAtRisk99 * latestValue));
+    return output.toString();
+  }
+}
@@ -0,0 +1,145 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for RiskMetrics and the ValueSeries and StreamingQuantile it builds on.
+ */
+public class RiskMetricsTest {
+  private int start;
+  private Map<String, PriceSeries> prices;
+
+  /**
+   * Sets up a small price history for two stocks. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    prices = new HashMap<>();
+    prices.put("AAPL", makeSeries("AAPL", 10, 11, 12, 9, 10, 12));
+    prices.put("GOOG", makeSeries("GOOG", 100, 100, 100, 100, 100, 100));
+  }
+
+  // makes a series with one price per day starting on the first day
+  private PriceSeries makeSeries(String ticker, double... closes) {
+    int[] days = new int[closes.length];
+    for (int i = 0; i < days.length; i++) {
+      days[i] = start + i;
+    }
+    return new PriceSeries(ticker, days, closes);
+  }
+
+  // the date of the day at the given position in the test series
+  private String day(int offset) {
+    return LocalDate.ofEpochDay(start + offset).toString();
+  }
+
+  /**
+   * Tests that the value series counts each lot from its purchase date and records the
+   * purchase as money added rather than a gain.
+   */
+  @Test
+  public void testValueSeriesFlows() {
+    IPortfolio port = new Portfolio("Test");
+    port = port.addStock("AAPL", 2, day(0));
+    port = port.addStock("GOOG", 1, day(2));
+    ValueSeries series = ValueSeries.of(port, prices::get, start, start + 5);
+    assertEquals(6, series.size());
+    assertEquals(20.0, series.getValue(0), 1e-9);
+    assertEquals(124.0, series.getValue(2), 1e-9);
+    assertEquals(100.0, series.getFlow(2), 1e-9);
+    assertEquals(12.0 / 11 - 1, series.returnAt(2), 1e-12);
+    assertEquals(0.0, series.getFlow(3), 0);
+  }
+
+  /**
+   * Tests that days before anything is held have no return.
+   */
+  @Test
+  public void testValueSeriesEmptyDays() {
+    IPortfolio port = new Portfolio("Test");
+    port = port.addStock("AAPL", 1, day(3));
+    ValueSeries series = ValueSeries.of(port, prices::get, start, start + 5);
+    assertEquals(0.0, series.getValue(1), 0);
+    assertTrue(Double.isNaN(series.returnAt(2)));
+    assertEquals(10.0 / 9 - 1, series.returnAt(4), 1e-12);
+  }
+
+  /**
+   * Tests the volatility and drawdown against values worked out by hand.
+   */
+  @Test
+  public void testMetricsByHand() {
+    IPortfolio port = new Portfolio("Test");
+    port = port.addStock("AAPL", 1, day(0));
+    RiskMetrics risk = RiskMetrics.of(ValueSeries.of(port, prices::get, start, start + 5));
+    double[] returns = {0.1, 12.0 / 11 - 1, 9.0 / 12 - 1, 10.0 / 9 - 1, 12.0 / 10 - 1};
+    double mean = 0;
+    for (double r : returns) {
+      mean += r / returns.length;
+    }
+    double variance = 0;
+    for (double r : returns) {
+      variance += (r - mean) * (r - mean) / (returns.length - 1);
+    }
+    assertEquals(5, risk.getObservations());
+    assertEquals(Math.sqrt(variance * 252), risk.getVolatility(), 1e-9);
+    assertEquals(0.25, risk.getMaxDrawdown(), 1e-12);
+    assertEquals(day(2), risk.getPeakDate());
+    assertEquals(day(3), risk.getTroughDate());
+    assertEquals(12.0, risk.getLatestValue(), 1e-9);
+  }
+
+  /**
+   * Tests that a portfolio that only rises has no drawdown.
+   */
+  @Test
+  public void testNoDrawdown() {
+    prices.put("AAPL", makeSeries("AAPL", 1, 2, 3, 4));
+    IPortfolio port = new Portfolio("Test");
+    port = port.addStock("AAPL", 1, day(0));
+    RiskMetrics risk = RiskMetrics.of(ValueSeries.of(port, prices::get, start, start + 3));
+    assertEquals(0.0, risk.getMaxDrawdown(), 0);
+    assertNull(risk.getPeakDate());
+    assertEquals(0.0, risk.getValueAtRisk95(), 0);
+  }
+
+  /**
+   * Tests that a range with too few days is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooShort() {
+    IPortfolio port = new Portfolio("Test");
+    port = port.addStock("AAPL", 1, day(0));
+    RiskMetrics.of(ValueSeries.of(port, prices::get, start, start + 1));
+  }
+
+  /**
+   * Tests that the streaming quantile is exact for short streams and close to the true
+   * quantile of a long one.
+   */
+  @Test
+  public void testStreamingQuantile() {
+    StreamingQuantile small = new StreamingQuantile(0.5);
+    small.add(3);
+    small.add(1);
+    small.add(2);
+    assertEquals(2.0, small.getQuantile(), 0);
+
+    Random random = new Random(7);
+    StreamingQuantile tail = new StreamingQuantile(0.05);
+    for (int i = 0; i < 100000; i++) {
+      tail.add(random.nextGaussian());
+    }
+    assertEquals(100000, tail.getCount());
+    assertEquals(-1.645, tail.getQuantile(), 0.03);
+  }
+}
@@ -0,0 +1,144 @@
+import java.time.LocalDate;
+
+/**
+ * Represents the rolling highs and lows of a stock's closing price over a fixed window of
+ * trading days, such as the 52-week high and low. Both series are produced in a single pass
+ * using monotonic deques, so the whole history costs O(n) no matter how long the window is.
+ * A RollingExtrema is never modified after it is constructed, which lets the model cache one
+ * per ticker and window.
+ */
+public final class RollingExtrema {
+  /**
+   * The number of trading days in 52 weeks.
+   */
+  public static final int FIFTY_TWO_WEEKS = 252;
+
+  private final PriceSeries series;
+  private final int window;
+  private final double[] lows;
+  private final double[] highs;
+
+  /**
+   * Constructs the rolling highs and lows of a price series.
+   *
+   * @param series a PriceSeries representing the closing prices of the stock.
+   * @param window an int representing the number of trading days in each window.
+   */
+  public RollingExtrema(PriceSeries series, int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("The window must be at least one day.");
+    }
+    this.series = series;
+    this.window = window;
+    this.lows = compute(series.closeColumn(), window, false);
+    this.highs = compute(series.closeColumn(), window, true);
+  }
+
+  /**
+   * Computes the extreme of every window of the specified length with a monotonic deque.
+   * Windows at the start of the series that are shorter than the window length use the days
+   * that are available, so every position has a value.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @param max    true to compute the maximum of each window, false for the minimum.
+   * @return an array of doubles where position i holds the extreme of the window ending at i.
+   */
+  public static double[] compute(double[] values, int window, boolean max) {
+    int n = values.length;
+    double[] out = new double[n];
+    // indices whose values are strictly decreasing (max) or increasing (min) from the head
+    int[] deque = new int[Math.min(n, window) + 1];
+    int head = 0;
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      double x = values[i];
+      while (size > 0) {
+        double back = values[deque[(head + size - 1) % deque.length]];
+        if (max ? back <= x : back >= x) {
+          size--;
+        } else {
+          break;
+        }
+      }
+      deque[(head + size) % deque.length] = i;
+      size++;
+      if (deque[head] <= i - window) {
+        head = (head + 1) % deque.length;
+        size--;
+      }
+      out[i] = values[deque[head]];
+    }
+    return out;
+  }
+
+  /**
+   * Gets the number of trading days in each window.
+   *
+   * @return an int representing the length of the window.
+   */
+  public int getWindow() {
+    return window;
+  }
+
+  /**
+   * Gets the price series the extremes were computed from.
+   *
+   * @return the PriceSeries of the stock.
+   */
+  public PriceSeries getSeries() {
+    return series;
+  }
+
+  /**
+   * Gets the highest close in the window ending at the specified position.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a double representing the highest closing price in the window.
+   */
+  public double highAt(int index) {
+    return highs[index];
+  }
+
+  /**
+   * Gets the lowest close in the window ending at the specified position.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a double representing the lowest closing price in the window.
+   */
+  public double lowAt(int index) {
+    return lows[index];
+  }
+
+  /**
+   * Gets the highest close in the window ending on the last trading day on or before the date.
+   *
+   * @param date a String representing the specified date in 'YYYY-MM-DD' format.
+   * @return a double representing the highest closing price in the window.
+   * @throws IllegalArgumentException if the date is before the start of the series.
+   */
+  public double highOn(String date) {
+    return highs[positionOn(date)];
+  }
+
+  /**
+   * Gets the lowest close in the window ending on the last trading day on or before the date.
+   *
+   * @param date a String representing the specified date in 'YYYY-MM-DD' format.
+   * @return a double representing the lowest closing price in the window.
+   * @throws IllegalArgumentException if the date is before the start of the series.
+   */
+  public double lowOn(String date) {
+    return lows[positionOn(date)];
+  }
+
+  // finds the last trading day on or before the date
+  private int positionOn(String date) {
+    int idx = series.indexAtOrBefore((int) LocalDate.parse(date).toEpochDay());
+    if (idx == -1) {
+      throw new IllegalArgumentException("No data found for " + series.getTicker() +
+              " on or before the date: " + date);
+    }
+    return idx;
+  }
+}
@@ -0,0 +1,87 @@
+import java.time.LocalDate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Holds all the tests for the RollingExtrema class.
+ */
+public class RollingExtremaTest {
+  private PriceSeries series;
+
+  /**
+   * Builds a week of prices starting on Monday 2024-06-03. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    int monday = (int) LocalDate.parse("2024-06-03").toEpochDay();
+    int[] days = {monday, monday + 1, monday + 2, monday + 3, monday + 4};
+    double[] closes = {10.0, 14.0, 12.0, 9.0, 11.0};
+    series = new PriceSeries("GOOG", days, closes);
+  }
+
+  /**
+   * Tests the deque against windows that are scanned directly.
+   */
+  @Test
+  public void testComputeMatchesScan() {
+    double[] values = new double[300];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = Math.sin(i * 0.11) * 50 + i * 0.1;
+    }
+    int window = 17;
+    double[] max = RollingExtrema.compute(values, window, true);
+    double[] min = RollingExtrema.compute(values, window, false);
+    for (int i = 0; i < values.length; i++) {
+      double high = values[i];
+      double low = values[i];
+      for (int j = Math.max(0, i - window + 1); j <= i; j++) {
+        high = Math.max(high, values[j]);
+        low = Math.min(low, values[j]);
+      }
+      assertEquals(high, max[i], 0);
+      assertEquals(low, min[i], 0);
+    }
+  }
+
+  /**
+   * Tests that the first windows use the days that are available.
+   */
+  @Test
+  public void testPartialWindows() {
+    assertArrayEquals(new double[]{10.0, 14.0, 14.0, 14.0, 12.0},
+            RollingExtrema.compute(new double[]{10.0, 14.0, 12.0, 9.0, 11.0}, 3, true), 0);
+  }
+
+  /**
+   * Tests the high and low of a window ending on a date.
+   */
+  @Test
+  public void testHighLowOn() {
+    RollingExtrema extrema = new RollingExtrema(series, 3);
+    assertEquals(14.0, extrema.highOn("2024-06-05"), 0);
+    assertEquals(10.0, extrema.lowOn("2024-06-05"), 0);
+    assertEquals(12.0, extrema.highOn("2024-06-07"), 0);
+    assertEquals(9.0, extrema.lowOn("2024-06-07"), 0);
+  }
+
+  /**
+   * Tests that a weekend uses the window ending on the Friday before it.
+   */
+  @Test
+  public void testHighOnWeekend() {
+    RollingExtrema extrema = new RollingExtrema(series, 3);
+    assertEquals(12.0, extrema.highOn("2024-06-09"), 0);
+  }
+
+  /**
+   * Tests asking for a date before the price history starts.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testHighOnBeforeHistory() {
+    new RollingExtrema(series, 3).highOn("2024-05-01");
+  }
+}
@@ -0,0 +1,235 @@
+/**
+ * Holds the kernels used to compute rolling-window statistics over a primitive price column.
+ * Each statistic has two implementations, both O(n) whatever the window length: a scalar loop
+ * that slides its window forward one value at a time, and a kernel in VectorKernels that uses
+ * the incubating Vector API to work on several values at once. The scalar loops are used by
+ * default. The vector kernels are used after setVectorized(true), or when the program is started
+ * with -Dstocks.kernels=vector, and both need the program compiled and run with
+ * --add-modules jdk.incubator.vector. Without the module the scalar loops are always used.
+ * Rolling results are arrays the same length as the input where position i holds the
+ * statistic of the window ending at i. Positions before the first full window are NaN.
+ */
+public final class RollingStats {
+  private static final boolean VECTOR_AVAILABLE =
+          ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+  private static volatile boolean vectorized = VECTOR_AVAILABLE
+          && "vector".equalsIgnoreCase(System.getProperty("stocks.kernels"));
+
+  private RollingStats() {
+    // static kernels only
+  }
+
+  /**
+   * Selects which set of kernels is used by every statistic in this class.
+   *
+   * @param useVectorized true to use the Vector API kernels, false to use the scalar loops.
+   * @throws IllegalArgumentException if the Vector API kernels are selected and the program
+   *                                  was not run with the jdk.incubator.vector module.
+   */
+  public static void setVectorized(boolean useVectorized) {
+    if (useVectorized && !VECTOR_AVAILABLE) {
+      throw new IllegalArgumentException(
+              "The vector kernels need --add-modules jdk.incubator.vector.");
+    }
+    vectorized = useVectorized;
+  }
+
+  /**
+   * Checks which set of kernels is currently in use.
+   *
+   * @return true if the Vector API kernels are in use and false if the scalar loops are.
+   */
+  public static boolean isVectorized() {
+    return vectorized;
+  }
+
+  /**
+   * Checks whether the program was run with the jdk.incubator.vector module, which the Vector
+   * API kernels need.
+   *
+   * @return true if the Vector API kernels can be selected, false otherwise.
+   */
+  public static boolean isVectorAvailable() {
+    return VECTOR_AVAILABLE;
+  }
+
+  /**
+   * Sums the values in the range [from, to) of the array.
+   *
+   * @param values an array of doubles to sum.
+   * @param from   an int representing the first position in the range, inclusive.
+   * @param to     an int representing the last position in the range, exclusive.
+   * @return a double with the sum of the values in the range.
+   */
+  public static double sum(double[] values, int from, int to) {
+    checkRange(values, from, to);
+    if (vectorized) {
+      return VectorKernels.sum(values, from, to);
+    }
+    double total = 0;
+    for (int i = from; i < to; i++) {
+      total += values[i];
+    }
+    return total;
+  }
+
+  /**
+   * Averages the values in the range [from, to) of the array.
+   *
+   * @param values an array of doubles to average.
+   * @param from   an int representing the first position in the range, inclusive.
+   * @param to     an int representing the last position in the range, exclusive.
+   * @return a double with the mean of the values in the range.
+   */
+  public static double mean(double[] values, int from, int to) {
+    if (to <= from) {
+      throw new IllegalArgumentException("The range must contain at least one value.");
+    }
+    return sum(values, from, to) / (to - from);
+  }
+
+  /**
+   * Computes the sum of every window of the specified length.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @return an array of doubles where position i holds the sum of the window ending at i.
+   */
+  public static double[] rollingSum(double[] values, int window) {
+    checkWindow(window);
+    return vectorized ? VectorKernels.rollingSum(values, window, nanFilled(values.length, window))
+            : slideSum(values, window);
+  }
+
+  /**
+   * Computes the mean of every window of the specified length. This is the x-day moving
+   * average of the series.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @return an array of doubles where position i holds the mean of the window ending at i.
+   */
+  public static double[] rollingMean(double[] values, int window) {
+    double[] out = rollingSum(values, window);
+    for (int i = 0; i < out.length; i++) {
+      out[i] = out[i] / window;
+    }
+    return out;
+  }
+
+  /**
+   * Computes the population variance of every window of the specified length.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @return an array of doubles where position i holds the variance of the window ending at i.
+   */
+  public static double[] rollingVariance(double[] values, int window) {
+    checkWindow(window);
+    return vectorized
+            ? VectorKernels.rollingVariance(values, window, nanFilled(values.length, window))
+            : slideVariance(values, window);
+  }
+
+  /**
+   * Computes the smallest value of every window of the specified length.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @return an array of doubles where position i holds the minimum of the window ending at i.
+   */
+  public static double[] rollingMin(double[] values, int window) {
+    checkWindow(window);
+    return vectorized
+            ? VectorKernels.rollingExtreme(values, window, false, nanFilled(values.length, window))
+            : slideExtreme(values, window, false);
+  }
+
+  /**
+   * Computes the largest value of every window of the specified length.
+   *
+   * @param values an array of doubles representing the series.
+   * @param window an int representing the number of values in each window.
+   * @return an array of doubles where position i holds the maximum of the window ending at i.
+   */
+  public static double[] rollingMax(double[] values, int window) {
+    checkWindow(window);
+    return vectorized
+            ? VectorKernels.rollingExtreme(values, window, true, nanFilled(values.length, window))
+            : slideExtreme(values, window, true);
+  }
+
+  // ------------------------------------- scalar kernels -------------------------------------
+
+  // slides the window forward by adding the new value and subtracting the one that left
+  private static double[] slideSum(double[] values, int window) {
+    double[] out = nanFilled(values.length, window);
+    double total = 0;
+    for (int i = 0; i < values.length; i++) {
+      total += values[i];
+      if (i >= window) {
+        total -= values[i - window];
+      }
+      if (i >= window - 1) {
+        out[i] = total;
+      }
+    }
+    return out;
+  }
+
+  // slides a Welford mean and sum of squared deviations across the series
+  private static double[] slideVariance(double[] values, int window) {
+    double[] out = nanFilled(values.length, window);
+    double mean = 0;
+    double m2 = 0;
+    for (int i = 0; i < values.length; i++) {
+      double x = values[i];
+      if (i < window) {
+        double delta = x - mean;
+        mean += delta / (i + 1);
+        m2 += delta * (x - mean);
+      } else {
+        double old = values[i - window];
+        double oldMean = mean;
+        mean += (x - old) / window;
+        m2 += (x - old) * (x - mean + old - oldMean);
+      }
+      if (i >= window - 1) {
+        out[i] = Math.max(0, m2 / window);
+      }
+    }
+    return out;
+  }
+
+  // keeps a monotonic deque of candidate positions, see RollingExtrema
+  private static double[] slideExtreme(double[] values, int window, boolean max) {
+    double[] out = RollingExtrema.compute(values, window, max);
+    for (int i = 0; i < Math.min(out.length, window - 1); i++) {
+      out[i] = Double.NaN;
+    }
+    return out;
+  }
+
+  // ------------------------------------- private helpers ------------------------------------
+
+  // output array with the positions before the first full window already marked
+  private static double[] nanFilled(int length, int window) {
+    double[] out = new double[length];
+    for (int i = 0; i < Math.min(length, window - 1); i++) {
+      out[i] = Double.NaN;
+    }
+    return out;
+  }
+
+  private static void checkWindow(int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("The window must be at least one day.");
+    }
+  }
+
+  private static void checkRange(double[] values, int from, int to) {
+    if (from < 0 || to > values.length || from > to) {
+      throw new IllegalArgumentException("Range is not valid");
+    }
+  }
+}
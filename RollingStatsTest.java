@@ -0,0 +1,163 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Holds all the tests for the RollingStats kernels.
+ */
+public class RollingStatsTest {
+  private final double[] prices = {10.0, 12.0, 11.0, 15.0, 14.0, 9.0, 13.0, 16.0};
+
+  /**
+   * Tests summing a range of values.
+   */
+  @Test
+  public void testSum() {
+    assertEquals(100.0, RollingStats.sum(prices, 0, prices.length), 1e-9);
+    assertEquals(38.0, RollingStats.sum(prices, 1, 4), 1e-9);
+    assertEquals(0.0, RollingStats.sum(prices, 3, 3), 1e-9);
+  }
+
+  /**
+   * Tests averaging a range of values.
+   */
+  @Test
+  public void testMean() {
+    assertEquals(12.5, RollingStats.mean(prices, 0, prices.length), 1e-9);
+    assertEquals(11.0, RollingStats.mean(prices, 0, 3), 1e-9);
+  }
+
+  /**
+   * Tests that averaging an empty range results in an exception.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMeanEmptyRange() {
+    RollingStats.mean(prices, 2, 2);
+  }
+
+  /**
+   * Tests the 3 day moving average.
+   */
+  @Test
+  public void testRollingMean() {
+    double[] expected = {Double.NaN, Double.NaN, 11.0, 38.0 / 3, 40.0 / 3, 38.0 / 3, 12.0,
+        38.0 / 3};
+    assertArrayEquals(expected, RollingStats.rollingMean(prices, 3), 1e-9);
+  }
+
+  /**
+   * Tests the rolling variance against a direct calculation of each window.
+   */
+  @Test
+  public void testRollingVariance() {
+    int window = 4;
+    double[] actual = RollingStats.rollingVariance(prices, window);
+    for (int i = window - 1; i < prices.length; i++) {
+      double mean = 0;
+      for (int j = i - window + 1; j <= i; j++) {
+        mean += prices[j] / window;
+      }
+      double variance = 0;
+      for (int j = i - window + 1; j <= i; j++) {
+        variance += (prices[j] - mean) * (prices[j] - mean) / window;
+      }
+      assertEquals(variance, actual[i], 1e-9);
+    }
+    assertTrue(Double.isNaN(actual[window - 2]));
+  }
+
+  /**
+   * Tests the rolling minimum and maximum.
+   */
+  @Test
+  public void testRollingMinMax() {
+    double[] expectedMin = {Double.NaN, Double.NaN, 10.0, 11.0, 11.0, 9.0, 9.0, 9.0};
+    double[] expectedMax = {Double.NaN, Double.NaN, 12.0, 15.0, 15.0, 15.0, 14.0, 16.0};
+    assertArrayEquals(expectedMin, RollingStats.rollingMin(prices, 3), 1e-9);
+    assertArrayEquals(expectedMax, RollingStats.rollingMax(prices, 3), 1e-9);
+  }
+
+  /**
+   * Tests the sliding kernels against a direct calculation of each window of a long series,
+   * where any drift in the running totals would show.
+   */
+  @Test
+  public void testLongSeries() {
+    double[] series = new double[5000];
+    double price = 100;
+    for (int i = 0; i < series.length; i++) {
+      price = price * (1 + Math.sin(i * 0.37) * 0.02);
+      series[i] = price;
+    }
+    int window = 50;
+    double[] mean = RollingStats.rollingMean(series, window);
+    double[] variance = RollingStats.rollingVariance(series, window);
+    double[] max = RollingStats.rollingMax(series, window);
+    for (int i = window - 1; i < series.length; i += 97) {
+      double expectedMean = RollingStats.mean(series, i - window + 1, i + 1);
+      double expectedVariance = 0;
+      double expectedMax = series[i];
+      for (int j = i - window + 1; j <= i; j++) {
+        expectedVariance += (series[j] - expectedMean) * (series[j] - expectedMean) / window;
+        expectedMax = Math.max(expectedMax, series[j]);
+      }
+      assertEquals(expectedMean, mean[i], 1e-6);
+      assertEquals(expectedVariance, variance[i], 1e-6);
+      assertEquals(expectedMax, max[i], 0);
+    }
+  }
+
+  /**
+   * Tests that the Vector API kernels give the scalar results, or cannot be selected when the
+   * program was run without the jdk.incubator.vector module.
+   */
+  @Test
+  public void testKernelsAgree() {
+    if (!RollingStats.isVectorAvailable()) {
+      try {
+        RollingStats.setVectorized(true);
+      } catch (IllegalArgumentException e) {
+        assertFalse(RollingStats.isVectorized());
+        return;
+      }
+      fail("The vector kernels were selected without their module.");
+    }
+    double[] series = new double[3001];
+    double price = 100;
+    for (int i = 0; i < series.length; i++) {
+      price = price * (1 + Math.sin(i * 0.37) * 0.02);
+      series[i] = price;
+    }
+    boolean before = RollingStats.isVectorized();
+    try {
+      for (int window : new int[]{1, 2, 3, 7, 50, 252, 4000}) {
+        RollingStats.setVectorized(false);
+        double sum = RollingStats.sum(series, 5, series.length);
+        double[] mean = RollingStats.rollingMean(series, window);
+        double[] variance = RollingStats.rollingVariance(series, window);
+        double[] min = RollingStats.rollingMin(series, window);
+        double[] max = RollingStats.rollingMax(series, window);
+        RollingStats.setVectorized(true);
+        assertEquals(sum, RollingStats.sum(series, 5, series.length), 1e-9);
+        assertArrayEquals(mean, RollingStats.rollingMean(series, window), 1e-9);
+        assertArrayEquals(variance, RollingStats.rollingVariance(series, window), 1e-6);
+        assertArrayEquals(min, RollingStats.rollingMin(series, window), 0);
+        assertArrayEquals(max, RollingStats.rollingMax(series, window), 0);
+      }
+    } finally {
+      RollingStats.setVectorized(before);
+    }
+  }
+
+  /**
+   * Tests that a window of zero days results in an exception.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWindow() {
+    RollingStats.rollingMean(prices, 0);
+  }
+}
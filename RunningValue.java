@@ -0,0 +1,208 @@
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps the value of a portfolio on one day as a running total, together with the shares of
+ * each ticker held that day and the price they were valued at. A transaction only changes the
+ * value of its own ticker, and moving to a newer day only re-prices the tickers held, so
+ * neither goes back over the rest of the portfolio. The total is the sum of each ticker's
+ * shares times its price in micro-dollars, exactly what adding up the holdings from scratch
+ * gives. A RunningValue is never modified after it is constructed.
+ */
+public final class RunningValue {
+  private final int day;
+  private final long total;
+  private final PersistentTree<String, Holding> holdings;
+  // the number of holdings whose price is from an earlier day because the stock has no close
+  // on the day itself
+  private final int stale;
+  // the number of transactions of the portfolio the total includes
+  private final int eventCount;
+  // whether a transaction dated after the day has been left out of the total
+  private final boolean later;
+
+  // the shares of one ticker and the latest close on or before the day
+  private static final class Holding {
+    private final String ticker;
+    private final long microShares;
+    private final double price;
+    private final boolean onDay;
+
+    private Holding(String ticker, long microShares, double price, boolean onDay) {
+      this.ticker = ticker;
+      this.microShares = microShares;
+      this.price = price;
+      this.onDay = onDay;
+    }
+  }
+
+  private RunningValue(int day, long total, PersistentTree<String, Holding> holdings, int stale,
+                       int eventCount, boolean later) {
+    this.day = day;
+    this.total = total;
+    this.holdings = holdings;
+    this.stale = stale;
+    this.eventCount = eventCount;
+    this.later = later;
+  }
+
+  /**
+   * Values a portfolio on the specified day.
+   *
+   * @param port   the portfolio to value.
+   * @param prices a function giving the price history of a ticker.
+   * @param day    an int representing the day as an epoch day.
+   * @return a RunningValue of the portfolio on the day.
+   */
+  public static RunningValue of(IPortfolio port, Function<String, PriceSeries> prices, int day) {
+    List<PortfolioEvent> events = port.getHistory();
+    Map<String, Long> shares = new HashMap<>();
+    boolean later = false;
+    for (PortfolioEvent event : events) {
+      if (epochDay(event) > day) {
+        later = true;
+      } else {
+        shares.merge(event.getTicker(), change(event), Long::sum);
+      }
+    }
+    RunningValue value = new RunningValue(day, 0,
+            new PersistentTree<>(Comparator.naturalOrder()), 0, events.size(), later);
+    for (Map.Entry<String, Long> entry : shares.entrySet()) {
+      value = value.withShares(entry.getKey(), entry.getValue(), prices);
+    }
+    return value;
+  }
+
+  /**
+   * Adds the transactions made on the portfolio since this total was worked out. Each one
+   * dated on or before the day only changes the value of its ticker.
+   *
+   * @param port   the portfolio this total was worked out from, with any number of
+   *               transactions made on it since.
+   * @param prices a function giving the price history of a ticker.
+   * @return a RunningValue of the portfolio as it is now on the same day, or this one if nothing
+   *          has changed.
+   */
+  public RunningValue apply(IPortfolio port, Function<String, PriceSeries> prices) {
+    List<PortfolioEvent> added = port.getHistory(eventCount);
+    if (added.isEmpty()) {
+      return this;
+    }
+    RunningValue value = new RunningValue(day, total, holdings, stale,
+            eventCount + added.size(), later);
+    for (PortfolioEvent event : added) {
+      if (epochDay(event) > day) {
+        value = new RunningValue(day, value.total, value.holdings, value.stale,
+                value.eventCount, true);
+      } else {
+        Holding held = value.holdings.get(event.getTicker());
+        long shares = held == null ? 0 : held.microShares;
+        value = value.withShares(event.getTicker(), shares + change(event), prices);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Moves the total to a newer day, such as when a new closing bar arrives, re-pricing each
+   * ticker held at its latest close on or before the new day.
+   *
+   * @param port   the portfolio this total was worked out from, with no transactions made on it
+   *               since.
+   * @param prices a function giving the price history of a ticker.
+   * @param newDay an int representing the new day as an epoch day.
+   * @return a RunningValue of the portfolio on the new day, or this one if the day is not newer.
+   */
+  public RunningValue advanceTo(IPortfolio port, Function<String, PriceSeries> prices,
+                                int newDay) {
+    if (newDay <= day) {
+      return this;
+    }
+    if (later) {
+      // a transaction dated after the old day may take effect by the new one
+      return of(port, prices, newDay);
+    }
+    RunningValue value = new RunningValue(newDay, total, holdings, stale, eventCount, false);
+    for (Holding held : holdings) {
+      value = value.withShares(held.ticker, held.microShares, prices);
+    }
+    return value;
+  }
+
+  /**
+   * Gets the day the total is for.
+   *
+   * @return an int representing the day as an epoch day.
+   */
+  public int getDay() {
+    return day;
+  }
+
+  /**
+   * Gets the value of the portfolio on the day.
+   *
+   * @return a double with the total value of the holdings.
+   */
+  public double getTotal() {
+    return FixedPoint.fromMicros(total);
+  }
+
+  /**
+   * Gets the value of the portfolio on the day rounded to the cent, as it is shown to the user.
+   *
+   * @return a double with the total value rounded to the cent.
+   */
+  public double getRoundedTotal() {
+    return FixedPoint.roundToCents(total);
+  }
+
+  /**
+   * Checks whether every ticker held was valued at a close on the day itself rather than an
+   * earlier one.
+   *
+   * @return true if every holding has a price on the day, false otherwise.
+   */
+  public boolean isExact() {
+    return stale == 0;
+  }
+
+  // returns a copy with the ticker holding the shares, valued at its latest close by the day
+  private RunningValue withShares(String ticker, long microShares,
+                                  Function<String, PriceSeries> prices) {
+    Holding old = holdings.get(ticker);
+    long tempTotal = total;
+    int tempStale = stale;
+    if (old != null) {
+      tempTotal -= FixedPoint.value(old.microShares, old.price);
+      tempStale -= old.onDay ? 0 : 1;
+    }
+    if (microShares == 0) {
+      return new RunningValue(day, tempTotal, holdings.remove(ticker), tempStale, eventCount,
+              later);
+    }
+    PriceSeries series = prices.apply(ticker);
+    int idx = series.indexAtOrBefore(day);
+    double price = idx == -1 ? 0 : series.getClose(idx);
+    boolean onDay = idx != -1 && series.getEpochDay(idx) == day;
+    tempTotal += FixedPoint.value(microShares, price);
+    tempStale += onDay ? 0 : 1;
+    Holding held = new Holding(ticker, microShares, price, onDay);
+    return new RunningValue(day, tempTotal, holdings.put(ticker, held), tempStale, eventCount,
+            later);
+  }
+
+  // the change a transaction makes to the shares held
+  private static long change(PortfolioEvent event) {
+    long shares = FixedPoint.toMicros(event.getQuantity());
+    return event.getType() == PortfolioEvent.Type.BUY ? shares : -shares;
+  }
+
+  // the day a transaction takes effect
+  private static int epochDay(PortfolioEvent event) {
+    return (int) LocalDate.parse(event.getDate()).toEpochDay();
+  }
+}
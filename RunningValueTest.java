@@ -0,0 +1,91 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the RunningValue.
+ */
+public class RunningValueTest {
+  private int start;
+  private Map<String, PriceSeries> prices;
+
+  /**
+   * Sets up a price history for two stocks, one of which stops trading. Called before every
+   * test method.
+   */
+  @Before
+  public void setUp() {
+    start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries("AAPL", new int[]{start, start + 1, start + 2, start + 3},
+            new double[]{10, 11, 12, 9}));
+    prices.put("GOOG", new PriceSeries("GOOG", new int[]{start, start + 1, start + 2},
+            new double[]{100, 101, 102}));
+  }
+
+  // the date the given number of days after the first close
+  private String day(int offset) {
+    return LocalDate.ofEpochDay(start + offset).toString();
+  }
+
+  /**
+   * Tests that the total counts the holdings on the day at that day's closes.
+   */
+  @Test
+  public void testOf() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0))
+            .addStock("GOOG", 1.5, day(1))
+            .addStock("GOOG", 4, day(3));
+    RunningValue value = RunningValue.of(port, prices::get, start + 1);
+    assertEquals(start + 1, value.getDay());
+    assertEquals(2 * 11 + 1.5 * 101, value.getTotal(), 1e-9);
+    assertTrue(value.isExact());
+  }
+
+  /**
+   * Tests that transactions added one at a time give the same total as working it out again.
+   */
+  @Test
+  public void testApplyMatchesRebuild() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0));
+    RunningValue value = RunningValue.of(port, prices::get, start + 2);
+    port = port.addStock("GOOG", 1.5, day(1), 101);
+    value = value.apply(port, prices::get);
+    assertEquals(2 * 12 + 1.5 * 102, value.getTotal(), 1e-9);
+    port = port.sellStock("AAPL", 2, day(2), 12, LotMethod.FIFO)
+            .addStock("AAPL", 1, day(5));
+    value = value.apply(port, prices::get);
+    assertEquals(1.5 * 102, value.getTotal(), 1e-9);
+    assertEquals(RunningValue.of(port, prices::get, start + 2).getTotal(), value.getTotal(), 0);
+    assertTrue(value.apply(port, prices::get) == value);
+  }
+
+  /**
+   * Tests that moving to a newer day re-prices the holdings and counts purchases dated after
+   * the old day.
+   */
+  @Test
+  public void testAdvanceTo() {
+    IPortfolio port = new Portfolio("Test").addStock("AAPL", 2, day(0))
+            .addStock("GOOG", 1, day(0));
+    RunningValue value = RunningValue.of(port, prices::get, start);
+    value = value.advanceTo(port, prices::get, start + 2);
+    assertEquals(2 * 12 + 102, value.getTotal(), 1e-9);
+    assertTrue(value.isExact());
+    value = value.advanceTo(port, prices::get, start + 3);
+    assertEquals(2 * 9 + 102, value.getTotal(), 1e-9);
+    assertFalse(value.isExact());
+
+    port = port.addStock("AAPL", 1, day(4));
+    value = value.apply(port, prices::get).advanceTo(port, prices::get, start + 4);
+    assertEquals(RunningValue.of(port, prices::get, start + 4).getTotal(), value.getTotal(), 0);
+    assertEquals(3 * 9 + 102, value.getTotal(), 1e-9);
+  }
+}
@@ -0,0 +1,17 @@
+/**
+ * What a Strategy tells the Backtester to do at the close of a trading day.
+ */
+public enum Signal {
+  /**
+   * Puts all available cash into the stock.
+   */
+  BUY,
+  /**
+   * Sells every share of the stock.
+   */
+  SELL,
+  /**
+   * Leaves the position as it is.
+   */
+  HOLD
+}
@@ -6,31 +6,60 @@
  * to sell or add shares, resulting in a new Stock instance with updated quantities.
  */
 public class Stock implements IStock {
-  private final String ticker;
-  private final double quantity;
+  // the ticker's id in the shared symbol dictionary
+  private final int symbol;
+  // the number of shares in millionths, so adding and selling shares is exact
+  private final long microShares;
   private final String datePurchased;
+  private final double costBasis;
 
   /**
-   * Constructs a stock object with a ticker, number of shares, and the purchase date.
+   * Constructs a stock object with a ticker, number of shares, and the purchase date. The cost
+   * basis of the shares is unknown.
    *
    * @param ticker        a String representing the ticker symbol of the stock.
    * @param quantity      a double representing the number of shares of this stock in the portfolio.
    * @param datePurchased a String representing a formatted (YYYY-MM-DD) date of purchase.
    */
   public Stock(String ticker, double quantity, String datePurchased) {
-    this.ticker = ticker;
-    this.quantity = quantity;
+    this(ticker, quantity, datePurchased, Double.NaN);
+  }
+
+  /**
+   * Constructs a stock object with a ticker, number of shares, the purchase date and the price
+   * paid for each share.
+   *
+   * @param ticker        a String representing the ticker symbol of the stock.
+   * @param quantity      a double representing the number of shares of this stock in the portfolio.
+   * @param datePurchased a String representing a formatted (YYYY-MM-DD) date of purchase.
+   * @param costBasis     a double representing the price paid per share, or NaN if unknown.
+   * @throws IllegalArgumentException if the quantity cannot be held in millionths of a share.
+   */
+  public Stock(String ticker, double quantity, String datePurchased, double costBasis) {
+    this.symbol = Symbols.id(ticker);
+    this.microShares = FixedPoint.toMicros(quantity);
     this.datePurchased = datePurchased;
+    this.costBasis = costBasis;
   }
 
   @Override
   public String getTicker() {
-    return ticker;
+    return Symbols.ticker(symbol);
+  }
+
+  @Override
+  public int getSymbol() {
+    return symbol;
   }
 
   @Override
   public double getQuantity() {
-    return quantity;
+    return FixedPoint.fromMicros(microShares);
+  }
+
+  @Override
+  public long getMicroShares() {
+    return microShares;
   }
 
   @Override
@@ -38,12 +67,19 @@ public class Stock implements IStock {
     return datePurchased;
   }
 
+  @Override
+  public double getCostBasis() {
+    return costBasis;
+  }
+
   @Override
   public Stock sellShares(double shares) {
-    if (shares > quantity || shares < 0) {
+    long sold = FixedPoint.toMicros(shares);
+    if (sold > microShares || shares < 0) {
       throw new IllegalArgumentException("Shares cannot be negative.");
     }
-    return new Stock(ticker, quantity - shares, datePurchased);
+    return new Stock(getTicker(), FixedPoint.fromMicros(microShares - sold), datePurchased,
+            costBasis);
   }
 
   @Override
@@ -51,13 +87,17 @@ public class Stock implements IStock {
     if (shares < 0) {
       throw new IllegalArgumentException("Shares cannot be negative.");
     }
-    return new Stock(ticker, quantity + shares, datePurchased);
+    return new Stock(getTicker(), FixedPoint.fromMicros(microShares + FixedPoint.toMicros(shares)),
+            datePurchased, costBasis);
   }
 
   @Override
   public String toString() {
     String output = "";
-    output += ticker + "," + quantity + "," + datePurchased;
+    output += getTicker() + "," + getQuantity() + "," + datePurchased;
+    if (!Double.isNaN(costBasis)) {
+      output += "," + costBasis;
+    }
     return output;
   }
 }
@@ -67,6 +67,25 @@ public class StockControllerImplTest {
     assertEquals(this.mockModel.getPortfolios().size(), 0);
   }
 
+  /**
+   * Tests finding portfolios by name, including after one before them is deleted.
+   */
+  @Test
+  public void testIndexOfPortfolio() {
+    this.mockModel.newPortfolio("First");
+    this.mockModel.newPortfolio("Second");
+    this.mockModel.newPortfolio("Third");
+    List<IPortfolio> view = this.mockModel.getPortfolios();
+    assertEquals(1, this.mockModel.indexOf("Second"));
+    assertEquals(-1, this.mockModel.indexOf("Fourth"));
+    this.mockModel.deletePortfolio(0);
+    assertEquals(0, this.mockModel.indexOf("Second"));
+    assertEquals(1, this.mockModel.indexOf("Third"));
+    assertEquals(-1, this.mockModel.indexOf("First"));
+    assertEquals(2, view.size());
+    assertEquals("Third", view.get(this.mockModel.indexOf("Third")).getName());
+  }
+
   /**
    * Tests the first message displayed by the view when creating a new portfolio.
    */
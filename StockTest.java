@@ -2,6 +2,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Holds all the tests for the Stock class.
@@ -108,4 +109,29 @@ public class StockTest {
     Stock s = s1.sellShares(3.0);
     assertEquals(2.0, s.getQuantity(), 0.01);
   }
+
+  /**
+   * Tests that the cost basis is kept when shares change and is saved as a fourth column.
+   */
+  @Test
+  public void testCostBasis() {
+    Stock s = new Stock("GOOG", 5.0, "2024-06-12", 170.5);
+    assertEquals(170.5, s.sellShares(1).getCostBasis(), 0.01);
+    assertEquals(170.5, s.addShares(1).getCostBasis(), 0.01);
+    assertEquals("GOOG,5.0,2024-06-12,170.5", s.toString());
+    assertTrue(Double.isNaN(s1.getCostBasis()));
+    assertEquals("GOOG,5.0,2024-06-12", s1.toString());
+  }
+
+  /**
+   * Tests that fractional shares are added and sold exactly, without floating-point residue.
+   */
+  @Test
+  public void testExactFractions() {
+    Stock s = new Stock("GOOG", 0.1, "2024-06-12").addShares(0.2);
+    assertEquals(0.3, s.getQuantity(), 0);
+    assertEquals(300000, s.getMicroShares());
+    assertEquals(0, s.sellShares(0.1).sellShares(0.2).getMicroShares());
+    assertEquals("GOOG,0.3,2024-06-12", s.toString());
+  }
 }
\ No newline at end of file
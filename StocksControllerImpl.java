@@ -43,8 +43,8 @@ public class StocksControllerImpl implements StocksController {
   private void choiceHelper() {
     view.welcomeOptions();
     int choice = checkIntScanner();
-    while (choice < 1 || choice > 6) {
-      view.display("Input a valid number between 1 and 6\n");
+    while (choice < 1 || choice > 7) {
+      view.display("Input a valid number between 1 and 7\n");
       choice = checkIntScanner();
     }
     this.scanner.nextLine();
@@ -58,6 +58,8 @@ public class StocksControllerImpl implements StocksController {
       performanceOfStock();
     } else if (choice == 5) {
       portfolioHelper();
+    } else if (choice == 7) {
+      batchGainOrLossHelper();
     } else {
       return;
     }
@@ -117,6 +119,43 @@ public class StocksControllerImpl implements StocksController {
     }
   }
 
+  // reads gain or loss queries from a file and answers all of them in one batch
+  private void batchGainOrLossHelper() {
+    view.display("Please input the path of the file with the queries. Each line should be " +
+            "formatted: TICKER,YYYY-MM-DD,YYYY-MM-DD\n");
+    List<GainLossQuery> queries;
+    while (true) {
+      try {
+        queries = this.model.readGainLossQueries(this.scanner.nextLine());
+        break;
+      } catch (IllegalArgumentException e) {
+        view.display(e.getMessage() + ". Please input a valid file path.\n");
+      }
+    }
+    List<Double> answers = this.model.batchGainOrLoss(queries);
+    StringBuilder output = new StringBuilder();
+    for (int i = 0; i < queries.size(); i++) {
+      GainLossQuery query = queries.get(i);
+      if (answers.get(i).isNaN()) {
+        output.append("No price data for ").append(query.getTicker()).append(" on ")
+                .append(query.getStartDate()).append(" or ").append(query.getEndDate())
+                .append("\n");
+      } else {
+        output.append("The total gain or loss of ").append(query.getTicker())
+                .append(" between ").append(query.getStartDate()).append(" and ")
+                .append(query.getEndDate()).append(" is $")
+                .append(String.format("%.2f", answers.get(i))).append("\n");
+      }
+    }
+    view.display(output.toString());
+    view.display("Press C if you would like to restart, or input anything else to quit the " +
+            "application.\n");
+    String c = this.scanner.nextLine();
+    if (c.equals("C")) {
+      choiceHelper();
+    }
+  }
+
   // checks if the date inputted into the method has stock data
   private String validDateInput(String firstdate) {
     LocalDate date = null;
@@ -351,6 +390,18 @@ public class StocksControllerImpl implements StocksController {
       rebalancePortfolio(index);
     } else if (option == 9) {
       performanceOverTimeHelper(index);
+    } else if (option == 11) {
+      scanner.nextLine();
+      if (model.getPortfolios().get(index).getStockListSize() == 0) {
+        view.display("Cannot sell a stock if there are no stocks in the portfolio. " +
+                "Please add a stock first.\n");
+        portfolioManager(index);
+      } else {
+        sellStock(index);
+      }
+    } else if (option == 12) {
+      scanner.nextLine();
+      profitAndLoss(index);
     } else {
       portfolioHelper();
     }
@@ -372,13 +423,9 @@ public class StocksControllerImpl implements StocksController {
   private void newPortfolio() {
     view.display("Please enter a name for the portfolio:\n");
     String portfolioName = this.scanner.nextLine();
-    if (!(model.getPortfolios().isEmpty())) {
-      for (int i = 0; i < model.getPortfolios().size(); i++) {
-        if (model.getPortfolios().get(i).getName().equals(portfolioName)) {
-          view.display(portfolioName + " is already a portfolio. Please try again.\n");
-          newPortfolio();
-        }
-      }
+    if (model.indexOf(portfolioName) != -1) {
+      view.display(portfolioName + " is already a portfolio. Please try again.\n");
+      newPortfolio();
     }
     model.newPortfolio(portfolioName);
     view.display("Successfully create the new portfolio " + portfolioName + "\n");
@@ -515,12 +562,56 @@ public class StocksControllerImpl implements StocksController {
     } else if (model.getPortfolios().get(index).getIndexes(stock, date).size() > 1) {
       partialShareRemove(index, quantity, stock, date);
     }
-    model.removeStock(index, stock, quantity, -1, false);
+    model.removeStock(index, stock, quantity, -1, false, date);
     view.display("Successfully removed " + quantity + " shares of " + stock +
             " from the portfolio.\n");
     portfolioManager(index);
   }
 
+  // sells shares of a stock from the specified portfolio, letting the user choose which
+  // purchases are sold first
+  private void sellStock(int index) {
+    view.display("Type in the ticker of the stock you wish to sell:\n");
+    String stock = checkValidStock(this.scanner.nextLine());
+    if (!(model.getPortfolios().get(index).containsTicker(stock))) {
+      view.display("Cannot sell " + stock + " because it doesn't exist in the portfolio.\n");
+      portfolioManager(index);
+      return;
+    }
+    view.display("Enter a date in format YYYY-MM-DD\n");
+    String date = checkTransactionDate(index);
+    view.display("Type in the number of shares you wish to sell of " + stock + "\n");
+    int quantity = checkIntScanner();
+    view.display("Select which purchases to sell first:\n"
+            + "1) The oldest purchases (FIFO).\n"
+            + "2) The newest purchases (LIFO).\n"
+            + "3) The purchases that cost the most per share.\n");
+    int choice = checkIntScanner();
+    LotMethod method = choice == 2 ? LotMethod.LIFO
+            : choice == 3 ? LotMethod.HIGHEST_COST : LotMethod.FIFO;
+    if (model.getPortfolios().get(index).getTotalShares(stock, date) < quantity) {
+      view.display("There are not enough shares in the portfolio to sell " + quantity
+              + " shares. Please try again.\n");
+    } else {
+      try {
+        model.sellStock(index, stock, quantity, date, method);
+        model.setDate(index, date);
+        view.display("Successfully sold " + quantity + " shares of " + stock + ".\n");
+      } catch (IllegalArgumentException e) {
+        view.display(e.getMessage() + "\n");
+      }
+    }
+    portfolioManager(index);
+  }
+
+  // displays the realized and unrealized profit or loss of each stock in the portfolio
+  private void profitAndLoss(int index) {
+    view.display("Enter a date in format YYYY-MM-DD\n");
+    String date = validDateInput(scanner.nextLine());
+    view.display(model.profitAndLoss(index, date));
+    portfolioManager(index);
+  }
+
   // allows the user to select what stocks to remove from if there are multiple purchases
   // of a stock on different dates
   private void partialShareRemove(int index, double quantity, String ticker, String date) {
@@ -535,14 +626,16 @@ public class StocksControllerImpl implements StocksController {
         if (choice > 0 && choice <=
                 model.getPortfolios().get(index).getIndexes(ticker, date).size()) {
           if (stockChoice.getQuantity() < numShares) {
-            model.removeStock(index, ticker, stockChoice.getQuantity(), choice - 1, true);
+            model.removeStock(index, ticker, stockChoice.getQuantity(), choice - 1, true,
+                    date);
             numShares -= stockChoice.getQuantity();
           } else if (stockChoice.getQuantity() > numShares) {
             model.removeStock(index, ticker, numShares,
-                    choice - 1, false);
+                    choice - 1, false, date);
             numShares = 0;
           } else if (stockChoice.getQuantity() == numShares) {
-            model.removeStock(index, ticker, stockChoice.getQuantity(), choice - 1, true);
+            model.removeStock(index, ticker, stockChoice.getQuantity(), choice - 1, true,
+                    date);
             numShares -= stockChoice.getQuantity();
           }
         } else {
@@ -67,12 +67,19 @@ public class StocksGUIControllerImpl implements StocksController, Features {
 
   @Override
   public void choosePortfolio(String port) {
-    List<IPortfolio> s = model.getPortfolios();
-    for (int i = 0; i < s.size(); i++) {
-      if (s.get(i).getName().equals(port)) {
-        this.model.saveFile(s.get(i));
-      }
+    int index = this.model.indexOf(port);
+    if (index != -1) {
+      this.model.saveFile(this.model.getPortfolios().get(index));
+    }
+  }
+
+  // the index of the portfolio with the name
+  private int portfolioIndex(String name) {
+    int index = this.model.indexOf(name);
+    if (index == -1) {
+      throw new IllegalArgumentException("Invalid Portfolio.");
     }
+    return index;
   }
 
   @Override
@@ -95,6 +102,12 @@ public class StocksGUIControllerImpl implements StocksController, Features {
 
   @Override
   public void addOrSell(String portfolio, String ticker, String quantity, String date) {
+    addOrSell(portfolio, ticker, quantity, date, LotMethod.FIFO);
+  }
+
+  @Override
+  public void addOrSell(String portfolio, String ticker, String quantity, String date,
+                        LotMethod method) {
     int stocks = 0;
     int t = 0;
     int portIndex = 0;
@@ -110,57 +123,29 @@ public class StocksGUIControllerImpl implements StocksController, Features {
     }
 
     // gets index of portfolio
-    int index = 0;
-    for (int i = 0; i < model.getPortfolios().size(); i++) {
-      if (model.getPortfolios().get(i).getName().equals(portfolio)) {
-        index = i;
-      }
-    }
+    int index = portfolioIndex(portfolio);
 
     // checks if add stocks or remove
     if (t > 0) {
       this.model.addStock(index, ticker, t, date);
     } else {
-      removeStockHelper(index, ticker, Math.abs(t), date);
+      sellStockHelper(index, ticker, Math.abs(t), date, method);
     }
   }
 
-  // removes the specified number of shares from the specified stock in the portfolio
-  private void removeStockHelper(int index, String ticker, int removeQuantity, String date) {
-    // gets total shares of stock in portfolio
-    List<Integer> indexes = model.getPortfolios().get(index).getIndexes(ticker, date);
-    double totalShares = 0;
-    for (int i = 0; i < indexes.size(); i++) {
-      int stockIdx = indexes.get(i);
-      totalShares += model.getPortfolios().get(index).getStock(stockIdx).getQuantity();
-    }
-
-    if (totalShares < removeQuantity) {
+  // sells the specified number of shares of the stock, using up the purchases in the order the
+  // lot method gives
+  private void sellStockHelper(int index, String ticker, int sellQuantity, String date,
+                               LotMethod method) {
+    if (model.getPortfolios().get(index).getTotalShares(ticker, date) < sellQuantity) {
       throw new IllegalArgumentException("Invalid Purchase.");
     }
-
-    while (removeQuantity > 0) {
-      List<Integer> removeIdx = model.getPortfolios().get(index).getIndexes(ticker, date);
-      int stockIdx = removeIdx.get(0);
-      double stockQuantity = model.getPortfolios().get(index).getStock(stockIdx).getQuantity();
-      if (stockQuantity > removeQuantity) {
-        model.removeStock(index, ticker, removeQuantity, stockIdx, false);
-        removeQuantity = 0;
-      } else {
-        model.removeStock(index, ticker, stockQuantity, stockIdx, true);
-        removeQuantity -= stockQuantity;
-      }
-    }
+    this.model.sellStock(index, ticker, sellQuantity, date, method);
   }
 
   @Override
   public void getPortfolioOverview(String selectedItem, String date) {
-    int index = 0;
-    for (int i = 0; i < this.model.getPortfolios().size(); i++) {
-      if (this.model.getPortfolios().get(i).getName().equals(selectedItem)) {
-        index = i;
-      }
-    }
+    int index = portfolioIndex(selectedItem);
 
     if (!this.validDateInput(date)) {
       throw new IllegalArgumentException("Invalid Date.");
@@ -185,16 +170,52 @@ public class StocksGUIControllerImpl implements StocksController, Features {
     double portfolioTotal = 0.0;
     List<String> x = new ArrayList<>();
     for (Stock stock : s) {
-      String y = this.model.checkStockPrice(stock.getTicker());
+      PriceSeries series = this.model.getPriceSeries(stock.getTicker());
       String j = "<html>Ticker: " + stock.getTicker() + "<br>Quantity: " +
               stock.getQuantity() + "<br>Date Purchased: " + stock.getDatePurchased() + "<br>";
-      double total = stock.getQuantity() *
-              this.model.parseHelper(stock.getDatePurchased(), y, stock.getTicker());
+      double total = stock.getQuantity() * series.closeOn(stock.getDatePurchased());
       portfolioTotal += total;
-      j += "Total Value of " + stock.getTicker() + ": " + total + "</html>";
+      j += "Total Value of " + stock.getTicker() + ": " + total + "<br>";
+      j += fiftyTwoWeekHigh(stock.getTicker(), series, date) + "</html>";
       x.add(j);
     }
     x.add("<html>Total Portfolio Overview: " + portfolioTotal + "</html>");
+    x.add(riskSummary(this.model.getPortfolios().get(index), date));
+    x.add(profitSummary(index, date));
     this.view.showPortfolioOverviewPage(x);
   }
+
+  // describes the realized and unrealized profit or loss of each stock on the date
+  private String profitSummary(int index, String date) {
+    try {
+      return "<html>" + this.model.profitAndLoss(index, date).replace("\n", "<br>") + "</html>";
+    } catch (IllegalArgumentException e) {
+      return "<html>Profit and Loss: unavailable</html>";
+    }
+  }
+
+  // describes the risk of the portfolio over the year ending on the date
+  private String riskSummary(IPortfolio port, String date) {
+    String start = LocalDate.parse(date).minusYears(1).toString();
+    try {
+      RiskMetrics risk = this.model.riskMetrics(port, start, date);
+      return "<html>Risk over the past year:<br>" + risk.toString().replace("\n", "<br>")
+              + "</html>";
+    } catch (IllegalArgumentException e) {
+      return "<html>Risk over the past year: unavailable</html>";
+    }
+  }
+
+  // describes how far the stock's close on the date is from its 52-week high
+  private String fiftyTwoWeekHigh(String ticker, PriceSeries series, String date) {
+    RollingExtrema extrema = this.model.getRollingExtrema(ticker, RollingExtrema.FIFTY_TWO_WEEKS);
+    int idx = series.indexAtOrBefore((int) LocalDate.parse(date).toEpochDay());
+    if (idx == -1) {
+      return "52-Week High: unavailable";
+    }
+    double high = extrema.highAt(idx);
+    double distance = (series.getClose(idx) - high) / high * 100;
+    return "52-Week High: " + String.format("%.2f", high) + " (" +
+            String.format("%.2f", distance) + "% from high)";
+  }
 }
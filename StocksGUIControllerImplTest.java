@@ -78,6 +78,16 @@ public class StocksGUIControllerImplTest {
     assertEquals(5.0, model.getPortfolios().get(0).getStock(0).getQuantity(), 0.01);
   }
 
+  /**
+   * Tests that a trade on a portfolio that does not exist is rejected rather than made on
+   * another one.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownPortfolio() {
+    controller.getPortfolioName("Test");
+    controller.addOrSell("Other", "GOOG", "5", "2024-06-03");
+  }
+
   /**
    * Tests that removing more shares than there are in the portfolio of a certain stock
    * will result in an error.
@@ -49,6 +49,7 @@ public class StocksGUIViewImpl extends JFrame implements StocksGUIView {
   private JComboBox portfolioNameBox;
   private JComboBox addStockDropdown;
   private JComboBox portfolioOverview;
+  private JComboBox<LotMethod> lotMethodDropdown;
   private JPanel cards;
 
   /**
@@ -275,10 +276,22 @@ public class StocksGUIViewImpl extends JFrame implements StocksGUIView {
     gbc.fill = GridBagConstraints.HORIZONTAL;
     surveyPanel.add(answer3, gbc);
 
+    JLabel question4 = new JLabel("When selling, which purchases to sell first");
+    gbc.gridx = 0;
+    gbc.gridy = 5;
+    gbc.fill = GridBagConstraints.NONE;
+    surveyPanel.add(question4, gbc);
+
+    lotMethodDropdown = new JComboBox<>(LotMethod.values());
+    gbc.gridx = 1;
+    gbc.gridy = 5;
+    gbc.fill = GridBagConstraints.HORIZONTAL;
+    surveyPanel.add(lotMethodDropdown, gbc);
+
 
     addStockOption = new JButton("Submit");
     gbc.gridx = 0;
-    gbc.gridy = 5;
+    gbc.gridy = 6;
     gbc.gridwidth = 2;
     gbc.fill = GridBagConstraints.NONE;
     gbc.anchor = GridBagConstraints.CENTER;
@@ -287,7 +300,7 @@ public class StocksGUIViewImpl extends JFrame implements StocksGUIView {
     JButton backButton = new JButton("Back to Main Menu");
     backButton.addActionListener(e -> cardLayout.show(cards, "Home"));
     gbc.gridx = 0;
-    gbc.gridy = 6;
+    gbc.gridy = 7;
     gbc.gridwidth = 2;
     gbc.fill = GridBagConstraints.NONE;
     gbc.anchor = GridBagConstraints.CENTER;
@@ -465,7 +478,8 @@ public class StocksGUIViewImpl extends JFrame implements StocksGUIView {
     addStockOption.addActionListener(e -> {
       try {
         features.addOrSell((String) addStockDropdown.getSelectedItem()
-                , answer1.getText(), answer2.getText(), answer3.getText());
+                , answer1.getText(), answer2.getText(), answer3.getText(),
+                (LotMethod) lotMethodDropdown.getSelectedItem());
         answer1.setText("");
         answer2.setText("");
         answer3.setText("");
@@ -40,6 +40,49 @@ public interface StocksModel {
    */
   ArrayList<String> xDayCrossover(String csv, int day, int month, int year, int x, double avg);
 
+  /**
+   * Returns the daily closing prices of the stock. The history is downloaded from the API the
+   * first time a ticker is requested and reused after that, and downloaded again at most once a
+   * day once the market has closed since its last trading day.
+   *
+   * @param stock a String representing the ticker symbol of the stock.
+   * @return a PriceSeries with the closing prices of the stock from oldest to newest.
+   */
+  PriceSeries getPriceSeries(String stock);
+
+  /**
+   * Returns the rolling highs and lows of the stock over windows of the specified number of
+   * trading days. The result is cached per ticker and window until the stock's price history
+   * is downloaded again.
+   *
+   * @param stock  a String representing the ticker symbol of the stock.
+   * @param window an int representing the number of trading days in each window, for example
+   *               RollingExtrema.FIFTY_TWO_WEEKS for the 52-week high and low.
+   * @return a RollingExtrema with the high and low of every window of the stock's history.
+   */
+  RollingExtrema getRollingExtrema(String stock, int window);
+
+  /**
+   * Answers a batch of gain or loss queries. The queries are grouped by ticker so that each
+   * stock's history is fetched at most once, and each date is found with a binary search.
+   *
+   * @param queries a list of GainLossQuery objects representing the stocks and dates to check.
+   * @return a list of doubles where each entry is the gain or loss of the query at the same
+   *          position, or NaN if the stock has no data on one of the query's dates.
+   */
+  List<Double> batchGainOrLoss(List<GainLossQuery> queries);
+
+  /**
+   * Reads gain or loss queries from a file with one query per line, formatted:
+   * 'TICKER,YYYY-MM-DD,YYYY-MM-DD'. Blank lines are skipped.
+   *
+   * @param path a String representing the path of the file to read.
+   * @return a list of the GainLossQuery objects in the file, in the order they appear.
+   * @throws IllegalArgumentException if the file cannot be read or a line is not formatted
+   *                                  correctly.
+   */
+  List<GainLossQuery> readGainLossQueries(String path);
+
   /**
    * Checks if the stock inputted into the method is a valid stock in the market.
    *
@@ -49,12 +92,22 @@ public interface StocksModel {
   boolean checkValidStock(String stock);
 
   /**
-   * Gets the list of portfolios that the user has created.
+   * Gets the list of portfolios that the user has created. The list is a read-only view of the
+   * model's portfolios rather than a copy, so it always shows their current state.
    *
    * @return a list of portfolios representing all the portfolios the user created or removed.
    */
   List<IPortfolio> getPortfolios();
 
+  /**
+   * Finds the portfolio with the specified name without searching the list of portfolios.
+   *
+   * @param portfolioName a String representing the name of the portfolio.
+   * @return an int representing the index of the portfolio in the list of portfolios, the latest
+   *          one if several share the name, or -1 if there is no portfolio with the name.
+   */
+  int indexOf(String portfolioName);
+
   /**
    * Gets the closing price of the stock at a specified date.
    *
@@ -80,7 +133,9 @@ public interface StocksModel {
   double movingavg(String csv, int day, int month, int year, String stock, int x);
 
   /**
-   * Adds a stock and the number of shares to the specified portfolio.
+   * Adds a stock and the number of shares to the specified portfolio. The closing price on the
+   * date is recorded as the cost of each share, or the cost is left unknown if the prices cannot
+   * be fetched.
    *
    * @param index    an int representing the index of the portfolios in the list of portfolios.
    * @param stock    a String representing the ticker symbol of the stock.
@@ -97,6 +152,60 @@ public interface StocksModel {
    */
   void removeStock(int index, String stock, double quantity, int stockIdx, boolean removeFull);
 
+  /**
+   * Removes a number of shares from the specified portfolio as of a date, so the shares still
+   * count as held from their purchase until then.
+   *
+   * @param index    an int representing the index of the portfolios in the list of portfolios.
+   * @param stock    a String representing the ticker symbol of the stock.
+   * @param quantity the number of shares to remove from the portfolio.
+   * @param date     a String representing the date of the removal in 'YYYY-MM-DD' format.
+   * @throws IllegalArgumentException if the shares were bought after the date.
+   */
+  void removeStock(int index, String stock, double quantity, int stockIdx, boolean removeFull,
+                   String date);
+
+  /**
+   * Sells shares of a stock in the specified portfolio at the closing price on the date,
+   * choosing which purchases to sell from with the lot method, and records the gain or loss.
+   *
+   * @param index    an int representing the index of the portfolios in the list of portfolios.
+   * @param stock    a String representing the ticker symbol of the stock.
+   * @param quantity the number of shares to sell.
+   * @param date     a String representing the date of the sale in format YYYY-MM-DD.
+   * @param method   the LotMethod deciding which purchases are sold first.
+   * @throws IllegalArgumentException if there is no price for the stock on or before the date or
+   *                                  not enough shares were bought by the date.
+   */
+  void sellStock(int index, String stock, double quantity, String date, LotMethod method);
+
+  /**
+   * Makes a batch of trades on the specified portfolio as one transaction. Each trade is priced
+   * at the closing price on its date, with a purchase's cost left unknown if the prices cannot
+   * be fetched, and the trades are made in order. The portfolio only changes if every trade
+   * succeeds, and then its last transaction date becomes the date of the last trade.
+   *
+   * @param index  an int representing the index of the portfolios in the list of portfolios.
+   * @param trades a list of Trade objects in chronological order.
+   * @throws IllegalArgumentException if the trades are not in chronological order or start
+   *                                  before the portfolio's last transaction, a stock has no
+   *                                  price on or before a sale's date, or a sale needs more
+   *                                  shares than were bought by its date.
+   */
+  void applyBatch(int index, List<Trade> trades);
+
+  /**
+   * Reports the realized and unrealized profit or loss of each stock in the specified portfolio
+   * on a date. Realized gains come from sales made on or before the date and unrealized gains
+   * compare the closing price on the date with the cost of the shares held on the date. Shares
+   * bought without a recorded cost are left out of both and counted on the stock's line.
+   *
+   * @param index an int representing the index of the portfolios in the list of portfolios.
+   * @param date  a String representing the date in format YYYY-MM-DD.
+   * @return a String with one line per stock and the portfolio totals.
+   */
+  String profitAndLoss(int index, String date);
+
   /**
    * Deletes the portfolio at the specified index in the list of portfolios created by the user.
    *
@@ -180,6 +289,8 @@ public interface StocksModel {
    * @param date    a String representing the specified date in format YYYY-MM-DD.
    * @return a formatted String with each stock, the value of the stock after re-balance, and
    *          what weight of the portfolio the stocks takes up after re-balance.
+   * @throws IllegalArgumentException if the date is before the portfolio's last transaction,
+   *                                  since the trades are made as one batch.
    */
   String rebalancePortfolio(List<Integer> weights, int index, String date);
 
@@ -204,9 +315,148 @@ public interface StocksModel {
    */
   boolean checkTranscationOrder(int index, String date);
 
+  /**
+   * Computes the covariance and correlation of the daily returns of the stocks held in the
+   * portfolio on the end date, over the trading days between the two dates that every stock
+   * has data for.
+   *
+   * @param port      the portfolio whose holdings are compared.
+   * @param startDate a String representing the first date of the range in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date of the range in format YYYY-MM-DD.
+   * @return a CovarianceMatrix with one row and column per stock held on the end date.
+   * @throws IllegalArgumentException if the stocks share fewer than three trading days in the
+   *                                  range.
+   */
+  CovarianceMatrix correlationMatrix(IPortfolio port, String startDate, String endDate);
+
+  /**
+   * Builds the value of the portfolio on every trading day between the two dates, along with
+   * the money added to it on each day.
+   *
+   * @param port      the portfolio to value.
+   * @param startDate a String representing the first date of the range in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date of the range in format YYYY-MM-DD.
+   * @return a ValueSeries with one entry per trading day every held stock has data for.
+   */
+  ValueSeries portfolioValueSeries(IPortfolio port, String startDate, String endDate);
+
+  /**
+   * Gets the value of the specified portfolio on every day from its first transaction to the
+   * specified date. The values are built the first time they are asked for and then kept, and
+   * each later transaction only patches the days it affects, so reading a day's value is a
+   * single array lookup. Days valued before newer closing prices were downloaded are valued
+   * again.
+   *
+   * @param index    an int representing the index of the portfolios in the list of portfolios.
+   * @param lastDate a String representing the last date to value in format YYYY-MM-DD.
+   * @return a DailyValuation of the portfolio through at least the date.
+   */
+  DailyValuation dailyValuation(int index, String lastDate);
+
+  /**
+   * Values the holdings of the specified portfolio on a date in one pass, pricing each stock
+   * once. The portfolio value, distribution of value and re-balancing are all worked out from
+   * this result.
+   *
+   * @param index an int representing the index of the portfolios in the list of portfolios.
+   * @param date  a String representing the date in format YYYY-MM-DD.
+   * @return a Valuation with each holding's price, quantity, value and weight and the total.
+   * @throws IllegalArgumentException if a stock held has no closing price on the date.
+   */
+  Valuation valuation(int index, String date);
+
+  /**
+   * Computes the annualized volatility, maximum drawdown and historical value at risk of the
+   * portfolio over the trading days between the two dates.
+   *
+   * @param port      the portfolio to measure.
+   * @param startDate a String representing the first date of the range in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date of the range in format YYYY-MM-DD.
+   * @return a RiskMetrics object describing the portfolio over the range.
+   * @throws IllegalArgumentException if the range has fewer than two daily returns.
+   */
+  RiskMetrics riskMetrics(IPortfolio port, String startDate, String endDate);
+
+  /**
+   * Computes the time-weighted and money-weighted returns of the portfolio between the two
+   * dates, valuing the portfolio once per trading day.
+   *
+   * @param port      the portfolio to measure.
+   * @param startDate a String representing the first date of the range in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date of the range in format YYYY-MM-DD.
+   * @return a ReturnReport that can answer for any sub-period of the range.
+   * @throws IllegalArgumentException if the portfolio has no data in the range.
+   */
+  ReturnReport portfolioReturns(IPortfolio port, String startDate, String endDate);
+
+  /**
+   * Compares the daily performance of the portfolio with a benchmark ticker between the two
+   * dates.
+   *
+   * @param port      the portfolio to compare.
+   * @param benchmark a String representing the ticker of the benchmark, like SPY or QQQ.
+   * @param startDate a String representing the first date of the range in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date of the range in format YYYY-MM-DD.
+   * @return a BenchmarkComparison with alpha, beta, tracking error and the relative curve.
+   * @throws IllegalArgumentException if the portfolio and benchmark share too few trading days.
+   */
+  BenchmarkComparison compareToBenchmark(IPortfolio port, String benchmark, String startDate,
+                                         String endDate);
+
+  /**
+   * Projects the value of the portfolio the specified number of trading days after the date by
+   * simulating paths from the daily returns of its holdings over the year before the date.
+   *
+   * @param port   the portfolio to project.
+   * @param date   a String representing the date to project from in format YYYY-MM-DD.
+   * @param days   an int representing how many trading days ahead to project.
+   * @param paths  an int representing how many paths to simulate.
+   * @param method the way each path is drawn from the historical returns.
+   * @return a ValueProjection with the simulated values at the end of the horizon.
+   * @throws IllegalArgumentException if the portfolio holds nothing on the date or there is not
+   *                                  enough price history.
+   */
+  ValueProjection projectValue(IPortfolio port, String date, int days, int paths,
+                               MonteCarloEngine.Method method);
+
+  /**
+   * Replays a trading strategy over the price history of a stock between two dates, starting
+   * with the specified cash.
+   *
+   * @param ticker    a String representing the ticker symbol of the stock to trade.
+   * @param strategy  the Strategy deciding when to buy and sell.
+   * @param cash      a double representing the cash available on the first day.
+   * @param startDate a String representing the first date to trade in format YYYY-MM-DD.
+   * @param endDate   a String representing the last date to trade in format YYYY-MM-DD.
+   * @return a BacktestResult with the equity curve, trades and final portfolio.
+   * @throws IllegalArgumentException if the stock has no data in the range.
+   */
+  BacktestResult backtest(String ticker, Strategy strategy, double cash, String startDate,
+                          String endDate);
+
+  /**
+   * Backtests the moving average crossover strategy on a stock for every pair of window and
+   * threshold, spreading the backtests over the sweep's pool.
+   *
+   * @param ticker     a String representing the ticker symbol of the stock to trade.
+   * @param sweep      the ParameterSweep to run, which can be cancelled from another thread.
+   * @param windows    an array of ints representing the moving average windows to test.
+   * @param thresholds an array of doubles representing the crossover thresholds to test.
+   * @param cash       a double representing the cash available on the first day.
+   * @param startDate  a String representing the first date to trade in format YYYY-MM-DD.
+   * @param endDate    a String representing the last date to trade in format YYYY-MM-DD.
+   * @return a list of SweepResults for the combinations that finished.
+   * @throws IllegalArgumentException if the stock has no data in the range.
+   */
+  List<SweepResult> optimizeCrossover(String ticker, ParameterSweep sweep, int[] windows,
+                                      double[] thresholds, double cash, String startDate,
+                                      String endDate);
+
   /**
    * Calculates the performance of a portfolio over time and returns the information as a
-   * hashmap with each date corresponding to a specific value.
+   * hashmap with each date corresponding to a specific value. Each value counts the holdings on
+   * that date and is read from the portfolio's daily values, the ones dailyValuation keeps for a
+   * portfolio in the model.
    *
    * @param port The portfolio the user wants to calculate the performance over time for.
    * @param days The number of days back the user wants to see the performance of.
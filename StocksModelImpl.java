@@ -1,7 +1,6 @@
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -12,10 +11,21 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * The StocksModelImpl class implements the StocksModel interface and provides
@@ -24,21 +34,61 @@ import java.util.Scanner;
  * performing technical analysis, and calculating portfolio values.
  */
 public class StocksModelImpl implements StocksModel {
-  private List<IPortfolio> portfolios;
+  // one slot per portfolio, each holding the portfolio's latest version
+  private final List<AtomicReference<IPortfolio>> slots;
+  // a read-only view of the latest version in each slot
+  private final List<IPortfolio> portfolios;
+  // the slots of the portfolios with each name, oldest first
+  private final Map<String, List<AtomicReference<IPortfolio>>> named;
+  // the position of each slot in the list, so finding a portfolio by name does not search it
+  private final Map<AtomicReference<IPortfolio>, Integer> positions;
+  // the daily values of the portfolios that have been asked for, by slot
+  private final Map<AtomicReference<IPortfolio>, DailyValuation> valuations;
+  // the value of each portfolio on the latest day its value was asked for, by slot
+  private final Map<AtomicReference<IPortfolio>, RunningValue> latest;
+  // price histories by the ticker's id in Symbols
+  private final Map<Integer, PriceSeries> priceCache;
+  // the epoch day each kept price history was last fetched, by the ticker's id in Symbols
+  private final Map<Integer, Integer> fetchedOn;
+  // rolling extrema by the ticker's id in the high half and the window in the low half
+  private final Map<Long, RollingExtrema> extremaCache;
+  // held to read while working on the slot at an index, and to write while adding or deleting
+  // a portfolio, so an index never moves to another portfolio part way through a change
+  private final ReadWriteLock lock;
 
   /**
-   * Constructs a StocksModelImpl object taking in no arguments.
+   * Constructs a StocksModelImpl object taking in no arguments. The model may be shared between
+   * threads. Portfolios are never modified, so reading one needs no lock, and a change to one
+   * portfolio swaps in its new version without waiting on changes to any other. Only creating
+   * and deleting portfolios wait for the changes in progress.
    */
   public StocksModelImpl() {
-    this.portfolios = new ArrayList<>();
+    this.slots = new CopyOnWriteArrayList<>();
+    this.portfolios = new AbstractList<IPortfolio>() {
+      @Override
+      public IPortfolio get(int index) {
+        return slots.get(index).get();
+      }
+
+      @Override
+      public int size() {
+        return slots.size();
+      }
+    };
+    this.named = new ConcurrentHashMap<>();
+    this.positions = new ConcurrentHashMap<>();
+    this.valuations = new ConcurrentHashMap<>();
+    this.latest = new ConcurrentHashMap<>();
+    this.priceCache = new ConcurrentHashMap<>();
+    this.fetchedOn = new ConcurrentHashMap<>();
+    this.extremaCache = new ConcurrentHashMap<>();
+    this.lock = new ReentrantReadWriteLock();
   }
 
   // ----------------------------------- Portfolio -------------------------------------------
   @Override
   public void setDate(int index, String date) {
-    IPortfolio tempPortfolio = this.portfolios.get(index);
-    tempPortfolio.setDate(date);
-    this.portfolios.set(index, tempPortfolio);
+    update(index, port -> port.withDate(date));
   }
 
   @Override
@@ -54,29 +104,158 @@ public class StocksModelImpl implements StocksModel {
 
   @Override
   public void newPortfolio(String portfolioName) {
-    this.portfolios.add(new Portfolio(portfolioName));
+    register(new Portfolio(portfolioName));
   }
 
   @Override
   public List<IPortfolio> getPortfolios() {
-    return new ArrayList<>(this.portfolios);
+    return this.portfolios;
+  }
+
+  @Override
+  public int indexOf(String portfolioName) {
+    this.lock.readLock().lock();
+    try {
+      List<AtomicReference<IPortfolio>> withName = this.named.get(portfolioName);
+      if (withName == null) {
+        return -1;
+      }
+      return this.positions.get(withName.get(withName.size() - 1));
+    } finally {
+      this.lock.readLock().unlock();
+    }
   }
 
   @Override
   public void addStock(int index, String stock, double quantity, String date) {
-    this.portfolios.set(index, this.portfolios.get(index).addStock(stock, quantity, date));
+    double price = purchasePrice(stock, date);
+    update(index, port -> port.addStock(stock, quantity, date, price));
   }
 
   @Override
   public void removeStock(int index, String stock, double quantity, int stockIdx,
                           boolean removeFull) {
-    this.portfolios.set(index, this.portfolios.get(index)
-            .removeStock(stock, quantity, stockIdx, removeFull));
+    update(index, port -> port.removeStock(stock, quantity, stockIdx, removeFull));
+  }
+
+  @Override
+  public void removeStock(int index, String stock, double quantity, int stockIdx,
+                          boolean removeFull, String date) {
+    update(index, port -> port.removeStock(stock, quantity, stockIdx, removeFull, date));
+  }
+
+  @Override
+  public void sellStock(int index, String stock, double quantity, String date,
+                        LotMethod method) {
+    double price = closeAtOrBefore(stock, date);
+    if (Double.isNaN(price)) {
+      throw new IllegalArgumentException("No data found for " + stock + " on the date: " + date);
+    }
+    update(index, port -> port.sellStock(stock, quantity, date, price, method));
+  }
+
+  @Override
+  public void applyBatch(int index, List<Trade> trades) {
+    if (trades.isEmpty()) {
+      return;
+    }
+    String first = trades.get(0).getDate();
+    String last = first;
+    // every trade is priced before the portfolio is touched
+    List<PortfolioEvent> events = new ArrayList<>(trades.size());
+    for (Trade trade : trades) {
+      if (trade.getDate().compareTo(last) < 0) {
+        throw new IllegalArgumentException("Transactions must be done in chronological order.");
+      }
+      last = trade.getDate();
+      double price = trade.isBuy() ? purchasePrice(trade.getTicker(), trade.getDate())
+              : closeAtOrBefore(trade.getTicker(), trade.getDate());
+      if (!trade.isBuy() && Double.isNaN(price)) {
+        throw new IllegalArgumentException("No data found for " + trade.getTicker()
+                + " on the date: " + trade.getDate());
+      }
+      events.add(trade.toEvent(price));
+    }
+    String date = last;
+    update(index, port -> {
+      // checked against the version being changed, so a transaction made by another thread since
+      // the trades were priced is not jumped ahead of
+      if (!port.getDate().isEmpty() && first.compareTo(port.getDate()) < 0) {
+        throw new IllegalArgumentException("Transactions must be done in chronological order.");
+      }
+      // a failed trade throws before the new version is published, leaving the portfolio as it was
+      IPortfolio result = port;
+      for (PortfolioEvent event : events) {
+        result = event.applyTo(result);
+      }
+      return result.withDate(date);
+    });
+  }
+
+  @Override
+  public String profitAndLoss(int index, String date) {
+    IPortfolio port = this.portfolios.get(index);
+    IPortfolio held = port.holdingsOn(date);
+    // the realized and unrealized gain of each stock and the shares whose cost is unknown
+    Map<String, double[]> totals = new LinkedHashMap<>();
+    for (int i = 0; i < held.getStockListSize(); i++) {
+      Stock lot = held.getStock(i);
+      double[] row = totals.computeIfAbsent(lot.getTicker(), t -> new double[3]);
+      if (Double.isNaN(lot.getCostBasis())) {
+        row[2] += lot.getQuantity();
+      } else {
+        row[1] += lot.getQuantity() * (closeAtOrBefore(lot.getTicker(), date)
+                - lot.getCostBasis());
+      }
+    }
+    for (RealizedGain gain : port.getRealizedGains(date)) {
+      double[] row = totals.computeIfAbsent(gain.getTicker(), t -> new double[3]);
+      if (Double.isNaN(gain.getGain())) {
+        row[2] += gain.getQuantity();
+      } else {
+        row[0] += gain.getGain();
+      }
+    }
+    String output = "Profit and Loss - Portfolio: " + port.getName() + "\n";
+    double realized = 0;
+    double unrealized = 0;
+    for (Map.Entry<String, double[]> entry : totals.entrySet()) {
+      double[] row = entry.getValue();
+      output += entry.getKey() + ": Realized $" + String.format("%.2f", row[0])
+              + " - Unrealized $" + String.format("%.2f", row[1]);
+      if (row[2] > 0) {
+        output += " - Cost unknown for " + row[2] + " shares";
+      }
+      output += "\n";
+      realized += row[0];
+      unrealized += row[1];
+    }
+    output += "-------------------------\nTotal: Realized $" + String.format("%.2f", realized)
+            + " - Unrealized $" + String.format("%.2f", unrealized) + "\n";
+    return output;
   }
 
   @Override
   public void deletePortfolio(int index) {
-    this.portfolios.remove(index);
+    this.lock.writeLock().lock();
+    try {
+      AtomicReference<IPortfolio> removed = this.slots.remove(index);
+      this.positions.remove(removed);
+      // the portfolios after it move up one place
+      for (int i = index; i < this.slots.size(); i++) {
+        this.positions.put(this.slots.get(i), i);
+      }
+      this.valuations.remove(removed);
+      this.latest.remove(removed);
+      // an older portfolio with the same name is found by it again
+      this.named.computeIfPresent(removed.get().getName(), (name, withName) -> {
+        List<AtomicReference<IPortfolio>> rest = new ArrayList<>(withName);
+        rest.remove(removed);
+        return rest.isEmpty() ? null : rest;
+      });
+    } finally {
+      this.lock.writeLock().unlock();
+    }
   }
 
   @Override
@@ -90,30 +269,36 @@ public class StocksModelImpl implements StocksModel {
 
   @Override
   public String portfolioValue(String date, int index) {
-    List<Stock> stocks = this.portfolios.get(index).distributionOfValue(date);
-    double sum = 0;
+    int day = (int) LocalDate.parse(date).toEpochDay();
+    return withSlot(index, slot -> {
+      RunningValue cached = this.latest.get(slot);
+      IPortfolio port = slot.get();
+      // an older day is answered in full below rather than moving the total back
+      RunningValue running = cached == null ? RunningValue.of(port, this::getPriceSeries, day)
+              : cached.apply(port, this::getPriceSeries)
+              .advanceTo(port, this::getPriceSeries, day);
+      keep(this.latest, slot, cached, running);
+      if (running.getDay() == day && running.isExact()) {
+        return valueMessage(running.getRoundedTotal());
+      }
+      return valueMessage(Valuation.of(port, date, this::getPriceSeries).getRoundedTotal());
+    });
+  }
 
-    int stockListLength = stocks.size();
-    for (int i = 0; i < stockListLength; i++) {
-      String currentStock = stocks.get(i).getTicker();
-      double currentQuantity = stocks.get(i).getQuantity();
-      String output = this.checkStockPrice(currentStock);
-      sum += this.parseHelper(date, output, currentStock) * currentQuantity;
-    }
-    return "The value of the portfolio is " + String.format("%.2f", sum) + "\n";
+  @Override
+  public Valuation valuation(int index, String date) {
+    return Valuation.of(this.portfolios.get(index), date, this::getPriceSeries);
   }
 
   @Override
   public String distributionOfValue(int index, String date) {
-    double portfolioValue = Double.valueOf(portfolioValue(date, index).substring(30));
-    List<Stock> workList = this.portfolios.get(index).distributionOfValue(date);
-    String output = "Distribution of Value - Portfolio: " + this.portfolios.get(index).getName() +
-            "\n";
-    for (Stock stock : workList) {
-      String csv = checkStockPrice(stock.getTicker());
-      double stockVal = (parseHelper(date, csv, stock.getTicker())) * stock.getQuantity();
+    Valuation valuation = valuation(index, date);
+    double portfolioValue = valuation.getRoundedTotal();
+    String output = "Distribution of Value - Portfolio: " + valuation.getName() + "\n";
+    for (int i = 0; i < valuation.size(); i++) {
+      double stockVal = valuation.getValue(i);
       double percent = (stockVal / portfolioValue) * 100;
-      output += stock.getTicker() + ": $" + String.format("%.2f", stockVal) + " - " +
+      output += valuation.getTicker(i) + ": $" + String.format("%.2f", stockVal) + " - " +
               String.format("%.2f", percent) + "%\n";
     }
     output += "-------------------------\nTotal: $" + portfolioValue + " - 100.00%\n";
@@ -127,107 +312,218 @@ public class StocksModelImpl implements StocksModel {
 
   @Override
   public String rebalancePortfolio(List<Integer> weights, int index, String date) {
-    double portfolioValue = Double.valueOf(portfolioValue(date, index).substring(30));
-    List<Stock> workList = this.portfolios.get(index).distributionOfValue(date);
+    Valuation valuation = valuation(index, date);
+    double portfolioValue = valuation.getRoundedTotal();
+    List<Trade> trades = new ArrayList<>();
     for (int i = 0; i < weights.size(); i++) {
-      Stock currStock = workList.get(i);
-      String csv = checkStockPrice(currStock.getTicker());
-      double stockVal = parseHelper(date, csv, currStock.getTicker());
+      String ticker = valuation.getTicker(i);
+      double stockVal = valuation.getPrice(i);
       int currWeight = weights.get(i);
-      double oldQuantity = currStock.getQuantity();
-      double newQuantity = ((currWeight * portfolioValue) / (100 * stockVal));
-
-      if (newQuantity > oldQuantity) {
-        addStock(index, currStock.getTicker(), newQuantity - oldQuantity, date);
-      } else if (oldQuantity > newQuantity) {
-        List<Integer> indexes = this.portfolios.get(index).getIndexes(currStock.getTicker(), date);
-        if (indexes.size() > 1) {
-          for (int j = 0; j < indexes.size(); j++) {
-            double quantityChange = Math.abs(newQuantity - oldQuantity);
-            if (this.portfolios.get(index).getStock(indexes.get(i))
-                    .getQuantity() > quantityChange) {
-              removeStock(index, currStock.getTicker(), quantityChange,
-                      indexes.get(i), false);
-            }
-          }
-        } else {
-          removeStock(index, currStock.getTicker(), oldQuantity - newQuantity, -1, false);
-        }
+      long newQuantity = FixedPoint.toMicros((currWeight * portfolioValue) / (100 * stockVal));
+      long change = newQuantity - valuation.getMicroShares(i);
+
+      if (Math.abs(FixedPoint.value(change, stockVal)) < FixedPoint.HALF_CENT) {
+        // a trade worth less than half a cent would only churn tiny lots
+        continue;
+      } else if (change > 0) {
+        trades.add(Trade.buy(ticker, FixedPoint.fromMicros(change), date));
+      } else {
+        trades.add(Trade.sell(ticker, FixedPoint.fromMicros(-change), date,
+                LotMethod.FIFO));
       }
     }
+    applyBatch(index, trades);
     return distributionOfValue(index, date);
   }
 
   @Override
   public HashMap<String, Double> calculatePerformanceOverTime(IPortfolio port, int days,
                                                               String date) {
-    LocalDate date2 = LocalDate.parse(date);
-    IPortfolio tempPort = new Portfolio("Temp");
-    for (int i = 0; i < port.getStockListSize(); i++) {
-      LocalDate date1 = LocalDate.parse(port.getStock(i).getDatePurchased());
-      if (date2.isAfter(date1)) {
-        Stock tempStock = port.getStock(i);
-        tempPort = port.addStock(tempStock.getTicker(), 0, tempStock.getDatePurchased());
-      }
+    return getGraphData(port, days, date);
+  }
+
+  @Override
+  public CovarianceMatrix correlationMatrix(IPortfolio port, String startDate, String endDate) {
+    List<PriceSeries> series = new ArrayList<>();
+    for (Stock stock : port.distributionOfValue(endDate)) {
+      series.add(getPriceSeries(stock.getTicker()));
+    }
+    return CovarianceEngine.compute(series, (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public ValueSeries portfolioValueSeries(IPortfolio port, String startDate, String endDate) {
+    return ValueSeries.of(port, this::getPriceSeries,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public DailyValuation dailyValuation(int index, String lastDate) {
+    int lastDay = (int) LocalDate.parse(lastDate).toEpochDay();
+    return withSlot(index, slot -> slotValuation(slot, lastDay));
+  }
+
+  @Override
+  public RiskMetrics riskMetrics(IPortfolio port, String startDate, String endDate) {
+    return RiskMetrics.of(portfolioValueSeries(port, startDate, endDate));
+  }
+
+  @Override
+  public ReturnReport portfolioReturns(IPortfolio port, String startDate, String endDate) {
+    return new ReturnReport(portfolioValueSeries(port, startDate, endDate));
+  }
+
+  @Override
+  public BenchmarkComparison compareToBenchmark(IPortfolio port, String benchmark,
+                                                String startDate, String endDate) {
+    return BenchmarkComparison.compare(portfolioValueSeries(port, startDate, endDate),
+            getPriceSeries(benchmark));
+  }
+
+  @Override
+  public ValueProjection projectValue(IPortfolio port, String date, int days, int paths,
+                                      MonteCarloEngine.Method method) {
+    List<Stock> held = port.distributionOfValue(date);
+    if (held.isEmpty()) {
+      throw new IllegalArgumentException("The portfolio holds no stocks on " + date + ".");
+    }
+    List<PriceSeries> series = new ArrayList<>();
+    for (Stock stock : held) {
+      series.add(getPriceSeries(stock.getTicker()));
+    }
+    AlignedSeries aligned = AlignedSeries.align(series,
+            (int) LocalDate.parse(date).minusYears(1).toEpochDay(),
+            (int) LocalDate.parse(date).toEpochDay());
+    if (aligned.size() == 0) {
+      throw new IllegalArgumentException("No data found for the portfolio before " + date + ".");
+    }
+    double[] holdings = new double[held.size()];
+    double[][] returns = new double[held.size()][];
+    for (int i = 0; i < held.size(); i++) {
+      holdings[i] = held.get(i).getQuantity() * aligned.getValue(i, aligned.size() - 1);
+      returns[i] = aligned.returns(i);
+    }
+    return MonteCarloEngine.simulate(holdings, returns, days, paths, method,
+            new SplittableRandom());
+  }
+
+  @Override
+  public BacktestResult backtest(String ticker, Strategy strategy, double cash,
+                                 String startDate, String endDate) {
+    return Backtester.run(getPriceSeries(ticker), strategy, cash,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  @Override
+  public List<SweepResult> optimizeCrossover(String ticker, ParameterSweep sweep, int[] windows,
+                                             double[] thresholds, double cash,
+                                             String startDate, String endDate) {
+    return sweep.run(getPriceSeries(ticker), windows, thresholds, cash,
+            (int) LocalDate.parse(startDate).toEpochDay(),
+            (int) LocalDate.parse(endDate).toEpochDay());
+  }
+
+  // the closing price of the stock on the last trading day on or before the date, or NaN
+  private double closeAtOrBefore(String ticker, String date) {
+    PriceSeries series = getPriceSeries(ticker);
+    int idx = series.indexAtOrBefore((int) LocalDate.parse(date).toEpochDay());
+    return idx == -1 ? Double.NaN : series.getClose(idx);
+  }
+
+  // the cost of a purchase, or NaN when the prices cannot be fetched so the purchase is still
+  // made with its cost unknown
+  private double purchasePrice(String ticker, String date) {
+    try {
+      return closeAtOrBefore(ticker, date);
+    } catch (IllegalArgumentException e) {
+      return Double.NaN;
     }
-    HashMap<String, Double> ans = new HashMap<>();
-    ans = getGraphData(tempPort, days, date);
-    return ans;
   }
 
   // Uses a portfolio, date, and two integers that help display the graph
-  // to gather data about the portfolio port ending on the date input.
+  // to gather data about the portfolio port ending on the date input. Each point is read from
+  // the portfolio's daily values, so no prices are downloaded again.
   private HashMap<String, Double> yearGraph(IPortfolio port, String date, int option,
                                             int repeat) {
     HashMap<String, Double> ans = new HashMap<>();
-    double price;
-    // add date and price to hashmap
-    for (int i = 0; i < port.getStockListSize(); i++) {
-      String csv = checkStockPrice(port.getStock(i).getTicker());
-      String date1 = date;
-      for (int j = 0; j < repeat; j++) {
-        while (true) {
-          try {
-            price = parseHelper(date1, csv, port.getStock(i).getTicker());
-            double tempPrice;
-            if (ans.get(date1) == null) {
-              tempPrice = 0.0;
-            } else {
-              tempPrice = ans.get(date1);
-            }
-            price = price * port.getStock(i).getQuantity();
-            price = tempPrice + price;
-            ans.put(date1, price);
-            break;
-          } catch (IllegalArgumentException e) {
-            date1 = LocalDate.parse(date1).minusDays(1).toString();
-          }
-        }
-        if (option == 365) {
-          LocalDate d = LocalDate.parse(date1).minusMonths(1);
-          date1 = YearMonth.from(d).atEndOfMonth().toString();
-        } else if (option == 180) {
-          LocalDate d = LocalDate.parse(date1).minusWeeks(2);
-          date1 = d.toString();
-        } else if (option == 90) {
-          LocalDate d = LocalDate.parse(date1).minusWeeks(1);
-          date1 = d.toString();
-        } else if (option == 30) {
-          LocalDate d = LocalDate.parse(date1).minusDays(3);
-          date1 = d.toString();
-        } else if (option == 14) {
-          LocalDate d = LocalDate.parse(date1).minusDays(1);
-          date1 = d.toString();
-        } else if (option == 5) {
-          LocalDate d = LocalDate.parse(date1).minusDays(1);
-          date1 = d.toString();
-        }
+    DailyValuation valuation = valuationOf(port, (int) LocalDate.parse(date).toEpochDay());
+    List<PriceSeries> held = new ArrayList<>();
+    for (Stock stock : port.distributionOfValue(date)) {
+      held.add(getPriceSeries(stock.getTicker()));
+    }
+    String date1 = date;
+    for (int j = 0; j < repeat; j++) {
+      int day = lastTradingDay(held, (int) LocalDate.parse(date1).toEpochDay());
+      date1 = LocalDate.ofEpochDay(day).toString();
+      ans.put(date1, valuation.valueOn(day));
+      if (option == 365) {
+        LocalDate d = LocalDate.parse(date1).minusMonths(1);
+        date1 = YearMonth.from(d).atEndOfMonth().toString();
+      } else if (option == 180) {
+        LocalDate d = LocalDate.parse(date1).minusWeeks(2);
+        date1 = d.toString();
+      } else if (option == 90) {
+        LocalDate d = LocalDate.parse(date1).minusWeeks(1);
+        date1 = d.toString();
+      } else if (option == 30) {
+        LocalDate d = LocalDate.parse(date1).minusDays(3);
+        date1 = d.toString();
+      } else if (option == 14) {
+        LocalDate d = LocalDate.parse(date1).minusDays(1);
+        date1 = d.toString();
+      } else if (option == 5) {
+        LocalDate d = LocalDate.parse(date1).minusDays(1);
+        date1 = d.toString();
       }
-
     }
     return ans;
   }
 
+  // the latest day on or before the day that any of the stocks closed on, or the day itself if
+  // none has closed by then
+  private static int lastTradingDay(List<PriceSeries> held, int day) {
+    int latest = -1;
+    for (PriceSeries series : held) {
+      int idx = series.indexAtOrBefore(day);
+      if (idx != -1) {
+        latest = Math.max(latest, series.getEpochDay(idx));
+      }
+    }
+    return latest == -1 ? day : latest;
+  }
+
+  // the daily values of the portfolio, kept with its slot when it is the latest version of a
+  // portfolio in the model and built just for this call otherwise
+  private DailyValuation valuationOf(IPortfolio port, int lastDay) {
+    this.lock.readLock().lock();
+    try {
+      for (AtomicReference<IPortfolio> slot
+              : this.named.getOrDefault(port.getName(), Collections.emptyList())) {
+        if (slot.get() == port) {
+          return slotValuation(slot, lastDay);
+        }
+      }
+    } finally {
+      this.lock.readLock().unlock();
+    }
+    return DailyValuation.of(port, this::getPriceSeries, lastDay);
+  }
+
+  // brings the slot's kept daily values up to date with its portfolio and the day
+  private DailyValuation slotValuation(AtomicReference<IPortfolio> slot, int lastDay) {
+    DailyValuation cached = this.valuations.get(slot);
+    IPortfolio port = slot.get();
+    DailyValuation result = cached == null
+            ? DailyValuation.of(port, this::getPriceSeries, lastDay)
+            : cached.apply(port, this::getPriceSeries).reprice(port, this::getPriceSeries)
+            .extendTo(port, this::getPriceSeries, lastDay);
+    keep(this.valuations, slot, cached, result);
+    return result;
+  }
+
   // uses information provided by the user to call YearGraph, which will then
   // actually calculate the hashmap of data, with each String which is a date,
   // corresponding to the value of the portfolio on that day.
@@ -281,39 +577,120 @@ public class StocksModelImpl implements StocksModel {
     return output.toString();
   }
 
+  @Override
+  public PriceSeries getPriceSeries(String stock) {
+    int symbol = Symbols.find(stock);
+    int today = (int) LocalDate.now().toEpochDay();
+    PriceSeries series = symbol == -1 ? null : this.priceCache.get(symbol);
+    if (series == null) {
+      series = PriceSeries.fromCsv(stock, checkStockPrice(stock));
+      // an empty series means the API refused the request, so it is not kept and the ticker is
+      // not given an id
+      if (series.size() > 0) {
+        int id = Symbols.id(stock);
+        this.priceCache.put(id, series);
+        this.fetchedOn.put(id, today);
+      }
+    } else if (series.isBehind(today) && this.fetchedOn.getOrDefault(symbol, -1) != today) {
+      // a kept series is fetched again at most once a day while it is missing a close
+      this.fetchedOn.put(symbol, today);
+      try {
+        PriceSeries fresh = PriceSeries.fromCsv(stock, checkStockPrice(stock));
+        if (fresh.size() > 0) {
+          this.priceCache.put(symbol, fresh);
+          // the extrema worked out over the old series no longer line up with the new one
+          this.extremaCache.keySet().removeIf(key -> (int) (key >>> 32) == symbol);
+          series = fresh;
+        }
+      } catch (IllegalArgumentException e) {
+        // the kept series is still right for every day it has
+      }
+    }
+    return series;
+  }
+
+  @Override
+  public RollingExtrema getRollingExtrema(String stock, int window) {
+    // fetched first so a refreshed series drops the extrema worked out over the old one, and a
+    // ticker only has an id once it has prices
+    PriceSeries series = getPriceSeries(stock);
+    int symbol = Symbols.find(stock);
+    if (symbol == -1 || series.size() == 0) {
+      return new RollingExtrema(series, window);
+    }
+    long key = (long) symbol << 32 | window;
+    RollingExtrema extrema = this.extremaCache.get(key);
+    if (extrema == null || extrema.getSeries() != series) {
+      extrema = new RollingExtrema(series, window);
+      this.extremaCache.put(key, extrema);
+    }
+    return extrema;
+  }
+
+  @Override
+  public List<Double> batchGainOrLoss(List<GainLossQuery> queries) {
+    Map<String, List<Integer>> byTicker = new LinkedHashMap<>();
+    for (int i = 0; i < queries.size(); i++) {
+      byTicker.computeIfAbsent(queries.get(i).getTicker(), k -> new ArrayList<>()).add(i);
+    }
+    List<Double> answers = new ArrayList<>(Collections.nCopies(queries.size(), Double.NaN));
+    for (Map.Entry<String, List<Integer>> entry : byTicker.entrySet()) {
+      PriceSeries series;
+      try {
+        series = getPriceSeries(entry.getKey());
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      for (int i : entry.getValue()) {
+        answers.set(i, queries.get(i).answer(series));
+      }
+    }
+    return answers;
+  }
+
+  @Override
+  public List<GainLossQuery> readGainLossQueries(String path) {
+    List<GainLossQuery> queries = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank()) {
+          queries.add(GainLossQuery.parse(line));
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read the file " + path);
+    }
+    return queries;
+  }
+
   @Override
   public ArrayList<String> xDayCrossover(String csv, int day, int month, int year, int x,
                                          double avg) {
-    String[] lines = csv.split("\n");
-    int goBack = x;
-    int counter = 0;
     ArrayList<String> outputp2 = new ArrayList<>();
     String output = "There were cross overs on the following dates:\n";
     outputp2.add(output);
-    for (int i = 1; i < lines.length - 1; i++) {
-      String[] info = lines[i].split(",");
-
-      String[] date = info[0].split("-");
-      int lookingDate = Integer.parseInt(date[2]);
-      int lookingMonth = Integer.parseInt(date[1]);
-      int lookingYear = Integer.parseInt(date[0]);
-      if (lookingDate == day && lookingMonth == month && lookingYear == year) {
-        counter = i;
-        break;
-      }
+    int goBack = Math.abs(x);
+    PriceSeries series = PriceSeries.fromCsv("", csv);
+    if (goBack == 0 || series.size() == 0) {
+      return outputp2;
+    }
+    double[] closes = series.closeColumn();
+    double[] average = RollingStats.rollingMean(closes, goBack);
+    int counter = series.indexOf((int) LocalDate.of(year, month, day).toEpochDay());
+    if (counter == -1) {
+      counter = series.size() - 1;
     }
 
-    for (int j = 0; j < Math.abs(goBack); j++) {
-      String[] data = lines[counter + j].split(",");
-      String[] prevdata = lines[counter + j + 1].split(",");
-      double total = 0.0;
-      for (int k = 0; k < Math.abs(goBack); k++) {
-        total += Double.parseDouble(data[4]);
+    // walks back from the date, a crossover is a close above the moving average
+    // on a day that follows a close below it
+    for (int j = 0; j < goBack; j++) {
+      int i = counter - j;
+      if (i < 1 || Double.isNaN(average[i - 1])) {
+        break;
       }
-      avg = total / x;
-      if ((Double.parseDouble(data[4]) > avg)
-              && (Double.parseDouble(prevdata[4]) < avg)) {
-        outputp2.add("There was a low to high crossover on " + prevdata[0] + "\n");
+      if (closes[i] > average[i] && closes[i - 1] < average[i - 1]) {
+        outputp2.add("There was a low to high crossover on " + series.getDate(i) + "\n");
       }
     }
     return outputp2;
@@ -321,31 +698,21 @@ public class StocksModelImpl implements StocksModel {
 
   @Override
   public double movingavg(String csv, int day, int month, int year, String stock, int x) {
-    String[] lines = csv.split("\n");
-    ArrayList<Double> allValues = new ArrayList<Double>();
-    int goBack = x;
-    int counter = 0;
-    double total = 0;
-    for (int i = 1; i < lines.length - 1; i++) {
-      String[] info = lines[i].split(",");
-
-      String[] date = info[0].split("-");
-      int lookingDate = Integer.parseInt(date[2]);
-      int lookingMonth = Integer.parseInt(date[1]);
-      int lookingYear = Integer.parseInt(date[0]);
-      if (lookingDate == day && lookingMonth == month && lookingYear == year) {
-        allValues.add(Double.parseDouble(info[4]));
-        counter = i;
-      }
-    }
-    for (int j = Math.abs(goBack); j != 0; j--) {
-      String[] o = lines[counter + j].split(",");
-      allValues.add(Double.parseDouble(o[4]));
-    }
-    for (int k = 0; k < allValues.size(); k++) {
-      total += allValues.get(k);
+    PriceSeries series = PriceSeries.fromCsv(stock, csv);
+    int goBack = Math.abs(x);
+    int counter = series.indexOf((int) LocalDate.of(year, month, day).toEpochDay());
+    int from;
+    int to;
+    if (counter == -1) {
+      // no data on the date, average the latest x days instead
+      to = series.size();
+      from = Math.max(0, to - goBack);
+    } else {
+      // the date itself plus the x trading days before it
+      to = counter + 1;
+      from = Math.max(0, counter - goBack);
     }
-    return total / allValues.size();
+    return RollingStats.mean(series.closeColumn(), from, to);
   }
 
   @Override
@@ -437,16 +804,18 @@ public class StocksModelImpl implements StocksModel {
     currDir = currDir + "/" + name;
     try (BufferedReader reader = new BufferedReader(new FileReader(currDir))) {
       String line;
-      newPortfolio(name);
-      int index = this.getPortfolios().size();
+      IPortfolio port = new Portfolio(name);
       while ((line = reader.readLine()) != null) {
         String[] s = line.split(",");
         String ticker = s[0];
         double quantity = Double.parseDouble(s[1]);
         String date = s[2];
-        this.portfolios.set(index - 1, this.getPortfolios().get(index - 1)
-                .addStock(ticker, quantity, date));
+        // files saved before costs were recorded only have three columns
+        double costBasis = s.length > 3 ? Double.parseDouble(s[3]) : Double.NaN;
+        port = port.addStock(ticker, quantity, date, costBasis);
       }
+      // the portfolio is only shared once all of it has been read
+      register(port);
     } catch (IOException e) {
       throw new RuntimeException();
     }
@@ -454,6 +823,69 @@ public class StocksModelImpl implements StocksModel {
 
   // ------------------------------------- Helpers ---------------------------------------------
 
+  // the message giving the value of a portfolio
+  private static String valueMessage(double roundedTotal) {
+    return "The value of the portfolio is " + String.format("%.2f", roundedTotal) + "\n";
+  }
+
+  // adds a portfolio at the end of the list and makes it the one found by its name
+  private void register(IPortfolio port) {
+    this.lock.writeLock().lock();
+    try {
+      AtomicReference<IPortfolio> slot = new AtomicReference<>(port);
+      this.positions.put(slot, this.slots.size());
+      this.slots.add(slot);
+      this.named.merge(port.getName(), Collections.singletonList(slot), (withName, added) -> {
+        List<AtomicReference<IPortfolio>> all = new ArrayList<>(withName);
+        all.addAll(added);
+        return all;
+      });
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  // works on the slot at the index while holding off deletes, so the index stays on the same
+  // portfolio until the work is done
+  private <T> T withSlot(int index, Function<AtomicReference<IPortfolio>, T> work) {
+    this.lock.readLock().lock();
+    try {
+      return work.apply(this.slots.get(index));
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  // replaces a portfolio with a changed version, applying the change again if another thread
+  // replaced it first so that no change is lost
+  private void update(int index, UnaryOperator<IPortfolio> change) {
+    withSlot(index, slot -> {
+      slot.updateAndGet(change);
+      // a kept daily valuation only needs the days on and after the new transactions
+      DailyValuation days = this.valuations.get(slot);
+      if (days != null) {
+        keep(this.valuations, slot, days, days.apply(slot.get(), this::getPriceSeries));
+      }
+      // and a kept running total only needs the tickers they traded
+      RunningValue running = this.latest.get(slot);
+      if (running != null) {
+        keep(this.latest, slot, running, running.apply(slot.get(), this::getPriceSeries));
+      }
+      return null;
+    });
+  }
+
+  // keeps a result worked out from the cached one unless another thread replaced that first,
+  // so prices are fetched outside the map rather than while it holds the slot's entry
+  private static <T> void keep(Map<AtomicReference<IPortfolio>, T> cache,
+                               AtomicReference<IPortfolio> slot, T cached, T result) {
+    if (cached == null) {
+      cache.putIfAbsent(slot, result);
+    } else {
+      cache.replace(slot, cached, result);
+    }
+  }
+
   /**
    * Checks if the date inputted into the method is a valid date meaning that the date is not a
    * weekend and that there is stock data available.
@@ -476,7 +908,6 @@ public class StocksModelImpl implements StocksModel {
   @Override
   public boolean checkValidStock(String stock) {
     String specialChars = "[^a-zA-Z0-9]";
-    StringBuilder o = new StringBuilder();
     if (stock.matches(specialChars)) {
       return false;
     }
@@ -484,22 +915,18 @@ public class StocksModelImpl implements StocksModel {
       Integer.parseInt(stock);
       return false;
     } catch (NumberFormatException e) {
-      try {
-        String currDir = System.getProperty("user.dir");
-        if (currDir.contains("src")) {
-          currDir = currDir.replace("/src", "/res");
-        } else {
-          currDir = currDir + "/res";
-        }
-        File stocks = new File(currDir + "/nasdaq_screener_1717539483453.csv");
-        Scanner sc = new Scanner(stocks);
-        while (sc.hasNext()) {
-          o.append(sc.nextLine());
-        }
-      } catch (FileNotFoundException msg) {
+      String currDir = System.getProperty("user.dir");
+      if (currDir.contains("src")) {
+        currDir = currDir.replace("/src", "/res");
+      } else {
+        currDir = currDir + "/res";
+      }
+      // the screener is read into Symbols once, and each check is then a lookup of its id
+      if (!Symbols.load(new File(currDir + "/nasdaq_screener_1717539483453.csv"))) {
         return false;
       }
     }
-    return o.toString().contains(stock);
+    return Symbols.isListed(stock);
   }
+
 }
@@ -0,0 +1,180 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds the tests for the StocksModelImpl that do not need the stock API.
+ */
+public class StocksModelImplTest {
+
+  /**
+   * Tests that portfolios created from several threads at once are all kept and found by name.
+   */
+  @Test
+  public void testConcurrentNewPortfolio() throws InterruptedException {
+    StocksModel model = new StocksModelImpl();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int thread = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 100; i++) {
+          model.newPortfolio("Port" + thread + "-" + i);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(800, model.getPortfolios().size());
+    for (int t = 0; t < 8; t++) {
+      for (int i = 0; i < 100; i++) {
+        String name = "Port" + t + "-" + i;
+        assertEquals(name, model.getPortfolios().get(model.indexOf(name)).getName());
+      }
+    }
+    model.deletePortfolio(0);
+    assertEquals(799, model.getPortfolios().size());
+    String last = model.getPortfolios().get(798).getName();
+    assertEquals(798, model.indexOf(last));
+  }
+
+  /**
+   * Tests that deleting a portfolio keeps every other one found by its name, including an older
+   * portfolio with the same name as the one deleted.
+   */
+  @Test
+  public void testDeleteKeepsNames() {
+    StocksModel model = new StocksModelImpl();
+    model.newPortfolio("A");
+    model.newPortfolio("B");
+    model.newPortfolio("A");
+    model.newPortfolio("C");
+    assertEquals(2, model.indexOf("A"));
+    model.deletePortfolio(2);
+    assertEquals(0, model.indexOf("A"));
+    assertEquals(2, model.indexOf("C"));
+    model.deletePortfolio(0);
+    assertEquals(-1, model.indexOf("A"));
+    assertEquals(0, model.indexOf("B"));
+    assertEquals(1, model.indexOf("C"));
+  }
+
+  /**
+   * Tests that changes made to portfolios while others are created and deleted all land on the
+   * portfolio they were made to.
+   */
+  @Test
+  public void testConcurrentEditsAndDeletes() throws InterruptedException {
+    StocksModel model = new StocksModelImpl();
+    for (int t = 0; t < 4; t++) {
+      model.newPortfolio("Kept" + t);
+    }
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      int thread = t;
+      threads.add(new Thread(() -> {
+        for (int i = 1; i <= 28; i++) {
+          model.setDate(thread, String.format("2024-02-%02d", i));
+        }
+      }));
+    }
+    threads.add(new Thread(() -> {
+      for (int i = 0; i < 200; i++) {
+        model.newPortfolio("Temp" + i);
+        model.deletePortfolio(model.indexOf("Temp" + i));
+      }
+    }));
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(4, model.getPortfolios().size());
+    for (int t = 0; t < 4; t++) {
+      assertEquals(t, model.indexOf("Kept" + t));
+      assertEquals("2024-02-28", model.getPortfolios().get(t).getDate());
+    }
+    assertEquals(-1, model.indexOf("Temp0"));
+  }
+
+  /**
+   * Tests that a purchase is still made when its price cannot be fetched, with its cost unknown.
+   */
+  @Test
+  public void testBuyWithoutPrices() {
+    StocksModel model = new StocksModelImpl() {
+      @Override
+      public String checkStockPrice(String stock) {
+        throw new IllegalArgumentException("No price data found for " + stock);
+      }
+    };
+    model.newPortfolio("Test");
+    model.addStock(0, "AAPL", 5, "2024-01-02");
+    IPortfolio port = model.getPortfolios().get(0);
+    assertEquals(5.0, port.getTotalShares("AAPL", "2024-01-02"), 1e-9);
+    assertTrue(Double.isNaN(port.getStock(0).getCostBasis()));
+  }
+
+  /**
+   * Tests that a ticker whose prices cannot be fetched is not given an id.
+   */
+  @Test
+  public void testFailedFetchKeepsNoId() {
+    StocksModel model = new StocksModelImpl() {
+      @Override
+      public String checkStockPrice(String stock) {
+        if (stock.equals("NOPRICES")) {
+          return "timestamp,open,high,low,close,volume\n";
+        }
+        throw new IllegalArgumentException("No price data found for " + stock);
+      }
+    };
+    assertEquals(0, model.getPriceSeries("NOPRICES").size());
+    assertEquals(0, model.getRollingExtrema("NOPRICES", 5).getSeries().size());
+    try {
+      model.getPriceSeries("NOFETCH");
+    } catch (IllegalArgumentException e) {
+      // the fetch failing is expected
+    }
+    assertEquals(-1, Symbols.find("NOPRICES"));
+    assertEquals(-1, Symbols.find("NOFETCH"));
+  }
+
+  /**
+   * Tests that the performance over time is read from the portfolio's daily values without
+   * downloading the prices again.
+   */
+  @Test
+  public void testPerformanceFromDailyValues() {
+    int[] fetches = new int[1];
+    StocksModel model = new StocksModelImpl() {
+      @Override
+      public String checkStockPrice(String stock) {
+        fetches[0]++;
+        String csv = "timestamp,open,high,low,close,volume\n";
+        for (int day = 5; day >= 1; day--) {
+          csv += "2024-01-0" + day + ",0,0,0," + (9 + day) + ",100\n";
+        }
+        return csv;
+      }
+    };
+    model.newPortfolio("Test");
+    model.addStock(0, "AAPL", 2, "2024-01-02");
+    Map<String, Double> points = model.calculatePerformanceOverTime(
+            model.getPortfolios().get(0), 5, "2024-01-06");
+    assertEquals(5, points.size());
+    assertEquals(28, points.get("2024-01-05"), 1e-9);
+    assertEquals(22, points.get("2024-01-02"), 1e-9);
+    assertEquals(0, points.get("2024-01-01"), 1e-9);
+    assertEquals(1, fetches[0]);
+  }
+}
@@ -39,7 +39,8 @@ public class StocksViewImpl implements StocksView {
             "over a specified date range with any value x.\n"
             + "4) View stock performance.\n"
             + "5) Portfolio Manager\n"
-            + "6) End Program\n";
+            + "6) End Program\n"
+            + "7) Examine the gain or loss of a batch of stocks and dates read from a file.\n";
     this.display(msg);
   }
 
@@ -85,7 +86,9 @@ public class StocksViewImpl implements StocksView {
             + "7) Save this portfolio.\n"
             + "8) Re-balance portfolio.\n"
             + "9) View performance over time.\n"
-            + "10) Exit.\n";
+            + "10) Exit.\n"
+            + "11) Sell shares of a stock, choosing which purchases are sold first.\n"
+            + "12) View the profit and loss of the portfolio.\n";
     this.display(msg);
   }
 }
@@ -0,0 +1,30 @@
+/**
+ * A trading rule that can be replayed over a stock's price history by the Backtester. The
+ * strategy works out whatever indicators it needs once in prepare, and then answers one
+ * signal per trading day from those precomputed columns, so replaying it does not allocate
+ * anything per day.
+ */
+public interface Strategy {
+  /**
+   * Computes the indicators of the strategy over the full price history. Called once before
+   * the history is replayed.
+   *
+   * @param series the PriceSeries the strategy will be replayed over.
+   */
+  void prepare(PriceSeries series);
+
+  /**
+   * Gets the signal of the strategy at the close of the specified trading day.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return the Signal of the strategy on the day.
+   */
+  Signal signal(int index);
+
+  /**
+   * Gets a short description of the strategy and its parameters.
+   *
+   * @return a String describing the strategy.
+   */
+  String getName();
+}
@@ -0,0 +1,141 @@
+import java.util.Arrays;
+
+/**
+ * Estimates one quantile of a stream of numbers without storing the stream, using the P-squared
+ * algorithm of Jain and Chlamtac. Five markers track the minimum, the maximum, the target
+ * quantile and the two quantiles halfway to it, and each new value nudges the markers with a
+ * parabolic fit. Until five values have been seen the quantile is read from the values
+ * directly, so short streams are exact.
+ */
+public final class StreamingQuantile {
+  private final double p;
+  private final double[] heights = new double[5];
+  private final double[] positions = new double[5];
+  private final double[] desired = new double[5];
+  private final double[] increments = new double[5];
+  private long count;
+
+  /**
+   * Constructs a StreamingQuantile object.
+   *
+   * @param p a double representing the quantile to estimate, strictly between 0 and 1.
+   * @throws IllegalArgumentException if p is not strictly between 0 and 1.
+   */
+  public StreamingQuantile(double p) {
+    if (!(p > 0 && p < 1)) {
+      throw new IllegalArgumentException("The quantile must be between 0 and 1.");
+    }
+    this.p = p;
+    for (int i = 0; i < 5; i++) {
+      positions[i] = i + 1;
+    }
+    desired[0] = 1;
+    desired[1] = 1 + 2 * p;
+    desired[2] = 1 + 4 * p;
+    desired[3] = 3 + 2 * p;
+    desired[4] = 5;
+    increments[0] = 0;
+    increments[1] = p / 2;
+    increments[2] = p;
+    increments[3] = (1 + p) / 2;
+    increments[4] = 1;
+  }
+
+  /**
+   * Adds a value to the stream.
+   *
+   * @param value a double representing the next value.
+   */
+  public void add(double value) {
+    if (count < 5) {
+      heights[(int) count++] = value;
+      if (count == 5) {
+        Arrays.sort(heights);
+      }
+      return;
+    }
+    count++;
+
+    // find the cell the value falls in, stretching the ends if it is a new extreme
+    int cell;
+    if (value < heights[0]) {
+      heights[0] = value;
+      cell = 0;
+    } else if (value >= heights[4]) {
+      heights[4] = Math.max(heights[4], value);
+      cell = 3;
+    } else {
+      cell = 0;
+      while (value >= heights[cell + 1]) {
+        cell++;
+      }
+    }
+    for (int i = cell + 1; i < 5; i++) {
+      positions[i]++;
+    }
+    for (int i = 0; i < 5; i++) {
+      desired[i] += increments[i];
+    }
+
+    // move the middle markers toward their desired positions
+    for (int i = 1; i <= 3; i++) {
+      double offset = desired[i] - positions[i];
+      if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+              || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+        int step = offset >= 0 ? 1 : -1;
+        double candidate = parabolic(i, step);
+        if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+          heights[i] = candidate;
+        } else {
+          heights[i] = linear(i, step);
+        }
+        positions[i] += step;
+      }
+    }
+  }
+
+  /**
+   * Gets the number of values added so far.
+   *
+   * @return a long representing the count.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the current estimate of the quantile.
+   *
+   * @return a double with the estimated quantile, or NaN if no values have been added.
+   */
+  public double getQuantile() {
+    if (count == 0) {
+      return Double.NaN;
+    }
+    if (count < 5) {
+      double[] seen = Arrays.copyOf(heights, (int) count);
+      Arrays.sort(seen);
+      // interpolates between the closest ranks
+      double rank = p * (seen.length - 1);
+      int below = (int) Math.floor(rank);
+      int above = Math.min(seen.length - 1, below + 1);
+      return seen[below] + (rank - below) * (seen[above] - seen[below]);
+    }
+    return heights[2];
+  }
+
+  // piecewise-parabolic prediction of marker i moved by step
+  private double parabolic(int i, int step) {
+    double span = positions[i + 1] - positions[i - 1];
+    double right = (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i]);
+    double left = (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]);
+    return heights[i] + step / span * ((positions[i] - positions[i - 1] + step) * right
+            + (positions[i + 1] - positions[i] - step) * left);
+  }
+
+  // linear prediction used when the parabola would leave the neighbouring markers
+  private double linear(int i, int step) {
+    return heights[i] + step * (heights[i + step] - heights[i])
+            / (positions[i + step] - positions[i]);
+  }
+}
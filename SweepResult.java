@@ -0,0 +1,110 @@
+import java.util.Comparator;
+
+/**
+ * Represents the score of one parameter combination in a ParameterSweep. Only the summary of
+ * the backtest is kept, so a sweep over thousands of combinations does not hold on to
+ * thousands of equity curves. A SweepResult is never modified after it is constructed.
+ */
+public final class SweepResult {
+  /**
+   * Orders results from the highest total return to the lowest.
+   */
+  public static final Comparator<SweepResult> BY_RETURN =
+          Comparator.comparingDouble(SweepResult::getTotalReturn).reversed();
+
+  /**
+   * Orders results from the highest Sharpe ratio to the lowest.
+   */
+  public static final Comparator<SweepResult> BY_SHARPE =
+          Comparator.comparingDouble(SweepResult::getSharpeRatio).reversed();
+
+  /**
+   * Orders results from the smallest maximum drawdown to the largest.
+   */
+  public static final Comparator<SweepResult> BY_DRAWDOWN =
+          Comparator.comparingDouble(SweepResult::getMaxDrawdown);
+
+  private final int window;
+  private final double threshold;
+  private final double totalReturn;
+  private final double sharpe;
+  private final double maxDrawdown;
+  private final int trades;
+
+  /**
+   * Constructs a SweepResult from the backtest of one parameter combination.
+   *
+   * @param window    an int representing the moving average window that was tested.
+   * @param threshold a double representing the crossover threshold that was tested.
+   * @param result    the BacktestResult of the combination.
+   */
+  public SweepResult(int window, double threshold, BacktestResult result) {
+    this.window = window;
+    this.threshold = threshold;
+    this.totalReturn = result.getTotalReturn();
+    this.sharpe = result.getSharpeRatio();
+    this.maxDrawdown = result.getMaxDrawdown();
+    this.trades = result.getTrades();
+  }
+
+  /**
+   * Gets the moving average window that was tested.
+   *
+   * @return an int representing the window in days.
+   */
+  public int getWindow() {
+    return window;
+  }
+
+  /**
+   * Gets the crossover threshold that was tested.
+   *
+   * @return a double representing the threshold as a fraction of the average.
+   */
+  public double getThreshold() {
+    return threshold;
+  }
+
+  /**
+   * Gets the total return of the backtest.
+   *
+   * @return a double with the return as a fraction, so 0.1 is 10%.
+   */
+  public double getTotalReturn() {
+    return totalReturn;
+  }
+
+  /**
+   * Gets the annualized Sharpe ratio of the backtest.
+   *
+   * @return a double with the Sharpe ratio.
+   */
+  public double getSharpeRatio() {
+    return sharpe;
+  }
+
+  /**
+   * Gets the maximum drawdown of the backtest.
+   *
+   * @return a double with the drawdown as a fraction of the peak.
+   */
+  public double getMaxDrawdown() {
+    return maxDrawdown;
+  }
+
+  /**
+   * Gets the number of trades made in the backtest.
+   *
+   * @return an int representing the number of buys and sells.
+   */
+  public int getTrades() {
+    return trades;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("window %d, threshold %.4f: return %.2f%%, Sharpe %.2f, max drawdown "
+                    + "%.2f%%, %d trades", window, threshold, totalReturn * 100, sharpe,
+            maxDrawdown * 100, trades);
+  }
+}
@@ -0,0 +1,157 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dictionary of ticker symbols shared by the whole program. Every ticker is given a small,
+ * dense int id the first time it is seen, so lots, caches and arrays can hold and compare ids
+ * instead of separate String copies of the same ticker. The symbols in the NASDAQ screener are
+ * given their ids first when it is loaded, and they are the tickers the program accepts. Ids are
+ * never reused or changed, and every method may be called from any thread.
+ */
+public final class Symbols {
+  private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+  // the ids of every capitalization of a ticker, by its upper case spelling
+  private static final Map<String, int[]> SPELLINGS = new HashMap<>();
+  private static volatile String[] tickers = new String[1024];
+  private static volatile int count = 0;
+  private static volatile BitSet listed = null;
+
+  private Symbols() {
+  }
+
+  /**
+   * Gets the id of a ticker, giving it the next id if it has none yet.
+   *
+   * @param ticker a String representing the ticker symbol.
+   * @return an int representing the ticker's id.
+   */
+  public static int id(String ticker) {
+    Integer id = IDS.get(ticker);
+    if (id != null) {
+      return id;
+    }
+    synchronized (Symbols.class) {
+      id = IDS.get(ticker);
+      if (id == null) {
+        id = count;
+        String[] names = tickers;
+        if (id == names.length) {
+          names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = ticker;
+        tickers = names;
+        count = id + 1;
+        String upper = ticker.toUpperCase(Locale.ROOT);
+        int[] spellings = SPELLINGS.getOrDefault(upper, new int[0]);
+        spellings = Arrays.copyOf(spellings, spellings.length + 1);
+        spellings[spellings.length - 1] = id;
+        SPELLINGS.put(upper, spellings);
+        IDS.put(ticker, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Gets the id of a ticker without giving it one.
+   *
+   * @param ticker a String representing the ticker symbol.
+   * @return an int representing the ticker's id, or -1 if the ticker has never been seen.
+   */
+  public static int find(String ticker) {
+    Integer id = IDS.get(ticker);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Gets the ticker with the specified id.
+   *
+   * @param id an int representing the ticker's id.
+   * @return a String with the ticker symbol.
+   * @throws IllegalArgumentException if no ticker has the id.
+   */
+  public static String ticker(int id) {
+    if (id < 0 || id >= count) {
+      throw new IllegalArgumentException("Unknown symbol id: " + id);
+    }
+    return tickers[id];
+  }
+
+  /**
+   * Gets the number of tickers given an id so far.
+   *
+   * @return an int representing the number of ids.
+   */
+  public static int size() {
+    return count;
+  }
+
+  /**
+   * Gets the ids of every capitalization of the ticker that has been seen, such as AAPL and
+   * aapl.
+   *
+   * @param ticker a String representing the ticker symbol.
+   * @return an array of ids in the order they were given, empty if none have been seen.
+   */
+  public static int[] spellings(String ticker) {
+    synchronized (Symbols.class) {
+      return SPELLINGS.getOrDefault(ticker.toUpperCase(Locale.ROOT), new int[0]).clone();
+    }
+  }
+
+  /**
+   * Loads the symbols of a NASDAQ screener file, a CSV file with the ticker in the first
+   * column and a header row. The file is only read the first time it loads successfully.
+   *
+   * @param screener the screener File.
+   * @return true if the screener has been loaded, false if the file could not be read.
+   */
+  public static synchronized boolean load(File screener) {
+    if (listed != null) {
+      return true;
+    }
+    List<String> symbols = new ArrayList<>();
+    try (Scanner sc = new Scanner(screener)) {
+      if (sc.hasNextLine()) {
+        sc.nextLine();
+      }
+      while (sc.hasNextLine()) {
+        String line = sc.nextLine();
+        int comma = line.indexOf(',');
+        String symbol = (comma == -1 ? line : line.substring(0, comma)).trim();
+        if (!symbol.isEmpty()) {
+          symbols.add(symbol);
+        }
+      }
+    } catch (FileNotFoundException e) {
+      return false;
+    }
+    BitSet marks = new BitSet();
+    for (String symbol : symbols) {
+      marks.set(id(symbol));
+    }
+    listed = marks;
+    return true;
+  }
+
+  /**
+   * Checks whether a ticker is one of the symbols in the loaded screener.
+   *
+   * @param ticker a String representing the ticker symbol.
+   * @return true if the screener lists the ticker, false if it does not or none is loaded.
+   */
+  public static boolean isListed(String ticker) {
+    BitSet marks = listed;
+    int id = find(ticker);
+    return marks != null && id != -1 && marks.get(id);
+  }
+}
@@ -0,0 +1,69 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the Symbols dictionary.
+ */
+public class SymbolsTest {
+
+  /**
+   * Tests that a ticker keeps the id it was first given and can be looked up by it.
+   */
+  @Test
+  public void testIdRoundTrip() {
+    int id = Symbols.id("SYMTEST");
+    assertEquals(id, Symbols.id("SYMTEST"));
+    assertEquals(id, Symbols.find("SYMTEST"));
+    assertEquals("SYMTEST", Symbols.ticker(id));
+    assertTrue(id < Symbols.size());
+    assertEquals(-1, Symbols.find("NEVERSEEN"));
+  }
+
+  /**
+   * Tests that an id no ticker has been given is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownId() {
+    Symbols.ticker(Symbols.size());
+  }
+
+  /**
+   * Tests that each capitalization of a ticker gets its own id and they are found together.
+   */
+  @Test
+  public void testSpellings() {
+    int upper = Symbols.id("SPELL");
+    int lower = Symbols.id("spell");
+    assertTrue(upper != lower);
+    assertArrayEquals(new int[]{upper, lower}, Symbols.spellings("Spell"));
+    assertArrayEquals(new int[0], Symbols.spellings("NOSPELL"));
+  }
+
+  /**
+   * Tests that only the symbols in the loaded screener are listed.
+   */
+  @Test
+  public void testLoad() throws IOException {
+    File screener = File.createTempFile("screener", ".csv");
+    screener.deleteOnExit();
+    try (PrintWriter out = new PrintWriter(screener)) {
+      out.println("Symbol,Name,Last Sale");
+      out.println("AAPL,Apple Inc. Common Stock,$194.35");
+      out.println("GOOG,Alphabet Inc. Class C Capital Stock,$176.29");
+    }
+    assertTrue(Symbols.load(screener));
+    assertTrue(Symbols.isListed("AAPL"));
+    assertTrue(Symbols.isListed("GOOG"));
+    assertFalse(Symbols.isListed("Symbol"));
+    assertFalse(Symbols.isListed("AAPLE"));
+    assertFalse(Symbols.isListed("NOTLISTED"));
+  }
+}
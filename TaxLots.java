@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the open purchase lots of one stock ordered for each way of choosing which lot to sell
+ * from, so finding the next lot to sell is a tree lookup instead of a scan over the whole
+ * portfolio. A stock has at most one lot per purchase date, so the purchase date identifies a
+ * lot. Each lot is stored with the id the Portfolio keeps it under, and the lots by date also
+ * sum their micro-shares so the shares held on any date take one O(log n) walk down the tree.
+ * The micro-shares are whole numbers, so their sums are exact however the tree is shaped. Like
+ * the Portfolio that holds it, a TaxLots object is never modified; adding or removing a lot
+ * copies only the O(log n) tree nodes on the way to it.
+ */
+final class TaxLots {
+  // ISO dates sort in the same order as the days they name
+  private static final Comparator<Stock> BY_DATE = Comparator.comparing(Stock::getDatePurchased);
+
+  // the most expensive lot first, with lots of unknown cost after every known one
+  private static final Comparator<Stock> BY_COST = Comparator
+          .comparingDouble((Stock lot) -> Double.isNaN(lot.getCostBasis())
+                  ? Double.NEGATIVE_INFINITY : lot.getCostBasis())
+          .reversed()
+          .thenComparing(BY_DATE);
+
+  static final TaxLots EMPTY = new TaxLots(new PersistentTree<>(Comparator.naturalOrder(),
+          (Entry entry) -> entry.lot.getMicroShares()), new PersistentTree<>(BY_COST));
+
+  private final PersistentTree<String, Entry> byDate;
+  private final PersistentTree<Stock, Long> byCost;
+
+  // a lot together with the id the Portfolio keeps it under
+  private static final class Entry {
+    private final long id;
+    private final Stock lot;
+
+    private Entry(long id, Stock lot) {
+      this.id = id;
+      this.lot = lot;
+    }
+  }
+
+  private TaxLots(PersistentTree<String, Entry> byDate, PersistentTree<Stock, Long> byCost) {
+    this.byDate = byDate;
+    this.byCost = byCost;
+  }
+
+  // returns a copy with the lot added under its id
+  TaxLots with(long id, Stock lot) {
+    return new TaxLots(byDate.put(lot.getDatePurchased(), new Entry(id, lot)),
+            byCost.put(lot, id));
+  }
+
+  // returns a copy with the lot removed
+  TaxLots without(Stock lot) {
+    return new TaxLots(byDate.remove(lot.getDatePurchased()), byCost.remove(lot));
+  }
+
+  // returns a copy with the lot swapped for an updated copy of itself
+  TaxLots replace(Stock old, long id, Stock updated) {
+    return without(old).with(id, updated);
+  }
+
+  boolean isEmpty() {
+    return byDate.isEmpty();
+  }
+
+  // finds the id of the lot bought on the date, or null
+  Long find(String date) {
+    Entry entry = byDate.get(date);
+    return entry == null ? null : entry.id;
+  }
+
+  // finds the id of the lot that was added to the portfolio first
+  long firstId() {
+    long first = Long.MAX_VALUE;
+    for (Entry entry : byDate) {
+      first = Math.min(first, entry.id);
+    }
+    return first;
+  }
+
+  // lists the ids of the lots bought on or before the date, oldest purchase first
+  List<Long> idsThrough(String date) {
+    List<Long> ids = new ArrayList<>();
+    for (Entry entry : byDate.headValues(date)) {
+      ids.add(entry.id);
+    }
+    return ids;
+  }
+
+  // adds up the shares of the lots bought on or before the date
+  double sharesThrough(String date) {
+    return FixedPoint.fromMicros((long) byDate.weightThrough(date));
+  }
+
+  // finds the id of the lot to sell from next among the lots bought on or before the date
+  Long select(LotMethod method, String date) {
+    if (byDate.isEmpty()) {
+      return null;
+    }
+    switch (method) {
+      case FIFO:
+        return byDate.keyAt(0).compareTo(date) <= 0 ? byDate.first().id : null;
+      case LIFO:
+        Entry last = byDate.floor(date);
+        return last == null ? null : last.id;
+      default:
+        // lots bought after the sale are skipped, which is rare for the most expensive lots
+        for (int i = 0; i < byCost.size(); i++) {
+          if (byCost.keyAt(i).getDatePurchased().compareTo(date) <= 0) {
+            return byCost.select(i);
+          }
+        }
+        return null;
+    }
+  }
+}
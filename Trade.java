@@ -0,0 +1,117 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Represents one buy or sell in a batch of trades given to the model. The model prices every
+ * trade at the closing price on its date and applies the whole batch to the portfolio at once,
+ * so either every trade is made or none are. A Trade is never modified after it is constructed.
+ */
+public final class Trade {
+  private final String ticker;
+  private final double quantity;
+  private final String date;
+  private final LotMethod method;
+
+  private Trade(String ticker, double quantity, String date, LotMethod method) {
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Quantity must be positive.");
+    }
+    try {
+      LocalDate.parse(date);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Dates must be in YYYY-MM-DD format.");
+    }
+    this.ticker = ticker;
+    this.quantity = quantity;
+    this.date = date;
+    this.method = method;
+  }
+
+  /**
+   * Creates a trade buying shares of a stock.
+   *
+   * @param ticker   a String representing the ticker symbol of the stock.
+   * @param quantity a double representing the number of shares to buy.
+   * @param date     a String representing the date of the purchase in 'YYYY-MM-DD' format.
+   * @return a Trade buying the shares.
+   * @throws IllegalArgumentException if the quantity is not positive or the date is not in
+   *                                  'YYYY-MM-DD' format.
+   */
+  public static Trade buy(String ticker, double quantity, String date) {
+    return new Trade(ticker, quantity, date, null);
+  }
+
+  /**
+   * Creates a trade selling shares of a stock.
+   *
+   * @param ticker   a String representing the ticker symbol of the stock.
+   * @param quantity a double representing the number of shares to sell.
+   * @param date     a String representing the date of the sale in 'YYYY-MM-DD' format.
+   * @param method   the LotMethod deciding which purchases are sold first.
+   * @return a Trade selling the shares.
+   * @throws IllegalArgumentException if the quantity is not positive, the date is not in
+   *                                  'YYYY-MM-DD' format or the method is null.
+   */
+  public static Trade sell(String ticker, double quantity, String date, LotMethod method) {
+    if (method == null) {
+      throw new IllegalArgumentException("A sale needs a lot method.");
+    }
+    return new Trade(ticker, quantity, date, method);
+  }
+
+  /**
+   * Checks whether the trade buys shares.
+   *
+   * @return true if the trade is a purchase, false if it is a sale.
+   */
+  public boolean isBuy() {
+    return method == null;
+  }
+
+  /**
+   * Gets the ticker of the stock traded.
+   *
+   * @return a String with the ticker symbol of the stock.
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets the number of shares traded.
+   *
+   * @return a double with the number of shares.
+   */
+  public double getQuantity() {
+    return quantity;
+  }
+
+  /**
+   * Gets the date of the trade.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate() {
+    return date;
+  }
+
+  /**
+   * Gets the lot method a sale uses.
+   *
+   * @return the LotMethod of a sale, or null for a purchase.
+   */
+  public LotMethod getMethod() {
+    return method;
+  }
+
+  /**
+   * Makes the portfolio event that records the trade at the specified price.
+   *
+   * @param price a double representing the price per share.
+   * @return a PortfolioEvent that makes the trade when applied to a portfolio.
+   */
+  public PortfolioEvent toEvent(double price) {
+    return new PortfolioEvent(isBuy() ? PortfolioEvent.Type.BUY : PortfolioEvent.Type.SELL,
+            ticker, quantity, date, price, method);
+  }
+}
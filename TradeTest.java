@@ -0,0 +1,71 @@
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Holds all the tests for the Trade.
+ */
+public class TradeTest {
+
+  /**
+   * Tests that buys and sells become the matching portfolio events.
+   */
+  @Test
+  public void testToEvent() {
+    Trade buy = Trade.buy("GOOG", 5, "2024-01-02");
+    assertTrue(buy.isBuy());
+    assertNull(buy.getMethod());
+    PortfolioEvent bought = buy.toEvent(100);
+    assertEquals(PortfolioEvent.Type.BUY, bought.getType());
+    assertEquals(5, bought.getQuantity(), 0);
+    assertEquals(100, bought.getPrice(), 0);
+
+    Trade sell = Trade.sell("GOOG", 2, "2024-01-03", LotMethod.LIFO);
+    assertFalse(sell.isBuy());
+    PortfolioEvent sold = sell.toEvent(110);
+    assertEquals(PortfolioEvent.Type.SELL, sold.getType());
+    assertEquals(LotMethod.LIFO, sold.getMethod());
+    assertEquals("2024-01-03", sold.getDate());
+  }
+
+  /**
+   * Tests that applying the events of a batch in order makes every trade.
+   */
+  @Test
+  public void testBatchOfEvents() {
+    IPortfolio port = new Portfolio("Test");
+    port = Trade.buy("GOOG", 5, "2024-01-02").toEvent(100).applyTo(port);
+    port = Trade.buy("AAPL", 2, "2024-01-02").toEvent(50).applyTo(port);
+    port = Trade.sell("GOOG", 3, "2024-01-03", LotMethod.FIFO).toEvent(110).applyTo(port);
+    assertEquals(2, port.getTotalShares("GOOG", "2024-01-03"), 0);
+    assertEquals(2, port.getTotalShares("AAPL", "2024-01-03"), 0);
+    assertEquals(30, port.getRealizedGains("2024-01-03").get(0).getGain(), 1e-9);
+  }
+
+  /**
+   * Tests that a trade of no shares is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroQuantity() {
+    Trade.buy("GOOG", 0, "2024-01-02");
+  }
+
+  /**
+   * Tests that a trade with a badly formatted date is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadDate() {
+    Trade.buy("GOOG", 1, "01/02/2024");
+  }
+
+  /**
+   * Tests that a sale without a lot method is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSellWithoutMethod() {
+    Trade.sell("GOOG", 1, "2024-01-02", null);
+  }
+}
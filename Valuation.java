@@ -0,0 +1,166 @@
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Holds the value of a portfolio on one date, worked out in a single pass over its holdings:
+ * each ticker's shares, closing price, value and share of the total, together with the total.
+ * The portfolio value, the distribution of value and re-balancing all read this one result, so
+ * no holding is priced twice. Values are kept in micro-dollars. A Valuation is never modified
+ * after it is constructed.
+ */
+public final class Valuation {
+  private final String name;
+  private final String date;
+  private final String[] tickers;
+  private final long[] microShares;
+  private final double[] prices;
+  private final long[] values;
+  private final long total;
+
+  private Valuation(String name, String date, String[] tickers, long[] microShares,
+                    double[] prices, long[] values, long total) {
+    this.name = name;
+    this.date = date;
+    this.tickers = tickers;
+    this.microShares = microShares;
+    this.prices = prices;
+    this.values = values;
+    this.total = total;
+  }
+
+  /**
+   * Values the holdings of a portfolio on a date at that date's closing prices.
+   *
+   * @param port   the portfolio to value.
+   * @param date   a String representing the date in 'YYYY-MM-DD' format.
+   * @param prices a function giving the price history of a ticker.
+   * @return a Valuation with one entry per ticker held on the date, in the order
+   *          distributionOfValue lists them.
+   * @throws IllegalArgumentException if a stock held has no closing price on the date.
+   */
+  public static Valuation of(IPortfolio port, String date,
+                             Function<String, PriceSeries> prices) {
+    List<Stock> holdings = port.distributionOfValue(date);
+    int n = holdings.size();
+    String[] tickers = new String[n];
+    long[] microShares = new long[n];
+    double[] closes = new double[n];
+    long[] values = new long[n];
+    // adds up whole micro-dollars, so the total does not depend on the order of the stocks
+    long total = 0;
+    for (int i = 0; i < n; i++) {
+      Stock stock = holdings.get(i);
+      tickers[i] = stock.getTicker();
+      microShares[i] = stock.getMicroShares();
+      closes[i] = prices.apply(tickers[i]).closeOn(date);
+      values[i] = FixedPoint.value(microShares[i], closes[i]);
+      total += values[i];
+    }
+    return new Valuation(port.getName(), date, tickers, microShares, closes, values, total);
+  }
+
+  /**
+   * Gets the name of the portfolio valued.
+   *
+   * @return a String with the name of the portfolio.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the date of the valuation.
+   *
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate() {
+    return date;
+  }
+
+  /**
+   * Gets the number of tickers held on the date.
+   *
+   * @return an int representing the number of holdings.
+   */
+  public int size() {
+    return tickers.length;
+  }
+
+  /**
+   * Gets the ticker of the holding at the specified position.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a String with the ticker symbol.
+   */
+  public String getTicker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * Gets the number of shares of the holding at the specified position.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a double with the number of shares.
+   */
+  public double getQuantity(int index) {
+    return FixedPoint.fromMicros(microShares[index]);
+  }
+
+  /**
+   * Gets the number of shares of the holding at the specified position in millionths.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a long with the number of micro-shares.
+   */
+  public long getMicroShares(int index) {
+    return microShares[index];
+  }
+
+  /**
+   * Gets the closing price on the date of the holding at the specified position.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a double with the price per share.
+   */
+  public double getPrice(int index) {
+    return prices[index];
+  }
+
+  /**
+   * Gets the value of the holding at the specified position.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a double with the shares times the price.
+   */
+  public double getValue(int index) {
+    return FixedPoint.fromMicros(values[index]);
+  }
+
+  /**
+   * Gets the share of the portfolio's value made up by the holding at the specified position.
+   *
+   * @param index an int representing the position of the holding.
+   * @return a double between 0 and 1, or NaN if the portfolio is worth nothing.
+   */
+  public double getWeight(int index) {
+    return total == 0 ? Double.NaN : values[index] / (double) total;
+  }
+
+  /**
+   * Gets the value of the portfolio on the date.
+   *
+   * @return a double with the total value of the holdings.
+   */
+  public double getTotal() {
+    return FixedPoint.fromMicros(total);
+  }
+
+  /**
+   * Gets the value of the portfolio on the date rounded to the cent, as it is shown to the user.
+   *
+   * @return a double with the total value rounded to the cent.
+   */
+  public double getRoundedTotal() {
+    return FixedPoint.roundToCents(total);
+  }
+}
@@ -0,0 +1,82 @@
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Holds all the tests for the Valuation.
+ */
+public class ValuationTest {
+  private Map<String, PriceSeries> prices;
+  private int requests;
+
+  /**
+   * Sets up two days of prices for two stocks. Called before every test method.
+   */
+  @Before
+  public void setUp() {
+    int start = (int) LocalDate.parse("2024-01-01").toEpochDay();
+    prices = new HashMap<>();
+    prices.put("AAPL", new PriceSeries("AAPL", new int[]{start, start + 1},
+            new double[]{10, 12.345}));
+    prices.put("GOOG", new PriceSeries("GOOG", new int[]{start, start + 1},
+            new double[]{100, 101}));
+    requests = 0;
+  }
+
+  // looks up a price history, counting how many times it is asked for
+  private PriceSeries lookup(String ticker) {
+    requests++;
+    return prices.get(ticker);
+  }
+
+  /**
+   * Tests that each holding is priced once and the values, weights and total line up.
+   */
+  @Test
+  public void testHoldings() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 1, "2024-01-01")
+            .addStock("AAPL", 2, "2024-01-01")
+            .addStock("GOOG", 2, "2024-01-02")
+            .addStock("AAPL", 1, "2024-01-03");
+    Valuation valuation = Valuation.of(port, "2024-01-02", this::lookup);
+    assertEquals(2, requests);
+    assertEquals("Test", valuation.getName());
+    assertEquals(2, valuation.size());
+    assertEquals("GOOG", valuation.getTicker(0));
+    assertEquals(3, valuation.getQuantity(0), 0);
+    assertEquals(101, valuation.getPrice(0), 0);
+    assertEquals(303, valuation.getValue(0), 1e-9);
+    assertEquals("AAPL", valuation.getTicker(1));
+    assertEquals(24.69, valuation.getValue(1), 1e-9);
+    assertEquals(327.69, valuation.getTotal(), 1e-9);
+    assertEquals(327.69, valuation.getRoundedTotal(), 0);
+    assertEquals(1, valuation.getWeight(0) + valuation.getWeight(1), 1e-12);
+    assertEquals(303 / 327.69, valuation.getWeight(0), 1e-9);
+  }
+
+  /**
+   * Tests that a portfolio with nothing held on the date is worth nothing.
+   */
+  @Test
+  public void testEmpty() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 1, "2024-01-02");
+    Valuation valuation = Valuation.of(port, "2024-01-01", this::lookup);
+    assertEquals(0, valuation.size());
+    assertEquals(0, valuation.getTotal(), 0);
+    assertEquals(0, requests);
+  }
+
+  /**
+   * Tests that a stock with no closing price on the date is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoPrice() {
+    IPortfolio port = new Portfolio("Test").addStock("GOOG", 1, "2024-01-01");
+    Valuation.of(port, "2024-01-03", this::lookup);
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Represents the simulated values of a portfolio at the end of a projection horizon. The values
+ * are kept sorted, so any percentile can be read without sorting again. A ValueProjection is
+ * never modified after it is constructed.
+ */
+public final class ValueProjection {
+  /**
+   * The percentiles reported as bands around the median.
+   */
+  public static final double[] BANDS = {5, 25, 50, 75, 95};
+
+  private final double startValue;
+  private final int days;
+  private final double[] sorted;
+
+  /**
+   * Constructs a ValueProjection object.
+   *
+   * @param startValue a double representing the value of the portfolio today.
+   * @param days       an int representing how many trading days ahead the values are.
+   * @param sorted     an array of doubles with the simulated values, sorted in ascending order.
+   */
+  public ValueProjection(double startValue, int days, double[] sorted) {
+    if (sorted.length == 0) {
+      throw new IllegalArgumentException("A projection needs at least one path.");
+    }
+    this.startValue = startValue;
+    this.days = days;
+    this.sorted = sorted;
+  }
+
+  /**
+   * Gets the value of the portfolio the projection starts from.
+   *
+   * @return a double with the starting value.
+   */
+  public double getStartValue() {
+    return startValue;
+  }
+
+  /**
+   * Gets how many trading days ahead the projection looks.
+   *
+   * @return an int representing the horizon in trading days.
+   */
+  public int getDays() {
+    return days;
+  }
+
+  /**
+   * Gets the number of simulated paths.
+   *
+   * @return an int representing the number of paths.
+   */
+  public int getPaths() {
+    return sorted.length;
+  }
+
+  /**
+   * Gets a percentile of the simulated values, interpolating between neighbouring paths.
+   *
+   * @param percentile a double between 0 and 100.
+   * @return a double with the value that the given percent of paths ended below.
+   * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+   */
+  public double percentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+    }
+    double rank = percentile / 100 * (sorted.length - 1);
+    int below = (int) Math.floor(rank);
+    int above = Math.min(sorted.length - 1, below + 1);
+    return sorted[below] + (rank - below) * (sorted[above] - sorted[below]);
+  }
+
+  /**
+   * Gets the values at each of the reported percentile bands.
+   *
+   * @return an array of doubles with one value per entry of BANDS.
+   */
+  public double[] bands() {
+    double[] out = new double[BANDS.length];
+    for (int i = 0; i < BANDS.length; i++) {
+      out[i] = percentile(BANDS[i]);
+    }
+    return out;
+  }
+
+  /**
+   * Gets the share of paths that ended below the starting value.
+   *
+   * @return a double between 0 and 1.
+   */
+  public double probabilityOfLoss() {
+    // the values are sorted, so the losing paths are a prefix
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < startValue) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return (double) low / sorted.length;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder(String.format("Projected value in %d trading "
+            + "days from %.2f (%d paths):\n", days, startValue, sorted.length));
+    double[] values = bands();
+    for (int i = 0; i < BANDS.length; i++) {
+      output.append(String.format("%.0fth percentile: %.2f\n", BANDS[i], values[i]));
+    }
+    output.append(String.format("Chance of a loss: %.2f%%", probabilityOfLoss() * 100));
+    return output.toString();
+  }
+}
@@ -0,0 +1,220 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Represents the value of a portfolio on every trading day of a date range, together with the
+ * money put into or taken out of the portfolio on each day. Keeping the contributions next to
+ * the values lets the daily returns exclude purchases and sales, so buying more shares is not
+ * mistaken for a gain. The series is built in one sweep over the portfolio's transactions and
+ * the lined-up price histories of its stocks and is never modified after it is constructed.
+ */
+public final class ValueSeries {
+  private final String name;
+  private final int[] epochDays;
+  private final double[] values;
+  private final double[] flows;
+
+  /**
+   * Constructs a ValueSeries from columns that are already sorted from oldest to newest.
+   *
+   * @param name      a String representing the name of the portfolio.
+   * @param epochDays an array of ints representing the trading days as epoch days.
+   * @param values    an array of doubles representing the value of the portfolio each day.
+   * @param flows     an array of doubles representing the money added to the portfolio each
+   *                  day, valued at that day's closing prices, negative when it is taken out.
+   */
+  public ValueSeries(String name, int[] epochDays, double[] values, double[] flows) {
+    if (epochDays.length != values.length || values.length != flows.length) {
+      throw new IllegalArgumentException("Dates, values and flows must be the same length.");
+    }
+    this.name = name;
+    this.epochDays = epochDays;
+    this.values = values;
+    this.flows = flows;
+  }
+
+  /**
+   * Builds the daily value series of a portfolio from its history of transactions. The trading
+   * days are the days every stock held during the range has a price for. Shares count toward a
+   * day from the date they were bought until the date they were sold or removed, and a sale is
+   * recorded as money taken out of the portfolio.
+   *
+   * @param port     the portfolio to value.
+   * @param prices   a function giving the price history of a ticker.
+   * @param startDay an int representing the first day of the range as an epoch day.
+   * @param endDay   an int representing the last day of the range as an epoch day.
+   * @return a ValueSeries with the portfolio's value and contributions on each trading day.
+   */
+  public static ValueSeries of(IPortfolio port, Function<String, PriceSeries> prices,
+                               int startDay, int endDay) {
+    // the transactions made by the end of the range, sorted by the day they take effect
+    List<PortfolioEvent> events = port.getHistory();
+    int eventCount = 0;
+    long[] order = new long[events.size()];
+    int[] columns = new int[events.size()];
+    Map<String, Integer> columnOf = new HashMap<>();
+    List<String> tickers = new ArrayList<>();
+    for (int i = 0; i < events.size(); i++) {
+      PortfolioEvent event = events.get(i);
+      int day = (int) LocalDate.parse(event.getDate()).toEpochDay();
+      if (day <= endDay) {
+        Integer column = columnOf.get(event.getTicker());
+        if (column == null) {
+          column = tickers.size();
+          columnOf.put(event.getTicker(), column);
+          tickers.add(event.getTicker());
+        }
+        columns[i] = column;
+        // packs the day above the event's position so sorting orders by day, then by history
+        order[eventCount++] = ((long) day << 32) | i;
+      }
+    }
+    order = Arrays.copyOf(order, eventCount);
+    Arrays.sort(order);
+
+    List<PriceSeries> series = new ArrayList<>();
+    for (String ticker : tickers) {
+      series.add(prices.apply(ticker));
+    }
+    AlignedSeries aligned = AlignedSeries.align(series, startDay, endDay);
+
+    int n = aligned.size();
+    int[] days = new int[n];
+    double[] values = new double[n];
+    double[] flows = new double[n];
+    double[] held = new double[tickers.size()];
+    int next = 0;
+    for (int t = 0; t < n; t++) {
+      days[t] = aligned.getEpochDay(t);
+      double flow = 0;
+      while (next < eventCount && (int) (order[next] >>> 32) <= days[t]) {
+        int i = (int) order[next];
+        PortfolioEvent event = events.get(i);
+        double change = event.getType() == PortfolioEvent.Type.BUY
+                ? event.getQuantity() : -event.getQuantity();
+        held[columns[i]] += change;
+        if (t > 0) {
+          flow += change * aligned.getValue(columns[i], t);
+        }
+        next++;
+      }
+      double value = 0;
+      for (int column = 0; column < held.length; column++) {
+        value += held[column] * aligned.getValue(column, t);
+      }
+      values[t] = value;
+      flows[t] = flow;
+    }
+    return new ValueSeries(port.getName(), days, values, flows);
+  }
+
+  /**
+   * Gets the name of the portfolio the series belongs to.
+   *
+   * @return a String with the name of the portfolio.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of trading days in the series.
+   *
+   * @return an int representing the number of days.
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Gets the trading day at the specified position as an epoch day.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return an int representing the epoch day.
+   */
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Gets the trading day at the specified position as a formatted date.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a String with the date formatted: 'YYYY-MM-DD'.
+   */
+  public String getDate(int index) {
+    return LocalDate.ofEpochDay(epochDays[index]).toString();
+  }
+
+  /**
+   * Finds the position of the last trading day on or before the specified day.
+   *
+   * @param epochDay an int representing the day to look for as an epoch day.
+   * @return the position of the last trading day on or before the day, or -1 if the day is
+   *          before the start of the series.
+   */
+  public int indexAtOrBefore(int epochDay) {
+    int low = 0;
+    int high = epochDays.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (epochDays[mid] <= epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Gets the value of the portfolio at the close of the specified trading day.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a double with the value of the portfolio.
+   */
+  public double getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Gets the money added to the portfolio on the specified trading day.
+   *
+   * @param index an int representing the position in the series, 0 being the oldest day.
+   * @return a double with the value of the shares bought that day at its closing prices, less
+   *          the value of the shares sold.
+   */
+  public double getFlow(int index) {
+    return flows[index];
+  }
+
+  /**
+   * Gets the return of the portfolio from the previous trading day to the specified day, not
+   * counting the shares bought or sold on the day.
+   *
+   * @param index an int representing the position in the series, at least 1.
+   * @return a double with the daily return, or NaN if the portfolio held nothing the day
+   *          before.
+   */
+  public double returnAt(int index) {
+    if (values[index - 1] <= 0) {
+      return Double.NaN;
+    }
+    return (values[index] - flows[index]) / values[index - 1] - 1;
+  }
+
+  /**
+   * Returns the values as a PriceSeries named after the portfolio, so the portfolio can be
+   * lined up against stocks.
+   *
+   * @return a PriceSeries whose closing prices are the portfolio's daily values.
+   */
+  public PriceSeries asPriceSeries() {
+    return new PriceSeries(name, epochDays, values);
+  }
+}
@@ -0,0 +1,171 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Holds the RollingStats kernels written with the incubating Vector API, so each loop works on
+ * as many doubles at once as the processor's widest vector register holds. RollingStats only
+ * calls these kernels once they have been selected, which needs the jdk.incubator.vector module:
+ * compile with --add-modules jdk.incubator.vector, and run with the same option to use them.
+ *
+ * <p>A rolling sum is a running total of the change each step makes to the window, worked out
+ * a vector at a time with a prefix sum inside each vector, and the total so far is carried from
+ * one vector to the next in a register rather than read back out of it. The running totals
+ * start again from a sum of the window itself every BLOCK positions so rounding cannot build up
+ * over a long series. The rolling variance keeps running totals of the values and of their
+ * squares measured from the first value of each block, which keeps them small enough that
+ * subtracting one from the other loses little precision. The rolling extremes use the van
+ * Herk/Gil-Werman method: the extreme of each window is the larger of a suffix of one block of
+ * the window's length and a prefix of the next, and the two are combined a vector at a time.
+ */
+final class VectorKernels {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  // the number of positions between the restarts of the running totals
+  private static final int BLOCK = 1024;
+  // moves every lane up by 1, 2, 4 and so on, with the lanes left below cleared by the masks
+  private static final VectorShuffle<Double>[] SHIFTS;
+  private static final VectorMask<Double>[] BELOW;
+  // copies the last lane into every lane
+  private static final VectorShuffle<Double> LAST =
+          VectorShuffle.fromOp(SPECIES, lane -> SPECIES.length() - 1);
+
+  static {
+    int steps = Integer.numberOfTrailingZeros(SPECIES.length());
+    @SuppressWarnings("unchecked")
+    VectorShuffle<Double>[] shifts = new VectorShuffle[steps];
+    @SuppressWarnings("unchecked")
+    VectorMask<Double>[] below = new VectorMask[steps];
+    for (int k = 0; k < steps; k++) {
+      int shift = 1 << k;
+      shifts[k] = VectorShuffle.fromOp(SPECIES, lane -> Math.max(0, lane - shift));
+      below[k] = VectorMask.fromLong(SPECIES, (1L << shift) - 1);
+    }
+    SHIFTS = shifts;
+    BELOW = below;
+  }
+
+  private VectorKernels() {
+    // static kernels only
+  }
+
+  // adds up the range a vector at a time
+  static double sum(double[] values, int from, int to) {
+    DoubleVector total = DoubleVector.zero(SPECIES);
+    int i = from;
+    for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+      total = total.add(DoubleVector.fromArray(SPECIES, values, i));
+    }
+    double result = total.reduceLanes(VectorOperators.ADD);
+    for (; i < to; i++) {
+      result += values[i];
+    }
+    return result;
+  }
+
+  // runs a total of the change each step makes to the window, starting again every block
+  static double[] rollingSum(double[] values, int window, double[] out) {
+    int lanes = SPECIES.length();
+    for (int start = window - 1; start < values.length; start += BLOCK) {
+      int end = Math.min(values.length, start + BLOCK);
+      out[start] = sum(values, start - window + 1, start + 1);
+      DoubleVector carry = DoubleVector.broadcast(SPECIES, out[start]);
+      int i = start + 1;
+      for (; i + lanes <= end; i += lanes) {
+        DoubleVector change = DoubleVector.fromArray(SPECIES, values, i)
+                .sub(DoubleVector.fromArray(SPECIES, values, i - window));
+        DoubleVector totals = prefixSum(change).add(carry);
+        totals.intoArray(out, i);
+        carry = totals.rearrange(LAST);
+      }
+      double total = carry.lane(0);
+      for (; i < end; i++) {
+        total += values[i] - values[i - window];
+        out[i] = total;
+      }
+    }
+    return out;
+  }
+
+  // runs totals of the values and their squares measured from the first value of each block
+  static double[] rollingVariance(double[] values, int window, double[] out) {
+    int lanes = SPECIES.length();
+    for (int start = window - 1; start < values.length; start += BLOCK) {
+      int end = Math.min(values.length, start + BLOCK);
+      double shift = values[start];
+      double sum = 0;
+      double squares = 0;
+      for (int j = start - window + 1; j <= start; j++) {
+        double d = values[j] - shift;
+        sum += d;
+        squares += d * d;
+      }
+      out[start] = variance(sum, squares, window);
+      DoubleVector sumCarry = DoubleVector.broadcast(SPECIES, sum);
+      DoubleVector squareCarry = DoubleVector.broadcast(SPECIES, squares);
+      int i = start + 1;
+      for (; i + lanes <= end; i += lanes) {
+        DoubleVector added = DoubleVector.fromArray(SPECIES, values, i).sub(shift);
+        DoubleVector dropped = DoubleVector.fromArray(SPECIES, values, i - window).sub(shift);
+        DoubleVector sums = prefixSum(added.sub(dropped)).add(sumCarry);
+        DoubleVector squareSums = prefixSum(added.mul(added).sub(dropped.mul(dropped)))
+                .add(squareCarry);
+        sums.mul(sums).div(-window).add(squareSums).div(window).max(0).intoArray(out, i);
+        sumCarry = sums.rearrange(LAST);
+        squareCarry = squareSums.rearrange(LAST);
+      }
+      sum = sumCarry.lane(0);
+      squares = squareCarry.lane(0);
+      for (; i < end; i++) {
+        double added = values[i] - shift;
+        double dropped = values[i - window] - shift;
+        sum += added - dropped;
+        squares += added * added - dropped * dropped;
+        out[i] = variance(sum, squares, window);
+      }
+    }
+    return out;
+  }
+
+  // combines the extreme of the suffix of one block with that of the prefix of the next
+  static double[] rollingExtreme(double[] values, int window, boolean max, double[] out) {
+    int n = values.length;
+    double[] prefix = new double[n];
+    double[] suffix = new double[n];
+    for (int i = 0; i < n; i++) {
+      prefix[i] = i % window == 0 ? values[i] : extreme(prefix[i - 1], values[i], max);
+    }
+    for (int i = n - 1; i >= 0; i--) {
+      suffix[i] = i == n - 1 || (i + 1) % window == 0 ? values[i]
+              : extreme(suffix[i + 1], values[i], max);
+    }
+    VectorOperators.Binary op = max ? VectorOperators.MAX : VectorOperators.MIN;
+    int i = window - 1;
+    for (int bound = i + SPECIES.loopBound(n - i); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, suffix, i - window + 1)
+              .lanewise(op, DoubleVector.fromArray(SPECIES, prefix, i))
+              .intoArray(out, i);
+    }
+    for (; i < n; i++) {
+      out[i] = extreme(suffix[i - window + 1], prefix[i], max);
+    }
+    return out;
+  }
+
+  // the running total of the lanes, each lane holding the sum of itself and the lanes below it
+  private static DoubleVector prefixSum(DoubleVector lanes) {
+    for (int k = 0; k < SHIFTS.length; k++) {
+      lanes = lanes.add(lanes.rearrange(SHIFTS[k]).blend(0, BELOW[k]));
+    }
+    return lanes;
+  }
+
+  private static double variance(double sum, double squares, int window) {
+    return Math.max(0, (squares - sum * sum / window) / window);
+  }
+
+  private static double extreme(double a, double b, boolean max) {
+    return max ? Math.max(a, b) : Math.min(a, b);
+  }
+}